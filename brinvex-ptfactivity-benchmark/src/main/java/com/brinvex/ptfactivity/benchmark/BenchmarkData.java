@@ -0,0 +1,137 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static java.time.ZoneOffset.UTC;
+
+/// Benchmark inputs not covered by the test-support generators.
+/// The data of one business day depends only on the date and the number of trades per day,
+/// so overlapping periods generate identical records for the shared days.
+final class BenchmarkData {
+
+    record Instrument(String symbol, String name, String isin, String figi, String exchange, BigDecimal basePrice) {
+    }
+
+    static final List<Instrument> INSTRUMENTS = List.of(
+            new Instrument("AAPL", "APPLE INC", "US0378331005", "BBG000B9XRY4", "NASDAQ", new BigDecimal("190")),
+            new Instrument("MSFT", "MICROSOFT CORP", "US5949181045", "BBG000BPH459", "NASDAQ", new BigDecimal("410")),
+            new Instrument("NVDA", "NVIDIA CORP", "US67066G1040", "BBG000BBJQV0", "NASDAQ", new BigDecimal("120")),
+            new Instrument("AMZN", "AMAZON.COM INC", "US0231351067", "BBG000BVPV84", "NASDAQ", new BigDecimal("180")),
+            new Instrument("KO", "COCA-COLA CO", "US1912161007", "BBG000BMX289", "NYSE", new BigDecimal("60")),
+            new Instrument("JNJ", "JOHNSON & JOHNSON", "US4781601046", "BBG000BMHYD1", "NYSE", new BigDecimal("155"))
+    );
+
+    private BenchmarkData() {
+    }
+
+    /// One year of history ending 2024-12-31 with a fixed seed.
+    static LoadDataSpec spec(String accountId, int tradesPerDay) {
+        return spec(accountId, 1, tradesPerDay);
+    }
+
+    /// The given number of years of history ending 2024-12-31 with a fixed seed.
+    static LoadDataSpec spec(String accountId, int years, int tradesPerDay) {
+        return new LoadDataSpec(42, LocalDate.parse("2024-12-31"), years, tradesPerDay, LoadDataSpec.DEFAULT_SYMBOLS, List.of(accountId));
+    }
+
+    static List<String> rvltTradingAccountStatementLines(String accountNumber, LocalDate fromDateIncl, LocalDate toDateIncl, int tradesPerDay) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Account Statement");
+        lines.add("EUR Account summary");
+        lines.add("EUR Portfolio breakdown");
+        lines.add("EUR Transactions");
+        lines.add("Account Statement");
+        lines.add("Period %s - %s".formatted(Lazy.RVLT_DF.format(fromDateIncl), Lazy.RVLT_DF.format(toDateIncl)));
+        lines.add("Account name JOHN DOE");
+        lines.add("Account number %s".formatted(accountNumber));
+        lines.add("USD Account summary");
+        lines.add("Starting Ending");
+        lines.add("Stocks value US$50,000.00 US$55,000.00");
+        lines.add("Cash value US$1,000.00 US$1,200.00");
+        lines.add("Total US$51,000.00 US$56,200.00");
+        lines.add("USD Transactions");
+        lines.add("Date Symbol Type Quantity Price Side Value Fees Commission");
+        for (LocalDate day : businessDays(fromDateIncl, toDateIncl)) {
+            Random rnd = dayRandom(day, tradesPerDay);
+            if (day.getDayOfMonth() <= 7 && day.getDayOfWeek() == DayOfWeek.MONDAY) {
+                lines.add("%s Cash top-up US$5,000 US$0 US$0".formatted(Lazy.RVLT_DTF.format(day.atTime(8, 0).atOffset(UTC))));
+            }
+            if (rnd.nextInt(5) == 0) {
+                Instrument instr = INSTRUMENTS.get(rnd.nextInt(INSTRUMENTS.size()));
+                BigDecimal net = BigDecimal.valueOf(100 + rnd.nextInt(5_000), 2);
+                lines.add("%s %s Dividend %s US$0 US$0".formatted(
+                        Lazy.RVLT_DTF.format(day.atTime(12, 0).atOffset(UTC)), instr.symbol(), rvltMoney(net)));
+            }
+            for (int i = 0; i < tradesPerDay; i++) {
+                Instrument instr = INSTRUMENTS.get(rnd.nextInt(INSTRUMENTS.size()));
+                boolean buy = rnd.nextInt(3) != 0;
+                BigDecimal qty = BigDecimal.valueOf(1 + rnd.nextInt(50));
+                BigDecimal price = randomPrice(rnd, instr);
+                lines.add("%s %s Trade - Market %s %s %s %s US$0.02 US$0".formatted(
+                        Lazy.RVLT_DTF.format(day.atTime(LocalTime.of(14, 30).plusSeconds(i * 13L)).atOffset(UTC)),
+                        instr.symbol(),
+                        qty.toPlainString(),
+                        rvltMoney(price),
+                        buy ? "Buy" : "Sell",
+                        rvltMoney(qty.multiply(price))
+                ));
+            }
+        }
+        lines.add("This statement is provided by Revolut Securities Europe UAB");
+        return lines;
+    }
+
+    private static String rvltMoney(BigDecimal value) {
+        return "US$" + String.format(Locale.ENGLISH, "%,.2f", value);
+    }
+
+    static List<LocalDate> businessDays(LocalDate fromDateIncl, LocalDate toDateIncl) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = fromDateIncl; !day.isAfter(toDateIncl); day = day.plusDays(1)) {
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static Random dayRandom(LocalDate day, int tradesPerDay) {
+        return new Random(day.toEpochDay() * 31 + tradesPerDay);
+    }
+
+    private static BigDecimal randomPrice(Random rnd, Instrument instr) {
+        return instr.basePrice()
+                .multiply(BigDecimal.valueOf(900 + rnd.nextInt(200), 3))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class Lazy {
+        private static final DateTimeFormatter RVLT_DF = DateTimeFormatter.ofPattern("dd MMM yyyy", Locale.ENGLISH);
+        private static final DateTimeFormatter RVLT_DTF = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm:ss O", Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,81 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.dms.api.DmsFactory;
+import com.brinvex.finance.types.enu.Currency;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
+import com.brinvex.ptfactivity.core.api.domain.Account;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.internal.ptfprogress.PtfActivityProviderImpl;
+import com.brinvex.ptfactivity.testsupport.generator.CoreTransactionsGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorePtfActivityProviderBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private Path dmsRoot;
+
+    private PtfActivityProviderImpl provider;
+
+    private PtfActivityReq request;
+
+    @Setup
+    public void setup() throws IOException {
+        LocalDate fromDateIncl = LocalDate.parse("2024-01-01");
+        LocalDate toDateIncl = LocalDate.parse("2024-12-31");
+        String accountName = "CORE0001";
+
+        dmsRoot = Files.createTempDirectory("ptfactivity-benchmark-");
+        Dms dms = DmsFactory.newFilesystemDmsFactory(dmsRoot).getDms("core-dms");
+        dms.put(accountName, accountName + "_transactions.csv",
+                String.join("\n", new CoreTransactionsGenerator(BenchmarkData.spec(accountName, tradesPerDay))
+                        .transactionsCsvLines(accountName, fromDateIncl, toDateIncl)));
+
+        provider = new PtfActivityProviderImpl(dms, PipelineObserver.NOOP);
+        request = new PtfActivityReq(
+                "core",
+                new Account(accountName, null, Currency.USD, fromDateIncl, null, null, null, Map.of()),
+                fromDateIncl,
+                toDateIncl,
+                Duration.ZERO
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDirectory(dmsRoot);
+    }
+
+    @Benchmark
+    public PtfActivity process() {
+        return provider.process(request);
+    }
+}
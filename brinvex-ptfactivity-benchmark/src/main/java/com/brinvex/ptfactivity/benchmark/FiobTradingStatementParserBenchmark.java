@@ -0,0 +1,47 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.connector.fiob.api.model.statement.Statement.TradingTransStatement;
+import com.brinvex.ptfactivity.connector.fiob.internal.service.parser.FiobTradingStatementParser;
+import com.brinvex.ptfactivity.testsupport.generator.FiobStatementGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FiobTradingStatementParserBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private FiobTradingStatementParser parser;
+
+    private String transStatementContent;
+
+    @Setup
+    public void setup() {
+        parser = new FiobTradingStatementParser();
+        transStatementContent = new FiobStatementGenerator(BenchmarkData.spec("2000123456", tradesPerDay)).tradingTransStatement(
+                "2000123456", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-31"));
+    }
+
+    @Benchmark
+    public TradingTransStatement parseTransactionStatement() {
+        return parser.parseTransactionStatement(transStatementContent);
+    }
+}
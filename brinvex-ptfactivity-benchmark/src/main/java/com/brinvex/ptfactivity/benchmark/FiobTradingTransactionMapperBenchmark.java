@@ -0,0 +1,51 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.connector.fiob.api.model.statement.Statement.TradingTransStatement;
+import com.brinvex.ptfactivity.connector.fiob.internal.service.mapper.FiobTradingTransactionMapper;
+import com.brinvex.ptfactivity.connector.fiob.internal.service.parser.FiobTradingStatementParser;
+import com.brinvex.ptfactivity.testsupport.generator.FiobStatementGenerator;
+import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FiobTradingTransactionMapperBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private FiobTradingTransactionMapper mapper;
+
+    private TradingTransStatement transStatement;
+
+    @Setup
+    public void setup() {
+        mapper = new FiobTradingTransactionMapper();
+        String transStatementContent = new FiobStatementGenerator(BenchmarkData.spec("2000123456", tradesPerDay)).tradingTransStatement(
+                "2000123456", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-31"));
+        transStatement = new FiobTradingStatementParser().parseTransactionStatement(transStatementContent);
+    }
+
+    @Benchmark
+    public List<FinTransaction> mapTransactions() {
+        return mapper.mapTransactions(transStatement.transactions(), transStatement.lang());
+    }
+}
@@ -0,0 +1,61 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrFinTransactionMapperImpl;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementParserImpl;
+import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Maps the records of one statement covering the whole history,
+/// every dividend comes with a withholding tax to be paired with it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IbkrFinTransactionMapperBenchmark {
+
+    @Param({"1", "5"})
+    private int years;
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private IbkrFinTransactionMapperImpl mapper;
+
+    private ActivityStatement activityStatement;
+
+    @Setup
+    public void setup() {
+        mapper = new IbkrFinTransactionMapperImpl();
+        IbkrStatementGenerator generator = new IbkrStatementGenerator(BenchmarkData.spec("U1234567", years, tradesPerDay));
+        activityStatement = new IbkrStatementParserImpl().parseActivityStatement(generator.activityStatement(
+                "U1234567", LocalDate.of(2025 - years, 1, 1), LocalDate.parse("2024-12-31")));
+    }
+
+    @Benchmark
+    public List<FinTransaction> mapCashTransactions() {
+        return mapper.mapCashTransactions(activityStatement.cashTransactions());
+    }
+
+    @Benchmark
+    public List<FinTransaction> mapTrades() {
+        return mapper.mapTrades(activityStatement.trades());
+    }
+}
@@ -0,0 +1,93 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CashTransaction;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CorporateAction;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.EquitySummary;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.Trade;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementMergerImpl;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementParserImpl;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/// Merges monthly statements together with statements shifted by half a month and yearly statements,
+/// so that every record is delivered three times and has to be deduplicated.
+/// {@link #deduplicateByRecordEquality()} is the baseline keeping the distinct records by their full equality.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IbkrStatementMergerBenchmark {
+
+    @Param({"1", "5"})
+    private int years;
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private IbkrStatementMergerImpl merger;
+
+    private List<ActivityStatement> activityStatements;
+
+    @Setup
+    public void setup() {
+        IbkrStatementParserImpl parser = new IbkrStatementParserImpl();
+        merger = new IbkrStatementMergerImpl();
+        IbkrStatementGenerator generator = new IbkrStatementGenerator(BenchmarkData.spec("U1234567", years, tradesPerDay));
+        activityStatements = new ArrayList<>();
+        for (int year = 2025 - years; year <= 2024; year++) {
+            activityStatements.add(parser.parseActivityStatement(
+                    generator.activityStatement("U1234567", LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31))));
+            for (int month = 1; month <= 12; month++) {
+                YearMonth yearMonth = YearMonth.of(year, month);
+                LocalDate monthStart = yearMonth.atDay(1);
+                LocalDate monthEnd = yearMonth.atEndOfMonth();
+                activityStatements.add(parser.parseActivityStatement(
+                        generator.activityStatement("U1234567", monthStart, monthEnd)));
+                activityStatements.add(parser.parseActivityStatement(
+                        generator.activityStatement("U1234567", monthStart.plusDays(14), monthEnd.plusDays(14))));
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<ActivityStatement> mergeActivityStatements() {
+        return merger.mergeActivityStatements(activityStatements);
+    }
+
+    @Benchmark
+    public List<Object> deduplicateByRecordEquality() {
+        Set<CashTransaction> cashTrans = new LinkedHashSet<>();
+        Set<Trade> trades = new LinkedHashSet<>();
+        Set<CorporateAction> corpActions = new LinkedHashSet<>();
+        Set<EquitySummary> equitySummaries = new LinkedHashSet<>();
+        for (ActivityStatement statement : activityStatements) {
+            cashTrans.addAll(statement.cashTransactions());
+            trades.addAll(statement.trades());
+            corpActions.addAll(statement.corporateActions());
+            equitySummaries.addAll(statement.equitySummaries());
+        }
+        return List.of(cashTrans, trades, corpActions, equitySummaries);
+    }
+}
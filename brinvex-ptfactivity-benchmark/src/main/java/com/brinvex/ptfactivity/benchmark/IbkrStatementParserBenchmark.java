@@ -0,0 +1,60 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementParserImpl;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/// Measures parsing a one year Activity statement by {@link IbkrStatementParserImpl}.
+/// Run with {@code -prof gc} to see the allocation rates.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IbkrStatementParserBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private IbkrStatementParserImpl parser;
+
+    private String activityStatementContent;
+
+    private byte[] activityStatementBytes;
+
+    @Setup
+    public void setup() {
+        parser = new IbkrStatementParserImpl();
+        activityStatementContent = new IbkrStatementGenerator(BenchmarkData.spec("U1234567", tradesPerDay)).activityStatement(
+                "U1234567", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-31"));
+        activityStatementBytes = activityStatementContent.getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public ActivityStatement parseActivityStatement() {
+        return parser.parseActivityStatement(activityStatementContent);
+    }
+
+    @Benchmark
+    public ActivityStatement parseActivityStatementFromBytes() {
+        return parser.parseActivityStatement(new ByteArrayInputStream(activityStatementBytes));
+    }
+}
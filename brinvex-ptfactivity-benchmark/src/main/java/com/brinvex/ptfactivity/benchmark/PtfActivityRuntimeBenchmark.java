@@ -0,0 +1,93 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.dms.api.DmsFactory;
+import com.brinvex.finance.types.enu.Currency;
+import com.brinvex.ptfactivity.core.api.CoreModule;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
+import com.brinvex.ptfactivity.core.api.domain.Account;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/// Measures {@link PtfActivityRuntime#process(PtfActivityReq)} of a small core request
+/// with all connector modules on the classpath and their workspaces filled by {@link LoadDataGenerator},
+/// with and without the result cache.
+/// The request tolerates stale results, so with the cache enabled every invocation is a hit.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PtfActivityRuntimeBenchmark {
+
+    @Param({"1", "10"})
+    private int tradesPerDay;
+
+    @Param({"0", "100"})
+    private String resultCacheMaxSize;
+
+    private Path dmsRoot;
+
+    private PtfActivityRuntime runtime;
+
+    private PtfActivityReq request;
+
+    @Setup
+    public void setup() throws IOException {
+        LocalDate fromDateIncl = LocalDate.parse("2024-01-01");
+        LocalDate toDateIncl = LocalDate.parse("2024-01-31");
+        String accountName = "10000001";
+
+        dmsRoot = Files.createTempDirectory("ptfactivity-benchmark-");
+        DmsFactory dmsFactory = DmsFactory.newFilesystemDmsFactory(dmsRoot);
+        LoadDataGenerator.generate(dmsFactory, BenchmarkData.spec(accountName, tradesPerDay));
+
+        runtime = PtfActivityRuntime.newPtfActivityRuntime(PtfActivityRuntimeConfig.builder()
+                .setProperty(CoreModule.class, CoreModule.PropKey.resultCacheMaxSize, resultCacheMaxSize)
+                .dmsFactory(() -> dmsFactory)
+                .build());
+        request = new PtfActivityReq(
+                "core",
+                new Account(accountName, null, Currency.USD, fromDateIncl, null, null, null, Map.of()),
+                fromDateIncl,
+                toDateIncl,
+                Duration.ofHours(1)
+        );
+        PtfActivity ptfActivity = runtime.process(request);
+        if (Integer.parseInt(resultCacheMaxSize) > 0 && runtime.process(request) != ptfActivity) {
+            throw new IllegalStateException("Result cache not hit: %s".formatted(request));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDirectory(dmsRoot);
+    }
+
+    @Benchmark
+    public PtfActivity process() {
+        return runtime.process(request);
+    }
+}
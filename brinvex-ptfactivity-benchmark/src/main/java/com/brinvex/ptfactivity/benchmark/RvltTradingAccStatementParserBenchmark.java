@@ -0,0 +1,49 @@
+package com.brinvex.ptfactivity.benchmark;
+
+import com.brinvex.ptfactivity.connector.rvlt.api.model.statement.TradingAccountStatement;
+import com.brinvex.ptfactivity.connector.rvlt.internal.service.parser.RvltStatementParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the line parsing of the trading account statement only,
+/// the PDF text extraction is replaced by a facade returning pre-extracted lines.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Duser.language=en", "-Duser.country=US"})
+@State(Scope.Benchmark)
+public class RvltTradingAccStatementParserBenchmark {
+
+    private static final byte[] NO_PDF_CONTENT = new byte[0];
+
+    @Param({"1", "10", "100"})
+    private int tradesPerDay;
+
+    private RvltStatementParserImpl parser;
+
+    @Setup
+    public void setup() {
+        List<String> lines = BenchmarkData.rvltTradingAccountStatementLines(
+                "RVLT12345678", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-31"), tradesPerDay);
+        parser = new RvltStatementParserImpl(_ -> lines);
+    }
+
+    @Benchmark
+    public TradingAccountStatement parseTradingAccountStatement() {
+        return parser.parseTradingAccountStatement(NO_PDF_CONTENT);
+    }
+}
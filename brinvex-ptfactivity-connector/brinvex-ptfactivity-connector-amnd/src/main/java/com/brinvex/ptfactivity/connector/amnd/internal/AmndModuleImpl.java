@@ -75,7 +75,8 @@ public class AmndModuleImpl implements AmndModule, Module {
         return moduleCtx.singletonService(AmndPtfActivityProvider.class, () -> new AmndPtfActivityProviderImpl(
                 dms(),
                 statementParser(),
-                finTransactionMapper()
+                finTransactionMapper(),
+                moduleCtx.toolbox().pipelineObserver()
         ));
     }
 }
@@ -3,6 +3,7 @@ package com.brinvex.ptfactivity.connector.amnd.internal.service;
 import com.brinvex.ptfactivity.connector.amnd.api.model.AmndTransStatementDocKey;
 import com.brinvex.ptfactivity.connector.amnd.api.service.AmndDms;
 import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
 
 import java.time.LocalDate;
 import java.util.SequencedCollection;
@@ -36,7 +37,7 @@ public class AmndDmsImpl implements AmndDms {
                 .filter(_rawKey -> docKey.equals(parseAccountStatementDocKey(accountId, _rawKey)))
                 .findAny()
                 .orElseThrow(() -> new IllegalArgumentException("docKey not found: " + docKey));
-        return dms.getBinaryContent(directory, rawKey);
+        return DmsCompression.decodeBinary(dms.getBinaryContent(directory, rawKey));
     }
 
     private String getStatementDirectory(String accountId) {
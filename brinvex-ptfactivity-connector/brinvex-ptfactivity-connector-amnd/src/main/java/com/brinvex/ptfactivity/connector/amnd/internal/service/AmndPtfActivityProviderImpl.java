@@ -1,17 +1,20 @@
 package com.brinvex.ptfactivity.connector.amnd.internal.service;
 
 import com.brinvex.ptfactivity.connector.amnd.api.model.AmndTransStatementDocKey;
+import com.brinvex.ptfactivity.connector.amnd.api.model.statement.Trade;
 import com.brinvex.ptfactivity.connector.amnd.api.model.statement.TransactionStatement;
 import com.brinvex.ptfactivity.connector.amnd.api.service.AmndDms;
 import com.brinvex.ptfactivity.connector.amnd.api.service.AmndFinTransactionMapper;
 import com.brinvex.ptfactivity.connector.amnd.api.service.AmndPtfActivityProvider;
 import com.brinvex.ptfactivity.connector.amnd.api.service.AmndStatementParser;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
 import com.brinvex.ptfactivity.core.api.domain.enu.FinTransactionType;
 import com.brinvex.ptfactivity.core.api.domain.Account;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction.FinTransactionBuilder;
+import com.brinvex.ptfactivity.core.api.jfr.PtfActivityEvents;
 import com.brinvex.java.validation.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +26,9 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MAP;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.PARSE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.READ;
 import static java.math.BigDecimal.ZERO;
 import static java.math.RoundingMode.HALF_UP;
 import static java.util.Collections.emptyList;
@@ -40,19 +46,28 @@ public class AmndPtfActivityProviderImpl implements AmndPtfActivityProvider {
 
     private final AmndFinTransactionMapper finTransactionMapper;
 
+    private final PipelineObserver observer;
+
     public AmndPtfActivityProviderImpl(
             AmndDms dms,
             AmndStatementParser statementParser,
-            AmndFinTransactionMapper finTransactionMapper
+            AmndFinTransactionMapper finTransactionMapper,
+            PipelineObserver observer
     ) {
         this.dms = dms;
         this.statementParser = statementParser;
         this.finTransactionMapper = finTransactionMapper;
+        this.observer = observer;
+    }
+
+    @Override
+    public String providerName() {
+        return "amnd";
     }
 
     @Override
     public boolean supports(PtfActivityReq ptfActivityReq) {
-        return ptfActivityReq.providerName().equals("amnd");
+        return providerName().equals(ptfActivityReq.providerName());
     }
 
     @Override
@@ -91,20 +106,23 @@ public class AmndPtfActivityProviderImpl implements AmndPtfActivityProvider {
         }
 
         AmndTransStatementDocKey docKey = dms.getTradingAccountStatementDocKey(accountId);
-        byte[] statementContent = dms.getStatementContent(docKey);
-
-        TransactionStatement transStatement = statementParser.parseTrades(statementContent);
+        String providerName = providerName();
+        byte[] statementContent = observer.observe(providerName, READ, () -> dms.getStatementContent(docKey));
+        observer.bytesRead(providerName, statementContent.length);
+
+        TransactionStatement transStatement = observer.observe(providerName, PARSE, () -> PtfActivityEvents.parse(providerName, accountId, docKey, statementContent.length,
+                () -> statementParser.parseTrades(statementContent),
+                s -> s.trades().size()
+        ));
+        observer.documentsParsed(providerName, 1);
         Assert.isTrue(transStatement.accountId().equals(accountId));
 
-        List<FinTransactionBuilder> finTranBuilders = new ArrayList<>(transStatement.trades()
-                .stream()
-                .map(finTransactionMapper::mapTradeToFinTransactionPair)
-                .flatMap(Collection::stream)
-                .sorted(comparing(FinTransactionBuilder::date))
-                .collect(toMap(FinTransactionBuilder::externalId, identity(), (u, v) -> {
-                    throw new IllegalStateException("ExtraID conflict: %s, %s".formatted(u, v));
-                }, LinkedHashMap::new))
-                .sequencedValues());
+        List<Trade> trades = transStatement.trades();
+        List<FinTransactionBuilder> finTranBuilders = observer.observe(providerName, MAP, () -> PtfActivityEvents.map(
+                providerName, accountId, "mapTradeToFinTransactionPair", trades.size(),
+                () -> mapTrades(trades),
+                List::size
+        ));
         if (!finTranBuilders.isEmpty() && initialFeeReserve != null) {
             int feeReserveSignum = initialFeeReserve.signum();
             if (feeReserveSignum != 0) {
@@ -155,8 +173,21 @@ public class AmndPtfActivityProviderImpl implements AmndPtfActivityProvider {
                 .map(FinTransactionBuilder::build)
                 .toList();
 
+        observer.transactionsProduced(providerName, finTrans.size());
         return new PtfActivity(finTrans, null);
     }
 
+    private List<FinTransactionBuilder> mapTrades(List<Trade> trades) {
+        return new ArrayList<>(trades
+                .stream()
+                .map(finTransactionMapper::mapTradeToFinTransactionPair)
+                .flatMap(Collection::stream)
+                .sorted(comparing(FinTransactionBuilder::date))
+                .collect(toMap(FinTransactionBuilder::externalId, identity(), (u, v) -> {
+                    throw new IllegalStateException("ExtraID conflict: %s, %s".formatted(u, v));
+                }, LinkedHashMap::new))
+                .sequencedValues());
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(AmndPtfActivityProviderImpl.class);
 }
@@ -0,0 +1,40 @@
+package test.com.brinvex.ptfactivity.connector.amnd;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.connector.amnd.api.AmndModule;
+import com.brinvex.ptfactivity.connector.amnd.api.model.AmndTransStatementDocKey;
+import com.brinvex.ptfactivity.connector.amnd.api.service.AmndDms;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AmndDmsTest extends AmndBaseTest {
+
+    @Test
+    void compressedStatement() {
+        String dmsWorkspace = "amnd-dms-tmp-compressed";
+        TestContext testCtx = this.testCtx.withDmsWorkspace(dmsWorkspace);
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        AmndDms amndDms = testCtx.get(AmndModule.class).dms();
+
+        String content = "%PDF-1.4\n" + "Transakčný výpis Príliš žltučký kôň\n".repeat(5_000);
+        dms.add("ACC1", "Transakcny vypis ACC1-20240101-20241231.pdf", DmsCompression.GZIP.encode(content));
+        AmndTransStatementDocKey docKey = new AmndTransStatementDocKey("ACC1", parse("2024-01-01"), parse("2024-12-31"));
+        assertEquals(docKey, amndDms.getTradingAccountStatementDocKey("ACC1"));
+        assertArrayEquals(content.getBytes(UTF_8), amndDms.getStatementContent(docKey));
+
+        // Stored before the compression was enabled
+        dms.add("ACC2", "Transakcny vypis ACC2-20240101-20241231.pdf", content);
+        assertArrayEquals(content.getBytes(UTF_8), amndDms.getStatementContent(
+                new AmndTransStatementDocKey("ACC2", parse("2024-01-01"), parse("2024-12-31"))));
+    }
+}
@@ -16,6 +16,7 @@ import com.brinvex.ptfactivity.connector.fiob.internal.service.parser.FiobStatem
 import com.brinvex.ptfactivity.core.api.Module;
 import com.brinvex.ptfactivity.core.api.ModuleContext;
 import com.brinvex.ptfactivity.core.api.ModuleFactory;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
 import com.brinvex.ptfactivity.core.api.provider.Provider;
 import com.brinvex.ptfactivity.core.api.provider.PtfActivityProvider;
 
@@ -66,7 +67,11 @@ public class FiobModuleImpl implements FiobModule, Module {
 
     @Override
     public FiobDms dms() {
-        return moduleCtx.singletonService(FiobDms.class, () -> new FiobDmsImpl(moduleCtx.dms()));
+        return moduleCtx.singletonService(FiobDms.class, () -> new FiobDmsImpl(
+                moduleCtx.dms(),
+                moduleCtx.dmsChangeListener(),
+                DmsCompression.parse(moduleCtx.getProperty(Module.PropKey.dmsCompression, "none"))
+        ));
     }
 
     @Override
@@ -91,7 +96,8 @@ public class FiobModuleImpl implements FiobModule, Module {
                 statementParser(),
                 fetcher(),
                 statementMerger(),
-                finTransactionMapper()
+                finTransactionMapper(),
+                moduleCtx.toolbox().pipelineObserver()
         ));
     }
 }
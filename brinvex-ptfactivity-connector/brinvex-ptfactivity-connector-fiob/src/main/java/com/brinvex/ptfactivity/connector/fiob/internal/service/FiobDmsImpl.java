@@ -5,7 +5,9 @@ import com.brinvex.ptfactivity.connector.fiob.api.model.FiobDocKey.SavingTransDo
 import com.brinvex.ptfactivity.connector.fiob.api.model.FiobDocKey.TradingSnapshotDocKey;
 import com.brinvex.ptfactivity.connector.fiob.api.model.FiobDocKey.TradingTransDocKey;
 import com.brinvex.ptfactivity.connector.fiob.api.service.FiobDms;
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
 import com.brinvex.ptfactivity.core.api.exception.StorageException;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
 import com.brinvex.dms.api.Dms;
 import com.brinvex.java.validation.Assert;
 
@@ -29,8 +31,23 @@ public class FiobDmsImpl implements FiobDms {
 
     private final Dms dms;
 
+    private final DmsChangeListener changeListener;
+
+    private final DmsCompression compression;
+
     public FiobDmsImpl(Dms dms) {
+        this(dms, DmsChangeListener.NOOP);
+    }
+
+    public FiobDmsImpl(Dms dms, DmsChangeListener changeListener) {
+        this(dms, changeListener, DmsCompression.NONE);
+    }
+
+    /// @param compression applied to the written documents, documents are read correctly in any case
+    public FiobDmsImpl(Dms dms, DmsChangeListener changeListener, DmsCompression compression) {
         this.dms = dms;
+        this.changeListener = changeListener;
+        this.compression = compression;
     }
 
     @Override
@@ -136,10 +153,10 @@ public class FiobDmsImpl implements FiobDms {
     public String getStatementContent(FiobDocKey docKey) {
         String directory = getDirectory(docKey.accountId());
         String fileKey = constructFileKey(docKey);
-        return switch (docKey) {
+        return DmsCompression.decodeText(switch (docKey) {
             case SavingTransDocKey _ -> dms.getTextContent(directory, fileKey, UTF_8);
             case TradingSnapshotDocKey _, TradingTransDocKey _ -> dms.getTextContent(directory, fileKey, UTF_8, Lazy.FIOB_CHARSET);
-        };
+        });
     }
 
     @Override
@@ -149,10 +166,10 @@ public class FiobDmsImpl implements FiobDms {
         if (!dms.exists(directory, fileKey)) {
             return null;
         }
-        return switch (docKey) {
+        return DmsCompression.decodeLines(switch (docKey) {
             case SavingTransDocKey _ -> dms.getTextLines(directory, fileKey, limit, UTF_8);
             case TradingSnapshotDocKey _, TradingTransDocKey _ -> dms.getTextLines(directory, fileKey, limit, UTF_8, Lazy.FIOB_CHARSET);
-        };
+        }, limit);
     }
 
     @Override
@@ -187,19 +204,22 @@ public class FiobDmsImpl implements FiobDms {
         if (!redundantKeys.remove(docKey)) {
             String newFileKey = constructFileKey(docKey);
             Assert.notNull(parseTradingTransactionsDocKey(newFileKey));
-            dms.add(directory, newFileKey, content);
+            dms.add(directory, newFileKey, compression.encode(content));
+            changeListener.onChange(directory, newFileKey);
             newSaved = true;
         } else {
             newSaved = false;
         }
-        dms.delete(directory, redundantKeys.stream().map(this::constructFileKey).toList());
+        deleteRedundant(directory, redundantKeys);
         return newSaved;
     }
 
     private boolean putTradingSnapshotStatement(TradingSnapshotDocKey docKey, String content) {
         String accountId = docKey.accountId();
         String directory = getDirectory(accountId);
-        dms.put(directory, constructFileKey(docKey), content);
+        String fileKey = constructFileKey(docKey);
+        dms.put(directory, fileKey, compression.encode(content));
+        changeListener.onChange(directory, fileKey);
         return true;
     }
 
@@ -216,21 +236,29 @@ public class FiobDmsImpl implements FiobDms {
         if (!redundantKeys.remove(docKey)) {
             String newFileKey = constructFileKey(docKey);
             Assert.notNull(parseSavingTransactionsDocKey(newFileKey));
-            dms.put(directory, newFileKey, content);
+            dms.put(directory, newFileKey, compression.encode(content));
+            changeListener.onChange(directory, newFileKey);
             newSaved = true;
         } else {
             newSaved = false;
         }
-        dms.delete(directory, redundantKeys.stream().map(this::constructFileKey).toList());
+        deleteRedundant(directory, redundantKeys);
         return newSaved;
     }
 
+    private void deleteRedundant(String directory, SequencedSet<? extends FiobDocKey> redundantKeys) {
+        List<String> redundantFileKeys = redundantKeys.stream().map(this::constructFileKey).toList();
+        dms.delete(directory, redundantFileKeys);
+        redundantFileKeys.forEach(redundantFileKey -> changeListener.onChange(directory, redundantFileKey));
+    }
+
 
     @Override
     public void delete(FiobDocKey docKey) {
         String directory = getDirectory(docKey.accountId());
         String fileKey = constructFileKey(docKey);
         dms.delete(directory, fileKey);
+        changeListener.onChange(directory, fileKey);
     }
 
     private String constructFileKey(FiobDocKey docKey) {
@@ -18,20 +18,29 @@ import com.brinvex.ptfactivity.connector.fiob.api.service.FiobFinTransactionMapp
 import com.brinvex.ptfactivity.connector.fiob.api.service.FiobPtfActivityProvider;
 import com.brinvex.ptfactivity.connector.fiob.api.service.FiobStatementMerger;
 import com.brinvex.ptfactivity.connector.fiob.api.service.FiobStatementParser;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
+import com.brinvex.ptfactivity.core.api.PipelineObserver.Stage;
 import com.brinvex.ptfactivity.core.api.domain.Account;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
 import com.brinvex.java.ThreadUtil;
 import com.brinvex.java.validation.Assert;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.jfr.PtfActivityEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 import static com.brinvex.ptfactivity.connector.fiob.api.model.FiobAccountType.SAVING;
 import static com.brinvex.ptfactivity.connector.fiob.api.model.FiobAccountType.TRADING;
@@ -40,6 +49,11 @@ import static com.brinvex.ptfactivity.core.api.domain.enu.FinTransactionType.WIT
 import static com.brinvex.java.collection.CollectionUtil.getFirstThrowIfMore;
 import static com.brinvex.java.DateUtil.isLastDayOfMonth;
 import static com.brinvex.java.DateUtil.minDate;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.FETCH;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MAP;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MERGE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.PARSE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.READ;
 import static java.time.Duration.ofSeconds;
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toSet;
@@ -57,34 +71,50 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
 
     private final FiobFinTransactionMapper finTransactionMapper;
 
+    private final PipelineObserver observer;
+
     public FiobPtfActivityProviderImpl(
             FiobDms dms,
             FiobStatementParser parser,
             FiobFetcher fetcher,
             FiobStatementMerger statementMerger,
-            FiobFinTransactionMapper finTransactionMapper
+            FiobFinTransactionMapper finTransactionMapper,
+            PipelineObserver observer
     ) {
         this.dms = dms;
         this.parser = parser;
         this.fetcher = fetcher;
         this.statementMerger = statementMerger;
         this.finTransactionMapper = finTransactionMapper;
+        this.observer = observer;
+    }
+
+    @Override
+    public String providerName() {
+        return "fiob";
     }
 
     @Override
     public boolean supports(PtfActivityReq ptfActivityReq) {
-        return ptfActivityReq.providerName().equals("fiob");
+        return providerName().equals(ptfActivityReq.providerName());
     }
 
     @Override
     public PtfActivity process(PtfActivityReq ptfActivityReq) {
         Assert.isTrue(supports(ptfActivityReq));
-        return getPtfProgress(ptfActivityReq.account(), ptfActivityReq.fromDateIncl(), ptfActivityReq.toDateIncl(), ptfActivityReq.staleTolerance());
+        return getPtfProgress(
+                ptfActivityReq.account(),
+                ptfActivityReq.fromDateIncl(),
+                ptfActivityReq.toDateIncl(),
+                ptfActivityReq.staleTolerance(),
+                true,
+                ptfActivityReq.deadline()
+        );
     }
 
     @Override
     public PtfActivity getPtfProgressOffline(Account fiobAccount, LocalDate fromDateIncl, LocalDate toDateIncl) {
-        return getPtfProgress(fiobAccount, fromDateIncl, toDateIncl, null, false);
+        return getPtfProgress(fiobAccount, fromDateIncl, toDateIncl, null, false, null);
     }
 
     @Override
@@ -94,7 +124,7 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
             LocalDate toDateIncl,
             Duration staleTolerance
     ) {
-        return getPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, true);
+        return getPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, true, null);
     }
 
     private PtfActivity getPtfProgress(
@@ -102,11 +132,12 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
             LocalDate fromDateIncl,
             LocalDate toDateIncl,
             Duration staleTolerance,
-            boolean online
+            boolean online,
+            Instant deadline
     ) {
         return switch (FiobAccountType.valueOf(account.type())) {
-            case SAVING -> getSavingPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, online);
-            case TRADING -> getTradingPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, online);
+            case SAVING -> getSavingPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, online, deadline);
+            case TRADING -> getTradingPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, online, deadline);
         };
     }
 
@@ -115,9 +146,10 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
             LocalDate fromDateIncl,
             LocalDate toDateIncl,
             Duration staleTolerance,
-            boolean online
+            boolean online,
+            Instant deadline
     ) {
-        LOG.debug("getTradingPtfProgress({}, {}-{}, staleTolerance={}, online={})", account, fromDateIncl, toDateIncl, staleTolerance, online);
+        LOG.debug("getTradingPtfProgress({}, {}-{}, staleTolerance={}, online={}, deadline={})", account, fromDateIncl, toDateIncl, staleTolerance, online, deadline);
         assert TRADING.name().equals(account.type());
         String accountId = account.externalId();
         LocalDateTime now = LocalDateTime.now();
@@ -163,11 +195,17 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
                     }
                 }
 
-                if (iterFromDateIncl != fetchFromDateIncl) {
-                    ThreadUtil.sleep(ofSeconds(1));
+                Duration waitBeforeFetch = iterFromDateIncl != fetchFromDateIncl ? ofSeconds(1) : Duration.ZERO;
+                if (isDeadlineExceeded(deadline, waitBeforeFetch)) {
+                    LOG.warn("getTradingPtfProgress - deadline exceeded, falling back to stored statements - {}, deadline={}", docKey, deadline);
+                    break;
+                }
+                if (!waitBeforeFetch.isZero()) {
+                    ThreadUtil.sleep(waitBeforeFetch);
                 }
 
-                String fetchedContent = fetcher.fetchTransStatement(account, iterFromDateIncl, iterToDateIncl);
+                LocalDate fetchFromDateInclFinal = iterFromDateIncl;
+                String fetchedContent = observe(FETCH, () -> fetcher.fetchTransStatement(account, fetchFromDateInclFinal, iterToDateIncl));
 
                 boolean useful = dms.putStatement(docKey, fetchedContent);
                 if (useful) {
@@ -186,13 +224,11 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
                 throw new IllegalStateException("No TransStatement available for externalId=%s, toDateIncl=%s"
                         .formatted(accountId, toDateIncl));
             }
-            List<TradingTransStatement> transStatements = transDocKeys
-                    .stream()
-                    .map(dms::getStatementContent)
-                    .map(parser::parseTradingTransStatement)
-                    .toList();
+            List<TradingTransStatement> transStatements = readAndParse(
+                    accountId, transDocKeys, parser::parseTradingTransStatement, s -> s.transactions().size());
 
-            TransStatement mergedTransStatement = statementMerger.mergeTradingTransStatements(transStatements).orElseThrow();
+            TransStatement mergedTransStatement = merge(
+                    accountId, transStatements, () -> statementMerger.mergeTradingTransStatements(transStatements)).orElseThrow();
 
             if (!accountId.equals(mergedTransStatement.accountId())) {
                 throw new IllegalStateException("Given externalId=%s does not match foundAccountId=%s"
@@ -203,7 +239,7 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
                         .formatted(accountId, fromDateIncl));
             }
 
-            List<FinTransaction> finTrans = finTransactionMapper.mapTransactions(mergedTransStatement);
+            List<FinTransaction> finTrans = mapTransactions(accountId, mergedTransStatement);
             newFinTrans = finTrans
                     .stream()
                     .filter(t -> !t.date().isBefore(fromDateIncl) && !t.date().isAfter(toDateIncl))
@@ -239,7 +275,11 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
                         continue;
                     }
                 }
-                String fetchedContent = fetcher.fetchSnapshotStatement(account, snapshotDate);
+                if (isDeadlineExceeded(deadline, Duration.ZERO)) {
+                    LOG.warn("getTradingPtfProgress - deadline exceeded, falling back to stored statements - {}, deadline={}", snapshotDocKey, deadline);
+                    break;
+                }
+                String fetchedContent = observe(FETCH, () -> fetcher.fetchSnapshotStatement(account, snapshotDate));
 
                 dms.putStatement(snapshotDocKey, fetchedContent);
                 LOG.debug("getTradingPtfProgress - saved fetched snapshot statement - {}", snapshotDocKey);
@@ -248,12 +288,11 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
 
         List<? extends SnapshotDocKey> snapshotDocKeys = dms.getSnapshotDocKeys(accountId, TRADING, fromDateIncl, toDateIncl);
         Currency pcy = account.ccy();
-        List<DateAmount> navs = snapshotDocKeys
+        List<DateAmount> navs = readAndParse(accountId, snapshotDocKeys, parser::parseSnapshotStatement, _ -> 1)
                 .stream()
-                .map(dms::getStatementContent)
-                .map(parser::parseSnapshotStatement)
                 .peek(s -> Assert.isTrue(s.nav().ccy() == pcy))
                 .map(s -> new DateAmount(s.date(), s.nav().amount())).toList();
+        observer.transactionsProduced(providerName(), newFinTrans.size());
         return new PtfActivity(newFinTrans, navs);
     }
 
@@ -262,9 +301,10 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
             LocalDate fromDateIncl,
             LocalDate toDateIncl,
             Duration staleTolerance,
-            boolean online
+            boolean online,
+            Instant deadline
     ) {
-        LOG.debug("getSavingPtfProgress({}, {}-{}, staleTolerance={}, online={})", account, fromDateIncl, toDateIncl, staleTolerance, online);
+        LOG.debug("getSavingPtfProgress({}, {}-{}, staleTolerance={}, online={}, deadline={})", account, fromDateIncl, toDateIncl, staleTolerance, online, deadline);
         assert SAVING.name().equals(account.type());
         String accountId = account.externalId();
         LocalDateTime now = LocalDateTime.now();
@@ -297,11 +337,17 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
                         continue;
                     }
                 }
-                if (iterFromDateIncl != fetchFromDateIncl) {
-                    ThreadUtil.sleep(ofSeconds(12));
+                Duration waitBeforeFetch = iterFromDateIncl != fetchFromDateIncl ? ofSeconds(12) : Duration.ZERO;
+                if (isDeadlineExceeded(deadline, waitBeforeFetch)) {
+                    LOG.warn("getSavingPtfProgress - deadline exceeded, falling back to stored statements - {}, deadline={}", docKey, deadline);
+                    break;
+                }
+                if (!waitBeforeFetch.isZero()) {
+                    ThreadUtil.sleep(waitBeforeFetch);
                 }
 
-                String fetchedContent = fetcher.fetchTransStatement(account, iterFromDateIncl, iterToDateIncl);
+                LocalDate fetchFromDateInclFinal = iterFromDateIncl;
+                String fetchedContent = observe(FETCH, () -> fetcher.fetchTransStatement(account, fetchFromDateInclFinal, iterToDateIncl));
                 boolean useful = dms.putStatement(docKey, fetchedContent);
                 if (useful) {
                     LOG.debug("getSavingPtfProgress - saved fetched trans statement - {}", docKey);
@@ -312,13 +358,11 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
         }
 
         List<? extends FiobDocKey> transDocKeys = dms.getTransDocKeys(accountId, SAVING, fromDateIncl, toDateIncl);
-        List<SavingTransStatement> transStatements = transDocKeys
-                .stream()
-                .map(dms::getStatementContent)
-                .map(parser::parseSavingTransStatement)
-                .toList();
+        List<SavingTransStatement> transStatements = readAndParse(
+                accountId, transDocKeys, parser::parseSavingTransStatement, s -> s.transactions().size());
 
-        SavingTransStatement mergedTransStatement = statementMerger.mergeSavingTransStatements(transStatements).orElse(null);
+        SavingTransStatement mergedTransStatement = merge(
+                accountId, transStatements, () -> statementMerger.mergeSavingTransStatements(transStatements)).orElse(null);
         if (mergedTransStatement == null) {
             return null;
         }
@@ -332,16 +376,70 @@ public class FiobPtfActivityProviderImpl implements FiobPtfActivityProvider {
                     .formatted(accountId, fromDateIncl));
         }
 
-        List<FinTransaction> finTrans = finTransactionMapper.mapTransactions(mergedTransStatement);
+        List<FinTransaction> finTrans = mapTransactions(accountId, mergedTransStatement);
         List<FinTransaction> newFinTrans = finTrans
                 .stream()
                 .filter(t -> !t.date().isBefore(fromDateIncl) && !t.date().isAfter(toDateIncl))
                 .sorted(comparing(FinTransaction::date))
                 .toList();
 
+        observer.transactionsProduced(providerName(), newFinTrans.size());
         return new PtfActivity(newFinTrans, null);
     }
 
+    private <STATEMENT> List<STATEMENT> readAndParse(
+            String accountId,
+            List<? extends FiobDocKey> docKeys,
+            Function<String, STATEMENT> statementParser,
+            ToIntFunction<STATEMENT> itemCounter
+    ) {
+        String providerName = providerName();
+        List<STATEMENT> statements = new ArrayList<>(docKeys.size());
+        for (FiobDocKey docKey : docKeys) {
+            String content = observe(READ, () -> dms.getStatementContent(docKey));
+            observer.bytesRead(providerName, content.length());
+            statements.add(observe(PARSE, () -> PtfActivityEvents.parse(providerName, accountId, docKey, content.length(),
+                    () -> statementParser.apply(content),
+                    itemCounter
+            )));
+        }
+        observer.documentsParsed(providerName, statements.size());
+        return statements;
+    }
+
+    private <STATEMENT extends TransStatement> Optional<STATEMENT> merge(
+            String accountId,
+            List<STATEMENT> transStatements,
+            Supplier<Optional<STATEMENT>> merger
+    ) {
+        return observe(MERGE, () -> PtfActivityEvents.merge(providerName(), accountId, transStatements.size(),
+                merger,
+                merged -> merged.map(FiobPtfActivityProviderImpl::countTransactions).orElse(0)
+        ));
+    }
+
+    private List<FinTransaction> mapTransactions(String accountId, TransStatement transStatement) {
+        return observe(MAP, () -> PtfActivityEvents.map(providerName(), accountId, "mapTransactions", countTransactions(transStatement),
+                () -> finTransactionMapper.mapTransactions(transStatement),
+                List::size
+        ));
+    }
+
+    private static int countTransactions(TransStatement transStatement) {
+        return switch (transStatement) {
+            case TradingTransStatement tradingTransStatement -> tradingTransStatement.transactions().size();
+            case SavingTransStatement savingTransStatement -> savingTransStatement.transactions().size();
+        };
+    }
+
+    private <T> T observe(Stage stage, Supplier<T> action) {
+        return observer.observe(providerName(), stage, action);
+    }
+
+    private static boolean isDeadlineExceeded(Instant deadline, Duration waitBeforeFetch) {
+        return deadline != null && !Instant.now().plus(waitBeforeFetch).isBefore(deadline);
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(FiobPtfActivityProviderImpl.class);
 
 }
@@ -4,6 +4,7 @@ package test.com.brinvex.ptfactivity.connector.fiob;
 import com.brinvex.ptfactivity.connector.fiob.api.FiobModule;
 import com.brinvex.ptfactivity.connector.fiob.api.model.FiobDocKey.TradingTransDocKey;
 import com.brinvex.ptfactivity.connector.fiob.api.service.FiobDms;
+import com.brinvex.ptfactivity.core.api.Module;
 import com.brinvex.ptfactivity.testsupport.TestContext;
 import com.brinvex.dms.api.Dms;
 import com.brinvex.dms.api.DmsFactory;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.condition.EnabledIf;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static java.time.LocalDate.parse;
@@ -125,5 +127,39 @@ class FiobDmsTest extends FiobBaseTest {
         assertEquals(content2, ibkrDms.getStatementContent(actDocKeys.get(1)));
         assertEquals(content3, ibkrDms.getStatementContent(actDocKeys.get(2)));
     }
-}
 
+    @Test
+    void compressedStorage() {
+        String accountId = "12345678";
+        String dmsWorkspace = "fiob-dms-tmp-compressed";
+        TestContext testCtx = this.testCtx.withProperties(Map.of(
+                Module.PropKey.dmsWorkspace, dmsWorkspace,
+                Module.PropKey.dmsCompression, "gzip"));
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        FiobDms fiobDms = testCtx.get(FiobModule.class).dms();
+
+        String content = "Datum obchodu;Směr;Symbol;Text\n" + "06.08.2024 10:00;Nákup;AAPL;Příliš žluťoučký kůň\n".repeat(5_000);
+        TradingTransDocKey docKey = new TradingTransDocKey(accountId, parse("2024-08-01"), parse("2024-08-31"));
+        assertTrue(fiobDms.putStatement(docKey, content));
+
+        String storedContent = dms.getTextContent(accountId, "%s-Transactions-20240801-20240831.csv".formatted(accountId));
+        assertTrue(storedContent.startsWith("H4sI"));
+        assertTrue(storedContent.length() < content.length() / 10);
+        assertEquals(content, fiobDms.getStatementContent(docKey));
+        assertEquals(content.lines().limit(2).toList(), fiobDms.getStatementContentLinesIfExists(docKey, 2));
+
+        // Written before the compression was enabled
+        TradingTransDocKey oldDocKey = new TradingTransDocKey(accountId, parse("2023-08-01"), parse("2023-08-31"));
+        String oldContent = content.replace("2024", "2023");
+        dms.add(accountId, "%s-Transactions-20230801-20230831.csv".formatted(accountId), oldContent);
+        assertEquals(oldContent, fiobDms.getStatementContent(oldDocKey));
+        assertEquals(oldContent.lines().limit(2).toList(), fiobDms.getStatementContentLinesIfExists(oldDocKey, 2));
+
+        // Read back without the compression enabled
+        FiobDms plainFiobDms = this.testCtx.withDmsWorkspace(dmsWorkspace).get(FiobModule.class).dms();
+        assertEquals(content, plainFiobDms.getStatementContent(docKey));
+        assertEquals(oldContent, plainFiobDms.getStatementContent(oldDocKey));
+    }
+}
@@ -1,10 +1,14 @@
 package test.com.brinvex.ptfactivity.connector.fiob;
 
 
+import com.brinvex.dms.api.DmsFactory;
 import com.brinvex.finance.types.vo.DateAmount;
 import com.brinvex.ptfactivity.connector.fiob.api.FiobModule;
+import com.brinvex.ptfactivity.connector.fiob.api.model.FiobAccountType;
 import com.brinvex.ptfactivity.connector.fiob.api.service.FiobPtfActivityProvider;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
+import com.brinvex.ptfactivity.core.api.domain.Account;
 import com.brinvex.ptfactivity.core.api.domain.Asset;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
@@ -15,16 +19,22 @@ import com.brinvex.ptfactivity.core.api.facade.ValidatorFacade;
 import com.brinvex.ptfactivity.testsupport.ObfuscationUtil;
 import com.brinvex.ptfactivity.testsupport.SimplePtf;
 import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.SequencedCollection;
 import java.util.Set;
 
+import static com.brinvex.finance.types.enu.Currency.CZK;
 import static com.brinvex.finance.types.enu.Currency.EUR;
 import static com.brinvex.ptfactivity.testsupport.AssertionUtil.assertPtfSnapshotEqual;
 import static java.math.BigDecimal.ZERO;
@@ -305,5 +315,24 @@ class FiobPtfActivityOfflineTest extends FiobBaseTest {
         }
     }
 
-}
+    @Test
+    void ptfProgress_loadData(@TempDir Path dmsRoot) {
+        String accountId = "12345678";
+        LoadDataSpec spec = new LoadDataSpec(19, parse("2024-06-30"), 2, 3, LoadDataSpec.DEFAULT_SYMBOLS, List.of(accountId));
+        DmsFactory dmsFactory = DmsFactory.newFilesystemDmsFactory(dmsRoot);
+        LoadDataGenerator.generate(dmsFactory, spec);
+        FiobPtfActivityProvider ptfProgressProvider = PtfActivityRuntime.newPtfActivityRuntime(PtfActivityRuntimeConfig.builder()
+                        .dmsFactory(() -> dmsFactory)
+                        .build())
+                .getModule(FiobModule.class)
+                .ptfProgressProvider();
+        ValidatorFacade validator = testCtx.validator();
 
+        for (FiobAccountType accountType : FiobAccountType.values()) {
+            Account account = new Account(accountType.name(), accountType.name(), CZK, spec.fromDateIncl(), null, accountId, null, Map.of());
+            PtfActivity ptfActivity = ptfProgressProvider.getPtfProgressOffline(account, spec.fromDateIncl(), spec.toDateIncl());
+            assertFalse(ptfActivity.transactions().isEmpty(), accountType::name);
+            validator.validateAndThrow(ptfActivity.transactions(), FinTransactionConstraints::of);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.brinvex.ptfactivity.connector.ibkr.api;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFetcher;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFinTransactionMapper;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFlexRequestScheduler;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementCompactor;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
 import com.brinvex.ptfactivity.core.api.Module;
@@ -12,6 +14,8 @@ public interface IbkrModule extends Module {
 
     IbkrFetcher fetcher();
 
+    IbkrFlexRequestScheduler flexRequestScheduler();
+
     IbkrStatementParser statementParser();
 
     IbkrStatementMerger statementMerger();
@@ -20,5 +24,37 @@ public interface IbkrModule extends Module {
 
     IbkrFinTransactionMapper finTransactionMapper();
 
+    IbkrStatementCompactor statementCompactor();
+
     IbkrPtfActivityProvider ptfProgressProvider();
+
+    interface PropKey extends Module.PropKey {
+        /// Base URL of the Flex Web Service, the fetcher appends `.SendRequest`,
+        /// default `https://www.interactivebrokers.com/Universal/servlet/FlexStatementService`
+        String flexBaseUrl = "flexBaseUrl";
+        /// Max number of Flex Web Service requests per token and second, default `1` as documented by IBKR,
+        /// `0` disables the limit
+        String flexMaxRequestsPerSecond = "flexMaxRequestsPerSecond";
+        /// Max number of Flex Web Service requests per token and minute, default `10` as documented by IBKR,
+        /// `0` disables the limit
+        String flexMaxRequestsPerMinute = "flexMaxRequestsPerMinute";
+        /// Max number of activity statements parsed concurrently, `1` parses them one after another (default)
+        String parseParallelism = "parseParallelism";
+        /// Whether fetched activity statements are stored from the download stream without being parsed first,
+        /// the rest of a statement which would not be stored is not read at all, default `false`.
+        /// The statement is still held in memory as text until it is stored, so the peak heap use is not lower.
+        /// Statements are requested with gzip transfer encoding in either mode.
+        String streamActivityDownloads = "streamActivityDownloads";
+        /// Max number of parsed statements kept in memory between requests, `0` disables the cache (default)
+        String statementCacheMaxSize = "statementCache.maxSize";
+        /// Whether the merged activity statements of each account are persisted as a snapshot next to the statements
+        /// and newly stored statements are folded into it, instead of merging all the statements on each request, default `false`
+        String activitySnapshot = "activitySnapshot";
+        /// Whether the mapped trade confirms of the current day are kept in memory and only the confirms
+        /// appended by a refetch are mapped, instead of remapping the whole day, default `false`
+        String incrementalTradeConfirms = "incrementalTradeConfirms";
+        /// How long the in-memory document key index of an account is trusted before the DMS directory
+        /// is listed again to pick up documents changed outside the connector, ISO-8601 duration, default `PT10S`
+        String docKeyIndexMaxAge = "docKeyIndex.maxAge";
+    }
 }
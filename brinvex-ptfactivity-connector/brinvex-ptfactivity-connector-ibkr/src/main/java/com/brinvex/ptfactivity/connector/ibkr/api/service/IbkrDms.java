@@ -5,7 +5,9 @@ import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.TradeConfirmDocKey;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface IbkrDms {
@@ -16,12 +18,35 @@ public interface IbkrDms {
 
     String getStatementContent(IbkrDocKey docKey);
 
+    /// Opens the UTF-8 encoded statement for parsing without decoding it into a String, the caller closes the stream.
+    /// {@link InputStream#available()} returns the remaining stored size in bytes, which is smaller than the document size
+    /// if the document is stored compressed.
+    InputStream openStatementContent(IbkrDocKey docKey);
+
     List<String> getStatementContentLines(IbkrDocKey docKey, int limit);
 
+    LocalDateTime getStatementLastModifiedTime(IbkrDocKey docKey);
+
     boolean putActivityStatement(ActivityDocKey docKey, String content);
 
+    /// Stores an activity statement read from the given UTF-8 encoded stream, e.g. straight from a download.
+    /// The document key is taken from the `FlexStatement` element at the head of the stream
+    /// and the rest of the stream is only read if the statement is useful.
+    StoredActivityStatement putActivityStatement(String accountId, InputStream content);
+
     boolean putTradeConfirmStatement(TradeConfirmDocKey docKey, String content);
 
     void delete(IbkrDocKey docKey);
 
+    /// Opens the UTF-8 encoded merged activity snapshot of the account, the caller closes the stream.
+    /// @return null if the account has no snapshot
+    InputStream openActivitySnapshot(String accountId);
+
+    /// Stores the merged activity snapshot of the account, replacing the previous one.
+    /// The snapshot is not an activity statement and is not listed by {@link #getActivityDocKeys}.
+    void putActivitySnapshot(String accountId, String content);
+
+    /// @param useful false if the statement was not stored because the period is already covered by the stored statements
+    record StoredActivityStatement(ActivityDocKey docKey, boolean useful) {
+    }
 }
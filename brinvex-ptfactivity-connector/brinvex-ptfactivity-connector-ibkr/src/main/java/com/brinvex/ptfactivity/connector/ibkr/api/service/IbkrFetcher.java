@@ -1,6 +1,10 @@
 package com.brinvex.ptfactivity.connector.ibkr.api.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 public interface IbkrFetcher {
 
@@ -10,5 +14,48 @@ public interface IbkrFetcher {
      *                                      4s for an ActivityFlexStatement
      *                                      0s for a TradeConfirmation
      */
-    String fetchFlexStatement(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressTime);
+    default String fetchFlexStatement(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressTime) {
+        return fetchFlexStatement(token, flexQueryId, maxRepeatCount, estimatedRemoteInProgressTime, null);
+    }
+
+    /**
+     * @param deadline optional point in time after which no more requests are sent and no more waiting is done,
+     *                 a {@link com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException} is thrown instead
+     */
+    String fetchFlexStatement(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressTime, Instant deadline);
+
+    /**
+     * Variant of {@link #fetchFlexStatement(String, String, int, Duration, Instant)} which does not buffer the statement.
+     * The statement is requested with gzip transfer encoding, decompressed on the fly
+     * and handed to the given reader as a UTF-8 encoded stream, e.g. to write it straight to storage.
+     *
+     * @param statementReader called once with the statement, the stream is closed afterwards
+     */
+    <T> T fetchFlexStatement(
+            String token,
+            String flexQueryId,
+            int maxRepeatCount,
+            Duration estimatedRemoteInProgressTime,
+            Instant deadline,
+            StatementReader<T> statementReader
+    );
+
+    @FunctionalInterface
+    interface StatementReader<T> {
+        T read(InputStream content) throws IOException;
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchFlexStatement(String, String, int, Duration, Instant)}.
+     * No thread is held while waiting for the remote side, the requests are sent asynchronously
+     * and the waits between them are scheduled.
+     * The statement is polled adaptively: the wait after a '1019 Statement generation in progress' response
+     * grows with the time the generation has already taken
+     * and the generation time observed for a flex query is used as the initial wait of its next fetch.
+     *
+     * @return a future completed with the statement content or completed exceptionally
+     * with a {@link com.brinvex.ptfactivity.core.api.exception.FetchException}
+     * or a {@link com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException}
+     */
+    CompletableFuture<String> fetchFlexStatementAsync(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressTime, Instant deadline);
 }
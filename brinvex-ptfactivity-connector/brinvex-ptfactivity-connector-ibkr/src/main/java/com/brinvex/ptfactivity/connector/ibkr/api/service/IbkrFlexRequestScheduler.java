@@ -0,0 +1,19 @@
+package com.brinvex.ptfactivity.connector.ibkr.api.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/// Queues the requests sent to the IBKR Flex Web Service per token, so that the per-token limits
+/// (one request per second and ten requests per minute, otherwise error 1018) are respected up front.
+/// Slots are handed out in the order in which they are reserved.
+public interface IbkrFlexRequestScheduler {
+
+    /// Time a request of the given token would have to wait if its slot was reserved now
+    Duration expectedWait(String token);
+
+    /// Reserves the earliest free request slot of the given token. Waiting for it is up to the caller.
+    ///
+    /// @param deadline optional, no slot is reserved if it would start after the deadline
+    /// @return the time to wait before sending the request or null if the slot would start after the deadline
+    Duration reserve(String token, Instant deadline);
+}
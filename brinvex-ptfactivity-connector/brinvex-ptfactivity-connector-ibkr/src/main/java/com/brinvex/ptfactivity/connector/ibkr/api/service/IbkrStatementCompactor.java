@@ -0,0 +1,24 @@
+package com.brinvex.ptfactivity.connector.ibkr.api.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+public interface IbkrStatementCompactor {
+
+    /// Replaces the activity statements lying entirely within one calendar-aligned period,
+    /// e.g. a year for {@code P1Y} or a quarter for {@code P3M}, with a single consolidated statement.
+    /// Only periods ending on or before {@code toDateIncl} are compacted, so the caller decides which periods are closed.
+    /// Periods with fewer than two statements or with a gap between them are left untouched.
+    /// A consolidated statement is stored only after it parses back to the merge of the statements it replaces,
+    /// and it is stored before they are deleted, so a concurrent reader never misses a period.
+    /// The swap is not atomic, a reader may see the consolidated statement together with some of the statements it replaces;
+    /// the overlapping records are equal and the statement merger keeps only one of them.
+    ///
+    /// @param period a whole number of months dividing a year or a whole number of years
+    /// @return keys of the stored consolidated statements
+    List<ActivityDocKey> compactActivityStatements(String accountId, Period period, LocalDate toDateIncl);
+
+}
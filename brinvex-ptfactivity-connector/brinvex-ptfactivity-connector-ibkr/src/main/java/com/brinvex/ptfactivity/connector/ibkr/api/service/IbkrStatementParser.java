@@ -3,6 +3,7 @@ package com.brinvex.ptfactivity.connector.ibkr.api.service;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.TradeConfirmStatement;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -12,6 +13,12 @@ public interface IbkrStatementParser {
 
     ActivityStatement parseActivityStatement(String statementXmlContent);
 
+    /// Parses UTF-8 encoded statement bytes as they are read, the stream is not closed
+    ActivityStatement parseActivityStatement(InputStream statementXmlContent);
+
     TradeConfirmStatement parseTradeConfirmStatement(String statementXmlContent);
 
+    /// Parses UTF-8 encoded statement bytes as they are read, the stream is not closed
+    TradeConfirmStatement parseTradeConfirmStatement(InputStream statementXmlContent);
+
 }
@@ -4,21 +4,30 @@ import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFetcher;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFinTransactionMapper;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFlexRequestScheduler;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementCompactor;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrActivitySnapshots;
 import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrDmsImpl;
 import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrFetcherImpl;
 import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrFinTransactionMapperImpl;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrFlexRequestSchedulerImpl;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrIntradayTradeConfirms;
 import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrPtfActivityProviderImpl;
 import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementMergerImpl;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementCache;
+import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementCompactorImpl;
 import com.brinvex.ptfactivity.connector.ibkr.internal.service.IbkrStatementParserImpl;
 import com.brinvex.ptfactivity.core.api.Module;
 import com.brinvex.ptfactivity.core.api.ModuleContext;
 import com.brinvex.ptfactivity.core.api.ModuleFactory;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
 import com.brinvex.ptfactivity.core.api.provider.Provider;
 import com.brinvex.ptfactivity.core.api.provider.PtfActivityProvider;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.SequencedCollection;
 import java.util.Set;
@@ -74,14 +83,41 @@ public class IbkrModuleImpl implements IbkrModule, Module {
         return moduleCtx.singletonService(IbkrFinTransactionMapper.class, IbkrFinTransactionMapperImpl::new);
     }
 
+    @Override
+    public IbkrStatementCompactor statementCompactor() {
+        return moduleCtx.singletonService(IbkrStatementCompactor.class, () -> new IbkrStatementCompactorImpl(
+                dms(),
+                statementParser(),
+                statementMerger()
+        ));
+    }
+
     @Override
     public IbkrDms dms() {
-        return moduleCtx.singletonService(IbkrDms.class, () -> new IbkrDmsImpl(moduleCtx.dms()));
+        return moduleCtx.singletonService(IbkrDms.class, () -> new IbkrDmsImpl(
+                moduleCtx.dms(),
+                moduleCtx.dmsChangeListener(),
+                statementCache(),
+                Duration.parse(moduleCtx.getProperty(IbkrModule.PropKey.docKeyIndexMaxAge, "PT10S")),
+                DmsCompression.parse(moduleCtx.getProperty(Module.PropKey.dmsCompression, "none"))
+        ));
     }
 
     @Override
     public IbkrFetcher fetcher() {
-        return moduleCtx.singletonService(IbkrFetcher.class, IbkrFetcherImpl::new);
+        return moduleCtx.singletonService(IbkrFetcher.class, () -> new IbkrFetcherImpl(
+                moduleCtx.toolbox().pipelineObserver(),
+                moduleCtx.getProperty(IbkrModule.PropKey.flexBaseUrl, IbkrFetcherImpl.DEFAULT_FLEX_BASE_URL),
+                flexRequestScheduler()
+        ));
+    }
+
+    @Override
+    public IbkrFlexRequestScheduler flexRequestScheduler() {
+        return moduleCtx.singletonService(IbkrFlexRequestScheduler.class, () -> new IbkrFlexRequestSchedulerImpl(
+                Integer.parseInt(moduleCtx.getProperty(IbkrModule.PropKey.flexMaxRequestsPerSecond, "1")),
+                Integer.parseInt(moduleCtx.getProperty(IbkrModule.PropKey.flexMaxRequestsPerMinute, "10"))
+        ));
     }
 
     @Override
@@ -91,7 +127,28 @@ public class IbkrModuleImpl implements IbkrModule, Module {
                 statementParser(),
                 fetcher(),
                 statementMerger(),
-                finTransactionMapper()
+                finTransactionMapper(),
+                moduleCtx.toolbox().pipelineObserver(),
+                Integer.parseInt(moduleCtx.getProperty(IbkrModule.PropKey.parseParallelism, "1")),
+                statementCache(),
+                Boolean.parseBoolean(moduleCtx.getProperty(IbkrModule.PropKey.streamActivityDownloads, "false")),
+                activitySnapshots(),
+                new IbkrIntradayTradeConfirms(Boolean.parseBoolean(moduleCtx.getProperty(IbkrModule.PropKey.incrementalTradeConfirms, "false")))
+        ));
+    }
+
+    private IbkrActivitySnapshots activitySnapshots() {
+        return moduleCtx.singletonService(IbkrActivitySnapshots.class, () -> new IbkrActivitySnapshots(
+                dms(),
+                statementParser(),
+                statementMerger(),
+                Boolean.parseBoolean(moduleCtx.getProperty(IbkrModule.PropKey.activitySnapshot, "false"))
+        ));
+    }
+
+    private IbkrStatementCache statementCache() {
+        return moduleCtx.singletonService(IbkrStatementCache.class, () -> new IbkrStatementCache(
+                Integer.parseInt(moduleCtx.getProperty(IbkrModule.PropKey.statementCacheMaxSize, "0"))
         ));
     }
 }
@@ -0,0 +1,252 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CashTransaction;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CorporateAction;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.EquitySummary;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.Trade;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
+import com.brinvex.ptfactivity.core.api.exception.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/// Persisted merge of the activity statements of each account, maintained incrementally.
+///
+/// A snapshot covers the contiguous tail of the stored statements, i.e. the statements after the last missing period.
+/// The persisted part merges all of them but the last one, which a refetch replaces by a wider statement,
+/// so its `toDate` is the watermark of the closed statements. It lists the statements it was merged from:
+/// statements added or replaced after them are folded into it, any other change of the stored statements,
+/// e.g. a consolidation, rebuilds it from scratch.
+/// Folding keeps the records in the order a merge of all the statements would produce.
+///
+/// The last snapshot of each account is also kept in memory together with the merge of all its statements,
+/// so a repeated request over unchanged statements neither reads nor merges anything.
+/// Refreshes of the same account are serialized, those of different accounts run in parallel.
+public class IbkrActivitySnapshots {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IbkrActivitySnapshots.class);
+
+    private record Merge(List<ActivityDocKey> sources, ActivityStatement statement) {
+    }
+
+    /// @param closed the persisted merge of all the sources but the last one, null if there is a single source
+    /// @param all    the merge of all the sources
+    private record Snapshot(Merge closed, Merge all) {
+    }
+
+    private final IbkrDms dms;
+
+    private final IbkrStatementParser parser;
+
+    private final IbkrStatementMerger statementMerger;
+
+    private final boolean enabled;
+
+    private final IbkrFlexStatementWriter writer = new IbkrFlexStatementWriter();
+
+    private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<>();
+
+    public IbkrActivitySnapshots(IbkrDms dms, IbkrStatementParser parser, IbkrStatementMerger statementMerger, boolean enabled) {
+        this.dms = dms;
+        this.parser = parser;
+        this.statementMerger = statementMerger;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /// Returns the merge of the given statements taken from the snapshot of the account,
+    /// after folding the newly stored statements into it or rebuilding it if needed.
+    ///
+    /// @param actDocKeys all activity statements of the account, sorted
+    /// @param reqDocKeys the statements to merge, sorted
+    /// @param reader     reads and parses the given statements, keeping their order
+    /// @return null if the snapshot does not cover the given statements
+    public ActivityStatement merge(
+            String accountId,
+            List<ActivityDocKey> actDocKeys,
+            List<ActivityDocKey> reqDocKeys,
+            Function<List<ActivityDocKey>, List<ActivityStatement>> reader
+    ) {
+        if (!enabled || reqDocKeys.isEmpty()) {
+            return null;
+        }
+        List<ActivityDocKey> sources = contiguousTail(actDocKeys);
+        if (sources.isEmpty() || reqDocKeys.getFirst().fromDateIncl().isBefore(sources.getFirst().fromDateIncl())) {
+            return null;
+        }
+        Snapshot snapshot;
+        Lock lock = locks.computeIfAbsent(accountId, _ -> new ReentrantLock());
+        lock.lock();
+        try {
+            snapshot = refresh(accountId, snapshots.get(accountId), sources, reader);
+            snapshots.put(accountId, snapshot);
+        } finally {
+            lock.unlock();
+        }
+        if (!snapshot.all().sources().containsAll(reqDocKeys)) {
+            return null;
+        }
+        LocalDate fromDateIncl = reqDocKeys.getFirst().fromDateIncl();
+        LocalDate toDateIncl = reqDocKeys.stream().map(ActivityDocKey::toDateIncl).max(LocalDate::compareTo).orElseThrow();
+        return slice(snapshot.all().statement(), fromDateIncl, toDateIncl);
+    }
+
+    private Snapshot refresh(
+            String accountId,
+            Snapshot oldSnapshot,
+            List<ActivityDocKey> sources,
+            Function<List<ActivityDocKey>, List<ActivityStatement>> reader
+    ) {
+        if (oldSnapshot != null && oldSnapshot.all().sources().equals(sources)) {
+            return oldSnapshot;
+        }
+        Merge oldClosed = oldSnapshot != null ? oldSnapshot.closed() : load(accountId);
+        List<ActivityDocKey> newSources;
+        if (oldClosed != null && isPrefix(oldClosed.sources(), sources)) {
+            newSources = sources.subList(oldClosed.sources().size(), sources.size());
+            LOG.debug("refresh - folding {} statements into the snapshot of {}", newSources.size(), accountId);
+        } else {
+            LOG.debug("refresh - rebuilding the snapshot of {} from {} statements", accountId, sources.size());
+            oldClosed = null;
+            newSources = sources;
+        }
+        List<ActivityStatement> newStatements = reader.apply(newSources);
+
+        Merge closed = oldClosed;
+        if (newSources.size() > 1) {
+            List<ActivityStatement> statements = new ArrayList<>(newSources.size());
+            if (oldClosed != null) {
+                statements.add(oldClosed.statement());
+            }
+            statements.addAll(newStatements.subList(0, newStatements.size() - 1));
+            List<ActivityDocKey> closedSources = List.copyOf(sources.subList(0, sources.size() - 1));
+            closed = new Merge(closedSources, statementMerger.mergeActivityStatements(statements).orElseThrow());
+            dms.putActivitySnapshot(accountId, writer.writeActivitySnapshot(closed.statement(), closedSources));
+        }
+        List<ActivityStatement> statements = closed == null
+                ? List.of(newStatements.getLast())
+                : List.of(closed.statement(), newStatements.getLast());
+        ActivityStatement merged = statementMerger.mergeActivityStatements(statements).orElseThrow();
+        return new Snapshot(closed, new Merge(List.copyOf(sources), merged));
+    }
+
+    private Merge load(String accountId) {
+        List<ActivityDocKey> sources;
+        try (InputStream content = dms.openActivitySnapshot(accountId)) {
+            if (content == null) {
+                return null;
+            }
+            sources = readSources(accountId, content);
+        } catch (IOException | XMLStreamException e) {
+            throw new StorageException("Failed to read the activity snapshot of %s".formatted(accountId), e);
+        }
+        ActivityStatement statement;
+        try (InputStream content = dms.openActivitySnapshot(accountId)) {
+            statement = parser.parseActivityStatement(content);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read the activity snapshot of %s".formatted(accountId), e);
+        }
+        return new Merge(sources, statement);
+    }
+
+    /// Reads the `SnapshotSources` element in front of the records, the rest of the content is not read
+    private static List<ActivityDocKey> readSources(String accountId, InputStream content) throws XMLStreamException {
+        List<ActivityDocKey> sources = new ArrayList<>();
+        XMLStreamReader reader = Lazy.xmlInputFactory.createXMLStreamReader(content);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("SnapshotSource")) {
+                    sources.add(new ActivityDocKey(
+                            accountId,
+                            LocalDate.parse(reader.getAttributeValue(null, "fromDate"), Lazy.ibkrDf),
+                            LocalDate.parse(reader.getAttributeValue(null, "toDate"), Lazy.ibkrDf)
+                    ));
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("SnapshotSources")) {
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return sources;
+    }
+
+    /// The statements after the last missing period, a merge of all the statements would fail on it
+    private static List<ActivityDocKey> contiguousTail(List<ActivityDocKey> actDocKeys) {
+        int tailStart = 0;
+        LocalDate coveredToDate = null;
+        for (int i = 0; i < actDocKeys.size(); i++) {
+            ActivityDocKey actDocKey = actDocKeys.get(i);
+            if (coveredToDate != null && actDocKey.fromDateIncl().isAfter(coveredToDate.plusDays(1))) {
+                tailStart = i;
+            }
+            if (coveredToDate == null || actDocKey.toDateIncl().isAfter(coveredToDate)) {
+                coveredToDate = actDocKey.toDateIncl();
+            }
+        }
+        return actDocKeys.subList(tailStart, actDocKeys.size());
+    }
+
+    private static boolean isPrefix(List<ActivityDocKey> prefix, List<ActivityDocKey> list) {
+        return prefix.size() < list.size() && list.subList(0, prefix.size()).equals(prefix);
+    }
+
+    /// The records reported within the given period, i.e. those the statements of the period consist of
+    private static ActivityStatement slice(ActivityStatement statement, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        if (statement.fromDate().equals(fromDateIncl) && statement.toDate().equals(toDateIncl)) {
+            return statement;
+        }
+        Predicate<LocalDate> inPeriod = date -> date == null || !date.isBefore(fromDateIncl) && !date.isAfter(toDateIncl);
+        return new ActivityStatement(
+                statement.accountId(),
+                fromDateIncl,
+                toDateIncl,
+                statement.whenGenerated(),
+                filter(statement.cashTransactions(), CashTransaction::reportDate, inPeriod),
+                filter(statement.trades(), Trade::reportDate, inPeriod),
+                filter(statement.corporateActions(), CorporateAction::reportDate, inPeriod),
+                filter(statement.equitySummaries(), EquitySummary::reportDate, inPeriod)
+        );
+    }
+
+    private static <T> List<T> filter(List<T> records, Function<T, LocalDate> reportDate, Predicate<LocalDate> inPeriod) {
+        List<T> results = new ArrayList<>();
+        for (T record : records) {
+            if (inPeriod.test(reportDate.apply(record))) {
+                results.add(record);
+            }
+        }
+        return results;
+    }
+
+    private static final class Lazy {
+        private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        private static final DateTimeFormatter ibkrDf = DateTimeFormatter.ofPattern("yyyyMMdd");
+    }
+}
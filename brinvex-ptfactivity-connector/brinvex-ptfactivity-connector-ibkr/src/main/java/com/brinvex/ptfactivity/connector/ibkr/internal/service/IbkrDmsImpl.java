@@ -4,107 +4,202 @@ import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.TradeConfirmDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
-import com.brinvex.ptfactivity.core.api.exception.StorageException;
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
 import com.brinvex.dms.api.Dms;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.SequencedCollection;
 import java.util.SequencedSet;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static java.util.Comparator.naturalOrder;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @SuppressWarnings("unused")
 public class IbkrDmsImpl implements IbkrDms {
 
     private final Dms dms;
 
+    private final DmsChangeListener changeListener;
+
+    private final IbkrStatementCache statementCache;
+
+    private final IbkrDocKeyIndex docKeyIndex;
+
+    private final DmsCompression compression;
+
     public IbkrDmsImpl(Dms dms) {
+        this(dms, DmsChangeListener.NOOP);
+    }
+
+    public IbkrDmsImpl(Dms dms, DmsChangeListener changeListener) {
+        this(dms, changeListener, new IbkrStatementCache(0), Duration.ZERO, DmsCompression.NONE);
+    }
+
+    /// @param docKeyIndexMaxAge how long the in-memory key index of an account is trusted
+    ///                          before the directory is listed again to notice changes made outside this class
+    /// @param compression        applied to the written documents, documents are read correctly in any case
+    public IbkrDmsImpl(
+            Dms dms,
+            DmsChangeListener changeListener,
+            IbkrStatementCache statementCache,
+            Duration docKeyIndexMaxAge,
+            DmsCompression compression
+    ) {
         this.dms = dms;
+        this.changeListener = changeListener;
+        this.statementCache = statementCache;
+        this.docKeyIndex = new IbkrDocKeyIndex(docKeyIndexMaxAge, accountId -> dms.getKeys(getDirectory(accountId)), this::parseDocKey);
+        this.compression = compression;
     }
 
     @Override
     public List<ActivityDocKey> getActivityDocKeys(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
-        String directory = getDirectory(accountId);
-        SequencedCollection<String> rawKeys = dms.getKeys(directory);
-        List<ActivityDocKey> results = new ArrayList<>();
-        for (String rawKey : rawKeys) {
-            ActivityDocKey docKey = parseActDocKey(rawKey);
-            if (docKey != null) {
-                if (!accountId.equals(docKey.accountId())) {
-                    throw new StorageException("Unexpected document '%s' in directory '%s'".formatted(rawKey, directory));
-                }
-                boolean outside = (toDateIncl != null && docKey.fromDateIncl().isAfter(toDateIncl)) || (fromDateIncl != null && docKey.toDateIncl().isBefore(fromDateIncl));
-                if (outside) {
-                    continue;
-                }
-                results.add(docKey);
-            }
-        }
-        results.sort(naturalOrder());
-        return results;
-    }
-
-    private ActivityDocKey parseActDocKey(String fileKey) {
-        ActivityDocKey docKey;
-        Matcher m = Lazy.actDmsRawKeyPattern.matcher(fileKey);
-        if (m.matches()) {
-            String docAccountId = m.group(1);
-            LocalDate docFromDateIncl = LocalDate.parse(m.group(2), Lazy.rawKeyDf);
-            LocalDate docToDateIncl = LocalDate.parse(m.group(3), Lazy.rawKeyDf);
-            docKey = new ActivityDocKey(docAccountId, docFromDateIncl, docToDateIncl);
-        } else {
-            docKey = null;
-        }
-        return docKey;
+        return docKeyIndex.getActivityDocKeys(accountId, fromDateIncl, toDateIncl);
     }
 
     @Override
     public List<TradeConfirmDocKey> getTradeConfirmDocKeys(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
-        String directory = getDirectory(accountId);
-        SequencedCollection<String> rawKeys = dms.getKeys(directory);
-        List<TradeConfirmDocKey> results = new ArrayList<>();
-        Pattern p = Lazy.tcDmsRawKeyPattern;
-        for (String rawKey : rawKeys) {
-            Matcher m = p.matcher(rawKey);
-            if (m.matches()) {
-                String docAccountId = m.group(1);
-                if (!docAccountId.equals(accountId)) {
-                    throw new StorageException("Unexpected document '%s' in directory '%s'".formatted(rawKey, directory));
-                }
-                LocalDate docDate = LocalDate.parse(m.group(2), Lazy.rawKeyDf);
-                boolean outside = (toDateIncl != null && docDate.isAfter(toDateIncl)) || (fromDateIncl != null && docDate.isBefore(fromDateIncl));
-                if (outside) {
-                    continue;
-                }
-                results.add(new TradeConfirmDocKey(docAccountId, docDate));
-            }
+        return docKeyIndex.getTradeConfirmDocKeys(accountId, fromDateIncl, toDateIncl);
+    }
+
+    private IbkrDocKey parseDocKey(String fileKey) {
+        Matcher actMatcher = Lazy.actDmsRawKeyPattern.matcher(fileKey);
+        if (actMatcher.matches()) {
+            String docAccountId = actMatcher.group(1);
+            LocalDate docFromDateIncl = LocalDate.parse(actMatcher.group(2), Lazy.rawKeyDf);
+            LocalDate docToDateIncl = LocalDate.parse(actMatcher.group(3), Lazy.rawKeyDf);
+            return new ActivityDocKey(docAccountId, docFromDateIncl, docToDateIncl);
+        }
+        Matcher tcMatcher = Lazy.tcDmsRawKeyPattern.matcher(fileKey);
+        if (tcMatcher.matches()) {
+            String docAccountId = tcMatcher.group(1);
+            LocalDate docDate = LocalDate.parse(tcMatcher.group(2), Lazy.rawKeyDf);
+            return new TradeConfirmDocKey(docAccountId, docDate);
         }
-        results.sort(naturalOrder());
-        return results;
+        return null;
     }
 
     @Override
     public String getStatementContent(IbkrDocKey docKey) {
         String directory = getDirectory(docKey.accountId());
         String fileKey = constructFileKey(docKey);
-        return dms.getTextContent(directory, fileKey);
+        return DmsCompression.decodeText(dms.getTextContent(directory, fileKey));
+    }
+
+    @Override
+    public InputStream openStatementContent(IbkrDocKey docKey) {
+        String directory = getDirectory(docKey.accountId());
+        String fileKey = constructFileKey(docKey);
+        return DmsCompression.openBinary(dms.getBinaryContent(directory, fileKey));
     }
 
     @Override
     public List<String> getStatementContentLines(IbkrDocKey docKey, int limit) {
         String directory = getDirectory(docKey.accountId());
         String fileKey = constructFileKey(docKey);
-        return dms.getTextLines(directory, fileKey, limit);
+        return DmsCompression.decodeLines(dms.getTextLines(directory, fileKey, limit), limit);
+    }
+
+    @Override
+    public LocalDateTime getStatementLastModifiedTime(IbkrDocKey docKey) {
+        String directory = getDirectory(docKey.accountId());
+        String fileKey = constructFileKey(docKey);
+        return dms.getLastModifiedTime(directory, fileKey);
     }
 
     @Override
     public boolean putActivityStatement(ActivityDocKey docKey, String content) {
+        return putActivityStatement(docKey, () -> content);
+    }
+
+    @Override
+    public StoredActivityStatement putActivityStatement(String accountId, InputStream content) {
+        try (Reader reader = new InputStreamReader(content, UTF_8)) {
+            StringBuilder sb = new StringBuilder(Lazy.STREAM_CHUNK_SIZE);
+            char[] chunk = new char[Lazy.STREAM_CHUNK_SIZE];
+            ActivityDocKey docKey = null;
+            int n;
+            while (docKey == null && (n = reader.read(chunk)) >= 0) {
+                sb.append(chunk, 0, n);
+                docKey = parseActivityDocKey(accountId, sb);
+                if (docKey == null && sb.length() > Lazy.STREAM_HEAD_MAX_SIZE) {
+                    break;
+                }
+            }
+            if (docKey == null) {
+                throw new IllegalArgumentException("FlexStatement element with the statement period not found in the head of the content - accountId=%s"
+                        .formatted(accountId));
+            }
+            ActivityDocKey headDocKey = docKey;
+            boolean useful = putActivityStatement(headDocKey, () -> {
+                try {
+                    int m;
+                    while ((m = reader.read(chunk)) >= 0) {
+                        sb.append(chunk, 0, m);
+                    }
+                    // Storing the statement deletes the statements it makes redundant, a truncated download must not replace them
+                    if (!endsWith(sb, Lazy.flexQueryResponseEndTag)) {
+                        throw new IllegalArgumentException("Incomplete statement, %s not found at the end of the content - %s"
+                                .formatted(Lazy.flexQueryResponseEndTag, headDocKey));
+                    }
+                    // Compressed straight from the builder, a String copy of it is made only if the compression is disabled
+                    return sb;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return new StoredActivityStatement(headDocKey, useful);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean endsWith(CharSequence content, String suffix) {
+        int end = content.length();
+        while (end > 0 && Character.isWhitespace(content.charAt(end - 1))) {
+            end--;
+        }
+        int start = end - suffix.length();
+        return start >= 0 && content.subSequence(start, end).toString().equals(suffix);
+    }
+
+    private ActivityDocKey parseActivityDocKey(String accountId, CharSequence statementHead) {
+        Matcher elementMatcher = Lazy.flexStatementElementPattern.matcher(statementHead);
+        if (!elementMatcher.find()) {
+            return null;
+        }
+        String element = elementMatcher.group();
+        Matcher accountIdMatcher = Lazy.accountIdAttrPattern.matcher(element);
+        Matcher fromDateMatcher = Lazy.fromDateAttrPattern.matcher(element);
+        Matcher toDateMatcher = Lazy.toDateAttrPattern.matcher(element);
+        if (!accountIdMatcher.find() || !fromDateMatcher.find() || !toDateMatcher.find()) {
+            throw new IllegalArgumentException("Unexpected FlexStatement element: %s".formatted(element));
+        }
+        if (!accountId.equals(accountIdMatcher.group(1))) {
+            throw new IllegalArgumentException("Unexpected accountId - expected=%s, element=%s".formatted(accountId, element));
+        }
+        return new ActivityDocKey(
+                accountId,
+                LocalDate.parse(fromDateMatcher.group(1), Lazy.rawKeyDf),
+                LocalDate.parse(toDateMatcher.group(1), Lazy.rawKeyDf)
+        );
+    }
+
+    /// The content is only supplied if the statement is useful
+    private boolean putActivityStatement(ActivityDocKey docKey, Supplier<CharSequence> content) {
         String accountId = docKey.accountId();
         String directory = getDirectory(accountId);
 
@@ -116,12 +211,21 @@ public class IbkrDmsImpl implements IbkrDms {
         boolean newSaved;
         if (!redundantActKeys.remove(docKey)) {
             String newFileKey = constructFileKey(docKey);
-            dms.add(directory, newFileKey, content);
+            dms.add(directory, newFileKey, compression.encode(content.get()));
+            docKeyIndex.onAdded(newFileKey, docKey);
+            statementCache.invalidate(docKey);
+            changeListener.onChange(directory, newFileKey);
             newSaved = true;
         } else {
             newSaved = false;
         }
-        dms.delete(directory, redundantActKeys.stream().map(this::constructFileKey).toList());
+        List<String> redundantFileKeys = redundantActKeys.stream().map(this::constructFileKey).toList();
+        dms.delete(directory, redundantFileKeys);
+        for (ActivityDocKey redundantActKey : redundantActKeys) {
+            docKeyIndex.onDeleted(constructFileKey(redundantActKey), redundantActKey);
+            statementCache.invalidate(redundantActKey);
+        }
+        redundantFileKeys.forEach(redundantFileKey -> changeListener.onChange(directory, redundantFileKey));
 
         return newSaved;
     }
@@ -131,7 +235,11 @@ public class IbkrDmsImpl implements IbkrDms {
         String accountId = docKey.accountId();
         String directory = getDirectory(accountId);
         String newFileKey = constructFileKey(docKey);
-        return dms.put(directory, newFileKey, content);
+        boolean replaced = dms.put(directory, newFileKey, compression.encode(content));
+        docKeyIndex.onAdded(newFileKey, docKey);
+        statementCache.invalidate(docKey);
+        changeListener.onChange(directory, newFileKey);
+        return replaced;
     }
 
     @Override
@@ -139,6 +247,31 @@ public class IbkrDmsImpl implements IbkrDms {
         String directory = getDirectory(docKey.accountId());
         String fileKey = constructFileKey(docKey);
         dms.delete(directory, fileKey);
+        docKeyIndex.onDeleted(fileKey, docKey);
+        statementCache.invalidate(docKey);
+        changeListener.onChange(directory, fileKey);
+    }
+
+    @Override
+    public InputStream openActivitySnapshot(String accountId) {
+        String directory = getDirectory(accountId);
+        String fileKey = constructActivitySnapshotFileKey(accountId);
+        if (!dms.exists(directory, fileKey)) {
+            return null;
+        }
+        return DmsCompression.openBinary(dms.getBinaryContent(directory, fileKey));
+    }
+
+    @Override
+    public void putActivitySnapshot(String accountId, String content) {
+        String directory = getDirectory(accountId);
+        String fileKey = constructActivitySnapshotFileKey(accountId);
+        dms.put(directory, fileKey, compression.encode(content));
+        changeListener.onChange(directory, fileKey);
+    }
+
+    private String constructActivitySnapshotFileKey(String accountId) {
+        return "%s-ACT-SNAPSHOT.xml".formatted(accountId);
     }
 
     private String constructFileKey(IbkrDocKey docKey) {
@@ -163,6 +296,13 @@ public class IbkrDmsImpl implements IbkrDms {
         private static final DateTimeFormatter rawKeyDf = DateTimeFormatter.ofPattern("yyyyMMdd");
         private static final Pattern actDmsRawKeyPattern = Pattern.compile("(\\w{8,16})-ACT-(\\d{8})-(\\d{8})\\.xml");
         private static final Pattern tcDmsRawKeyPattern = Pattern.compile("(\\w{8,16})-TC-(\\d{8})\\.xml");
+        private static final Pattern flexStatementElementPattern = Pattern.compile("<FlexStatement\\s[^>]*>");
+        private static final Pattern accountIdAttrPattern = Pattern.compile("\\saccountId=\"([^\"]*)\"");
+        private static final Pattern fromDateAttrPattern = Pattern.compile("\\sfromDate=\"(\\d{8})\"");
+        private static final Pattern toDateAttrPattern = Pattern.compile("\\stoDate=\"(\\d{8})\"");
+        private static final String flexQueryResponseEndTag = "</FlexQueryResponse>";
+        private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+        private static final int STREAM_HEAD_MAX_SIZE = 64 * 1024;
     }
 
 }
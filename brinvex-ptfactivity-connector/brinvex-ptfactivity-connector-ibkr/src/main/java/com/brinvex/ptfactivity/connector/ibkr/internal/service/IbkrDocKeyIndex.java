@@ -0,0 +1,258 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.TradeConfirmDocKey;
+import com.brinvex.ptfactivity.core.api.exception.StorageException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import static java.util.Collections.emptyList;
+
+/// In-memory index of the IBKR document keys stored in the directory of each account.
+/// Activity keys are kept sorted by their start date together with the running maximum of their end dates,
+/// so a period overlap query is two binary searches plus a scan of the candidates only.
+///
+/// Writes and deletes done through {@link IbkrDmsImpl} insert into or remove from the sorted keys of the index.
+/// Documents added or removed behind its back are noticed once the index is older than {@code maxAge}:
+/// the directory is listed again and the index is rebuilt only if the listed file keys differ.
+class IbkrDocKeyIndex {
+
+    private record AccountIndex(
+            Set<String> fileKeys,
+            ActivityDocKey[] actDocKeys,
+            LocalDate[] actMaxToDates,
+            TradeConfirmDocKey[] tcDocKeys,
+            long validatedOnNanos
+    ) {
+        static AccountIndex of(Set<String> fileKeys, Collection<ActivityDocKey> actDocKeys, Collection<TradeConfirmDocKey> tcDocKeys, long validatedOnNanos) {
+            ActivityDocKey[] sortedActDocKeys = actDocKeys.toArray(ActivityDocKey[]::new);
+            Arrays.sort(sortedActDocKeys);
+            TradeConfirmDocKey[] sortedTcDocKeys = tcDocKeys.toArray(TradeConfirmDocKey[]::new);
+            Arrays.sort(sortedTcDocKeys);
+            return new AccountIndex(Set.copyOf(fileKeys), sortedActDocKeys, maxToDates(sortedActDocKeys), sortedTcDocKeys, validatedOnNanos);
+        }
+
+        /// Inserts or removes the single key in place of the sorted arrays, nothing is sorted again
+        AccountIndex with(String fileKey, IbkrDocKey docKey, boolean present) {
+            if (fileKeys.contains(fileKey) == present) {
+                return this;
+            }
+            Set<String> newFileKeys = new HashSet<>(fileKeys);
+            if (present) {
+                newFileKeys.add(fileKey);
+            } else {
+                newFileKeys.remove(fileKey);
+            }
+            ActivityDocKey[] newActDocKeys = actDocKeys;
+            LocalDate[] newActMaxToDates = actMaxToDates;
+            TradeConfirmDocKey[] newTcDocKeys = tcDocKeys;
+            switch (docKey) {
+                case ActivityDocKey actDocKey -> {
+                    newActDocKeys = present ? inserted(actDocKeys, actDocKey) : removed(actDocKeys, actDocKey);
+                    newActMaxToDates = newActDocKeys == actDocKeys ? actMaxToDates : maxToDates(newActDocKeys);
+                }
+                case TradeConfirmDocKey tcDocKey -> newTcDocKeys = present ? inserted(tcDocKeys, tcDocKey) : removed(tcDocKeys, tcDocKey);
+            }
+            return new AccountIndex(Collections.unmodifiableSet(newFileKeys), newActDocKeys, newActMaxToDates, newTcDocKeys, validatedOnNanos);
+        }
+
+        /// The running maximum of the end dates of the given sorted keys
+        private static LocalDate[] maxToDates(ActivityDocKey[] sortedActDocKeys) {
+            LocalDate[] actMaxToDates = new LocalDate[sortedActDocKeys.length];
+            LocalDate maxToDate = LocalDate.MIN;
+            for (int i = 0; i < sortedActDocKeys.length; i++) {
+                LocalDate toDate = sortedActDocKeys[i].toDateIncl();
+                if (toDate.isAfter(maxToDate)) {
+                    maxToDate = toDate;
+                }
+                actMaxToDates[i] = maxToDate;
+            }
+            return actMaxToDates;
+        }
+
+        private static <K extends Comparable<K>> K[] inserted(K[] sortedKeys, K key) {
+            int idx = Arrays.binarySearch(sortedKeys, key);
+            if (idx >= 0) {
+                return sortedKeys;
+            }
+            int insertionIdx = -idx - 1;
+            K[] results = Arrays.copyOf(sortedKeys, sortedKeys.length + 1);
+            System.arraycopy(sortedKeys, insertionIdx, results, insertionIdx + 1, sortedKeys.length - insertionIdx);
+            results[insertionIdx] = key;
+            return results;
+        }
+
+        private static <K extends Comparable<K>> K[] removed(K[] sortedKeys, K key) {
+            int idx = Arrays.binarySearch(sortedKeys, key);
+            if (idx < 0) {
+                return sortedKeys;
+            }
+            K[] results = Arrays.copyOf(sortedKeys, sortedKeys.length - 1);
+            System.arraycopy(sortedKeys, idx + 1, results, idx, sortedKeys.length - idx - 1);
+            return results;
+        }
+    }
+
+    private final long maxAgeNanos;
+
+    private final Function<String, Collection<String>> fileKeyLister;
+
+    private final Function<String, IbkrDocKey> fileKeyParser;
+
+    private final ConcurrentMap<String, AccountIndex> accountIndexes = new ConcurrentHashMap<>();
+
+    /// Number of writes per account, a listing taken while it changed is not published
+    private final ConcurrentMap<String, AtomicLong> writeCounts = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<>();
+
+    /// @param fileKeyLister lists the file keys in the directory of the given account
+    /// @param fileKeyParser returns null for file keys which are not IBKR statements
+    IbkrDocKeyIndex(Duration maxAge, Function<String, Collection<String>> fileKeyLister, Function<String, IbkrDocKey> fileKeyParser) {
+        this.maxAgeNanos = maxAge.toNanos();
+        this.fileKeyLister = fileKeyLister;
+        this.fileKeyParser = fileKeyParser;
+    }
+
+    List<ActivityDocKey> getActivityDocKeys(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        AccountIndex index = getAccountIndex(accountId);
+        ActivityDocKey[] actDocKeys = index.actDocKeys();
+        LocalDate[] actMaxToDates = index.actMaxToDates();
+
+        // Keys before startIdx end before fromDateIncl, keys from endIdx on start after toDateIncl
+        int startIdx = fromDateIncl == null ? 0 : firstNotBefore(actMaxToDates, fromDateIncl);
+        int endIdx = toDateIncl == null ? actDocKeys.length : firstStartAfter(actDocKeys, toDateIncl);
+        if (startIdx >= endIdx) {
+            return emptyList();
+        }
+        List<ActivityDocKey> results = new ArrayList<>(endIdx - startIdx);
+        for (int i = startIdx; i < endIdx; i++) {
+            ActivityDocKey actDocKey = actDocKeys[i];
+            if (fromDateIncl == null || !actDocKey.toDateIncl().isBefore(fromDateIncl)) {
+                results.add(actDocKey);
+            }
+        }
+        return results;
+    }
+
+    List<TradeConfirmDocKey> getTradeConfirmDocKeys(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        TradeConfirmDocKey[] tcDocKeys = getAccountIndex(accountId).tcDocKeys();
+        int startIdx = 0;
+        int endIdx = tcDocKeys.length;
+        if (fromDateIncl != null) {
+            startIdx = binarySearch(tcDocKeys.length, i -> !tcDocKeys[i].date().isBefore(fromDateIncl));
+        }
+        if (toDateIncl != null) {
+            endIdx = binarySearch(tcDocKeys.length, i -> tcDocKeys[i].date().isAfter(toDateIncl));
+        }
+        if (startIdx >= endIdx) {
+            return emptyList();
+        }
+        return List.of(Arrays.copyOfRange(tcDocKeys, startIdx, endIdx));
+    }
+
+    void onAdded(String fileKey, IbkrDocKey docKey) {
+        writeCount(docKey.accountId()).incrementAndGet();
+        accountIndexes.computeIfPresent(docKey.accountId(), (_, index) -> index.with(fileKey, docKey, true));
+    }
+
+    void onDeleted(String fileKey, IbkrDocKey docKey) {
+        writeCount(docKey.accountId()).incrementAndGet();
+        accountIndexes.computeIfPresent(docKey.accountId(), (_, index) -> index.with(fileKey, docKey, false));
+    }
+
+    /// Lists and builds the index outside the map, only one listing of an account runs at a time
+    private AccountIndex getAccountIndex(String accountId) {
+        AccountIndex index = accountIndexes.get(accountId);
+        if (index != null && System.nanoTime() - index.validatedOnNanos() < maxAgeNanos) {
+            return index;
+        }
+        Lock lock = locks.computeIfAbsent(accountId, _ -> new ReentrantLock());
+        lock.lock();
+        try {
+            AccountIndex oldIndex = accountIndexes.get(accountId);
+            long now = System.nanoTime();
+            if (oldIndex != null && now - oldIndex.validatedOnNanos() < maxAgeNanos) {
+                return oldIndex;
+            }
+            AtomicLong writeCount = writeCount(accountId);
+            long writeCountBefore = writeCount.get();
+            Set<String> fileKeys = new HashSet<>(fileKeyLister.apply(accountId));
+            AccountIndex newIndex;
+            if (oldIndex != null && oldIndex.fileKeys().equals(fileKeys)) {
+                newIndex = new AccountIndex(oldIndex.fileKeys(), oldIndex.actDocKeys(), oldIndex.actMaxToDates(), oldIndex.tcDocKeys(), now);
+            } else {
+                newIndex = build(accountId, fileKeys, now);
+            }
+            // A write during the listing may be missing in it, the index it updated stays until the next listing
+            accountIndexes.compute(accountId, (_, currentIndex) -> writeCount.get() == writeCountBefore ? newIndex : currentIndex);
+            return newIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AtomicLong writeCount(String accountId) {
+        return writeCounts.computeIfAbsent(accountId, _ -> new AtomicLong());
+    }
+
+    private AccountIndex build(String accountId, Set<String> fileKeys, long validatedOnNanos) {
+        List<ActivityDocKey> actDocKeys = new ArrayList<>();
+        List<TradeConfirmDocKey> tcDocKeys = new ArrayList<>();
+        for (String fileKey : fileKeys) {
+            IbkrDocKey docKey = fileKeyParser.apply(fileKey);
+            if (docKey == null) {
+                continue;
+            }
+            if (!accountId.equals(docKey.accountId())) {
+                throw new StorageException("Unexpected document '%s' in directory '%s'".formatted(fileKey, accountId));
+            }
+            switch (docKey) {
+                case ActivityDocKey actDocKey -> actDocKeys.add(actDocKey);
+                case TradeConfirmDocKey tcDocKey -> tcDocKeys.add(tcDocKey);
+            }
+        }
+        return AccountIndex.of(fileKeys, actDocKeys, tcDocKeys, validatedOnNanos);
+    }
+
+    /// Index of the first element whose running max end date is not before the given date
+    private static int firstNotBefore(LocalDate[] maxToDates, LocalDate date) {
+        return binarySearch(maxToDates.length, i -> !maxToDates[i].isBefore(date));
+    }
+
+    /// Index of the first key starting after the given date
+    private static int firstStartAfter(ActivityDocKey[] actDocKeys, LocalDate date) {
+        return binarySearch(actDocKeys.length, i -> actDocKeys[i].fromDateIncl().isAfter(date));
+    }
+
+    /// Smallest index in {@code [0, length)} satisfying the monotonic predicate, or {@code length} if there is none
+    private static int binarySearch(int length, IntPredicate predicate) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (predicate.test(mid)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+}
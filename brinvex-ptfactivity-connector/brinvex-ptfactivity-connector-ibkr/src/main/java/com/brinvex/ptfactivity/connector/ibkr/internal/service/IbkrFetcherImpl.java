@@ -1,39 +1,93 @@
 package com.brinvex.ptfactivity.connector.ibkr.internal.service;
 
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFetcher;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFlexRequestScheduler;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
+import com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException;
 import com.brinvex.ptfactivity.core.api.exception.FetchException;
+import com.brinvex.ptfactivity.core.api.jfr.FetchAttemptEvent;
+import com.brinvex.ptfactivity.core.api.jfr.FetchSleepEvent;
 import com.brinvex.java.validation.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLSession;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofSeconds;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @SuppressWarnings("unused")
 public class IbkrFetcherImpl implements IbkrFetcher {
 
     private static final Logger LOG = LoggerFactory.getLogger(IbkrFetcherImpl.class);
 
+    private static final String PROVIDER_NAME = "ibkr";
+
+    public static final String DEFAULT_FLEX_BASE_URL = "https://www.interactivebrokers.com/Universal/servlet/FlexStatementService";
+
     private final HttpClient httpClient;
 
+    private final PipelineObserver observer;
+
+    private final String flexBaseUrl;
+
+    private final IbkrFlexRequestScheduler requestScheduler;
+
+    /// Generation time observed per flex query, used as the initial statement polling wait of the async fetch
+    private final ConcurrentMap<String, Duration> observedGenerationDurations = new ConcurrentHashMap<>();
+
     public IbkrFetcherImpl() {
+        this(PipelineObserver.NOOP);
+    }
+
+    public IbkrFetcherImpl(PipelineObserver observer) {
+        this(observer, DEFAULT_FLEX_BASE_URL);
+    }
+
+    public IbkrFetcherImpl(PipelineObserver observer, String flexBaseUrl) {
+        this(observer, flexBaseUrl, new IbkrFlexRequestSchedulerImpl(1, 10));
+    }
+
+    public IbkrFetcherImpl(PipelineObserver observer, String flexBaseUrl, IbkrFlexRequestScheduler requestScheduler) {
+        Validate.notNull(flexBaseUrl, () -> "flexBaseUrl cannot be null");
+        Validate.notNull(requestScheduler, () -> "requestScheduler cannot be null");
         this.httpClient = HttpClient.newBuilder()
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
+        this.observer = observer;
+        this.flexBaseUrl = flexBaseUrl;
+        this.requestScheduler = requestScheduler;
     }
 
     protected enum HttpRespStatus {
@@ -42,27 +96,51 @@ public class IbkrFetcherImpl implements IbkrFetcher {
         OTHER_ERROR
     }
 
+    @Override
+    public String fetchFlexStatement(
+            String token,
+            String flexQueryId,
+            int maxRepeatCount,
+            Duration estimatedRemoteInProgressDuration,
+            Instant deadline
+    ) {
+        return fetchFlexStatement(token, flexQueryId, maxRepeatCount, estimatedRemoteInProgressDuration, deadline,
+                content -> new String(content.readAllBytes(), UTF_8));
+    }
+
     @SuppressWarnings("DuplicatedCode")
     @Override
-    public String fetchFlexStatement(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressDuration) {
+    public <T> T fetchFlexStatement(
+            String token,
+            String flexQueryId,
+            int maxRepeatCount,
+            Duration estimatedRemoteInProgressDuration,
+            Instant deadline,
+            StatementReader<T> statementReader
+    ) {
         Validate.notNull(token, () -> "token cannot be null");
         Validate.notNull(flexQueryId, () -> "flexQueryId cannot be null");
+        Validate.notNull(statementReader, () -> "statementReader cannot be null");
 
         String referenceCode = null;
         String baseUrl2 = null;
 
         {
-            String urlTmpl1 = "https://www.interactivebrokers.com/Universal/servlet/FlexStatementService.SendRequest?t=%s&q=%s&v=3";
+            String urlTmpl1 = flexBaseUrl + ".SendRequest?t=%s&q=%s&v=3";
             String maskedUrl1 = urlTmpl1.formatted("TOKEN", flexQueryId);
             URI secretUrl1 = URI.create(urlTmpl1.formatted(token, flexQueryId));
 
             List<HttpResponse<String>> suppressedResponses = new ArrayList<>();
             for (int i = 1; i <= maxRepeatCount; i++) {
+                int attempt = i;
+                awaitRequestSlot(token, deadline, flexQueryId, i, () -> buildFailDetail(flexQueryId, maskedUrl1, attempt, maxRepeatCount, null, suppressedResponses));
                 HttpResponse<String> resp1;
                 try {
                     LOG.debug("fetchFlexStatement - i={}/{}, url1={}, estRemoteInProgressDuration={}",
                             i, maxRepeatCount, maskedUrl1, estimatedRemoteInProgressDuration);
-                    resp1 = httpClient.send(HttpRequest.newBuilder(secretUrl1).build(), BodyHandlers.ofString(UTF_8));
+                    resp1 = send(newRequest(secretUrl1, deadline), flexQueryId, "SendRequest", i);
+                } catch (HttpTimeoutException e) {
+                    throw new DeadlineExceededException(buildFailDetail(flexQueryId, maskedUrl1, i, maxRepeatCount, null, suppressedResponses), e);
                 } catch (IOException e) {
                     throw new FetchException(buildFailDetail(flexQueryId, maskedUrl1, i, maxRepeatCount, null, suppressedResponses), e);
                 } catch (InterruptedException e) {
@@ -77,7 +155,8 @@ public class IbkrFetcherImpl implements IbkrFetcher {
                     long afterErrorWaitSeconds = Math.max(estimatedRemoteInProgressDuration.getSeconds(), 2) * i;
                     String failDetail = buildFailDetail(flexQueryId, maskedUrl1, i, maxRepeatCount, resp1, suppressedResponses);
                     LOG.debug("Repeating preparation - {}, afterErrorWaitSeconds={}", failDetail, afterErrorWaitSeconds);
-                    sleep(ofSeconds(afterErrorWaitSeconds), () -> failDetail);
+                    observer.fetchRetried(PROVIDER_NAME, i);
+                    sleep(ofSeconds(afterErrorWaitSeconds), deadline, flexQueryId, i, () -> failDetail);
                     suppressedResponses.add(resp1);
                     continue;
                 } else if (httpRespStatus == HttpRespStatus.OTHER_ERROR || httpRespStatus == HttpRespStatus.REPEATABLE_ERROR) {
@@ -105,7 +184,7 @@ public class IbkrFetcherImpl implements IbkrFetcher {
             }
         }
 
-        sleep(estimatedRemoteInProgressDuration, () -> buildFailDetail(flexQueryId, null, 0, 0, null, null));
+        sleep(estimatedRemoteInProgressDuration, deadline, flexQueryId, 0, () -> buildFailDetail(flexQueryId, null, 0, 0, null, null));
 
         {
             String urlTmpl2 = baseUrl2 + "?q=%s&t=%s&v=3";
@@ -113,40 +192,388 @@ public class IbkrFetcherImpl implements IbkrFetcher {
             URI secretUrl2 = URI.create(urlTmpl2.formatted(referenceCode, token));
             List<HttpResponse<String>> suppressedResponses = new ArrayList<>();
             for (int i = 1; i <= maxRepeatCount; i++) {
-                HttpResponse<String> resp2;
+                int attempt = i;
+                awaitRequestSlot(token, deadline, flexQueryId, i, () -> buildFailDetail(flexQueryId, maskedUrl2, attempt, maxRepeatCount, null, suppressedResponses));
+                StatementResponse<T> statementResp2;
                 try {
                     LOG.debug("fetchFlexStatement - i={}/{}, url2={}, estRemoteInProgressDuration={}",
                             i, maxRepeatCount, maskedUrl2, estimatedRemoteInProgressDuration);
-                    resp2 = httpClient.send(HttpRequest.newBuilder(secretUrl2).build(), BodyHandlers.ofString(UTF_8));
-                } catch (IOException e) {
+                    HttpRequest request2 = newRequestBuilder(secretUrl2, deadline).header("Accept-Encoding", "gzip").build();
+                    statementResp2 = sendForStatement(request2, flexQueryId, i, statementReader);
+                } catch (HttpTimeoutException e) {
+                    throw new DeadlineExceededException(buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, null, suppressedResponses), e);
+                } catch (IOException | UncheckedIOException e) {
                     throw new FetchException(buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, null, suppressedResponses), e);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     throw new RuntimeException(e);
                 }
+                if (statementResp2.bufferedResponse() == null) {
+                    return statementResp2.statement();
+                }
+                HttpResponse<String> resp2 = statementResp2.bufferedResponse();
                 HttpRespStatus httpRespStatus = checkHttpResponse(resp2);
                 if (httpRespStatus == HttpRespStatus.REPEATABLE_ERROR && i < maxRepeatCount) {
                     long afterErrorWaitSeconds = Math.max(estimatedRemoteInProgressDuration.getSeconds(), 2) * i;
                     String failDetail = buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, resp2, suppressedResponses);
                     LOG.debug("Repeating download - {}, afterErrorWaitSeconds={}", failDetail, afterErrorWaitSeconds);
-                    sleep(ofSeconds(afterErrorWaitSeconds), () -> failDetail);
+                    observer.fetchRetried(PROVIDER_NAME, i);
+                    sleep(ofSeconds(afterErrorWaitSeconds), deadline, flexQueryId, i, () -> failDetail);
                     suppressedResponses.add(resp2);
                     continue;
                 } else if (httpRespStatus == HttpRespStatus.OTHER_ERROR || httpRespStatus == HttpRespStatus.REPEATABLE_ERROR) {
                     throw new FetchException(buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, resp2, suppressedResponses));
                 }
-                return resp2.body();
+                try {
+                    return statementReader.read(new ByteArrayInputStream(resp2.body().getBytes(UTF_8)));
+                } catch (IOException | UncheckedIOException e) {
+                    throw new FetchException(buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, resp2, suppressedResponses), e);
+                }
             }
         }
         throw new AssertionError("Unreachable");
     }
 
-    private void sleep(Duration duration, Supplier<String> exceptionDetail) {
+    @Override
+    public CompletableFuture<String> fetchFlexStatementAsync(
+            String token,
+            String flexQueryId,
+            int maxRepeatCount,
+            Duration estimatedRemoteInProgressDuration,
+            Instant deadline
+    ) {
+        Validate.notNull(token, () -> "token cannot be null");
+        Validate.notNull(flexQueryId, () -> "flexQueryId cannot be null");
+        AsyncFetch fetch = new AsyncFetch(token, flexQueryId, maxRepeatCount, estimatedRemoteInProgressDuration, deadline);
+        fetch.sendRequest(1);
+        return fetch.result;
+    }
+
+    /// One asynchronous fetch. Its steps are chained through the response callbacks and the scheduler,
+    /// one after another, so the mutable fields are never accessed concurrently.
+    private final class AsyncFetch {
+
+        private final String token;
+        private final String flexQueryId;
+        private final int maxRepeatCount;
+        private final Duration estimatedRemoteInProgressDuration;
+        private final Instant deadline;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private List<HttpResponse<String>> suppressedResponses = new ArrayList<>();
+        private String maskedUrl2;
+        private URI secretUrl2;
+        private long preparedOnNanos;
+        private Duration lastInProgressElapsed;
+
+        private AsyncFetch(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressDuration, Instant deadline) {
+            this.token = token;
+            this.flexQueryId = flexQueryId;
+            this.maxRepeatCount = maxRepeatCount;
+            this.estimatedRemoteInProgressDuration = estimatedRemoteInProgressDuration;
+            this.deadline = deadline;
+        }
+
+        private void sendRequest(int i) {
+            String urlTmpl1 = flexBaseUrl + ".SendRequest?t=%s&q=%s&v=3";
+            String maskedUrl1 = urlTmpl1.formatted("TOKEN", flexQueryId);
+            URI secretUrl1 = URI.create(urlTmpl1.formatted(token, flexQueryId));
+            LOG.debug("fetchFlexStatementAsync - i={}/{}, url1={}, estRemoteInProgressDuration={}",
+                    i, maxRepeatCount, maskedUrl1, estimatedRemoteInProgressDuration);
+            send(secretUrl1, maskedUrl1, "SendRequest", i, resp1 -> {
+                HttpRespStatus httpRespStatus = checkHttpResponse(resp1);
+                if (httpRespStatus == HttpRespStatus.REPEATABLE_ERROR && i < maxRepeatCount) {
+                    Duration afterErrorWait = ofSeconds(Math.max(estimatedRemoteInProgressDuration.getSeconds(), 2) * i);
+                    String failDetail = buildFailDetail(flexQueryId, maskedUrl1, i, maxRepeatCount, resp1, suppressedResponses);
+                    LOG.debug("Repeating preparation - {}, afterErrorWait={}", failDetail, afterErrorWait);
+                    observer.fetchRetried(PROVIDER_NAME, i);
+                    suppressedResponses.add(resp1);
+                    schedule(afterErrorWait, () -> failDetail, () -> sendRequest(i + 1));
+                    return;
+                } else if (httpRespStatus == HttpRespStatus.OTHER_ERROR || httpRespStatus == HttpRespStatus.REPEATABLE_ERROR) {
+                    throw new FetchException(buildFailDetail(flexQueryId, maskedUrl1, i, maxRepeatCount, resp1, suppressedResponses));
+                }
+
+                String respBody1 = resp1.body();
+                Matcher m1 = Lazy.HTTP_RESP1_STATUS_PATTERN.matcher(respBody1);
+                Matcher m2 = Lazy.HTTP_RESP1_REFERENCE_CODE_PATTERN.matcher(respBody1);
+                Matcher m3 = Lazy.HTTP_RESP1_URL_PATTERN.matcher(respBody1);
+                if (!m1.find() || !"Success".equals(m1.group(1)) || !m2.find() || !m3.find()) {
+                    throw new FetchException(buildFailDetail(flexQueryId, maskedUrl1, i, maxRepeatCount, resp1, suppressedResponses));
+                }
+                String referenceCode = m2.group(1);
+                String urlTmpl2 = m3.group(1) + "?q=%s&t=%s&v=3";
+                maskedUrl2 = urlTmpl2.formatted(referenceCode, "TOKEN");
+                secretUrl2 = URI.create(urlTmpl2.formatted(referenceCode, token));
+                suppressedResponses = new ArrayList<>();
+                preparedOnNanos = System.nanoTime();
+
+                Duration initialWait = observedGenerationDurations.getOrDefault(flexQueryId, estimatedRemoteInProgressDuration);
+                schedule(initialWait, () -> buildFailDetail(flexQueryId, maskedUrl2, 0, maxRepeatCount, null, null), () -> getStatement(1));
+            });
+        }
+
+        private void getStatement(int i) {
+            LOG.debug("fetchFlexStatementAsync - i={}/{}, url2={}, estRemoteInProgressDuration={}",
+                    i, maxRepeatCount, maskedUrl2, estimatedRemoteInProgressDuration);
+            send(secretUrl2, maskedUrl2, "GetStatement", i, resp2 -> {
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - preparedOnNanos);
+                HttpRespStatus httpRespStatus = checkHttpResponse(resp2);
+                if (httpRespStatus == HttpRespStatus.REPEATABLE_ERROR && i < maxRepeatCount) {
+                    Duration afterErrorWait;
+                    if (isGenerationInProgress(resp2)) {
+                        // Wait as long as the generation has already taken, i.e. double the elapsed time on each poll
+                        lastInProgressElapsed = elapsed;
+                        afterErrorWait = elapsed.compareTo(Lazy.MIN_POLL_WAIT) < 0 ? Lazy.MIN_POLL_WAIT : elapsed;
+                    } else {
+                        afterErrorWait = ofSeconds(Math.max(estimatedRemoteInProgressDuration.getSeconds(), 2) * i);
+                    }
+                    String failDetail = buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, resp2, suppressedResponses);
+                    LOG.debug("Repeating download - {}, afterErrorWait={}", failDetail, afterErrorWait);
+                    observer.fetchRetried(PROVIDER_NAME, i);
+                    suppressedResponses.add(resp2);
+                    schedule(afterErrorWait, () -> failDetail, () -> getStatement(i + 1));
+                    return;
+                } else if (httpRespStatus == HttpRespStatus.OTHER_ERROR || httpRespStatus == HttpRespStatus.REPEATABLE_ERROR) {
+                    throw new FetchException(buildFailDetail(flexQueryId, maskedUrl2, i, maxRepeatCount, resp2, suppressedResponses));
+                }
+                observeGenerationDuration(elapsed);
+                result.complete(resp2.body());
+            });
+        }
+
+        /// The generation finished somewhere between the last "in progress" response and now.
+        /// Without such a response it may have finished well before, so a shorter time is assumed
+        /// to let the estimate decrease again.
+        private void observeGenerationDuration(Duration elapsed) {
+            Duration observed = lastInProgressElapsed == null
+                    ? elapsed.multipliedBy(3).dividedBy(4)
+                    : lastInProgressElapsed.plus(elapsed).dividedBy(2);
+            observedGenerationDurations.merge(flexQueryId, observed, (oldEstimate, _) -> oldEstimate.plus(observed).dividedBy(2));
+        }
+
+        private void send(URI uri, String maskedUrl, String step, int i, Consumer<HttpResponse<String>> responseHandler) {
+            Duration slotWait = requestScheduler.reserve(token, deadline);
+            if (slotWait == null) {
+                result.completeExceptionally(new DeadlineExceededException("Deadline would be exceeded while waiting for a request slot - deadline=%s, %s"
+                        .formatted(deadline, buildFailDetail(flexQueryId, maskedUrl, i, maxRepeatCount, null, suppressedResponses))));
+            } else if (slotWait.isPositive()) {
+                Lazy.SCHEDULER.schedule(() -> sendNow(uri, maskedUrl, step, i, responseHandler), slotWait.toNanos(), NANOSECONDS);
+            } else {
+                sendNow(uri, maskedUrl, step, i, responseHandler);
+            }
+        }
+
+        private void sendNow(URI uri, String maskedUrl, String step, int i, Consumer<HttpResponse<String>> responseHandler) {
+            HttpRequest request;
+            try {
+                request = newRequest(uri, deadline);
+            } catch (DeadlineExceededException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            FetchAttemptEvent event = new FetchAttemptEvent();
+            event.begin();
+            httpClient.sendAsync(request, BodyHandlers.ofString(UTF_8)).whenComplete((resp, e) -> {
+                commitAttemptEvent(event, flexQueryId, step, i, resp);
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    String failDetail = buildFailDetail(flexQueryId, maskedUrl, i, maxRepeatCount, null, suppressedResponses);
+                    result.completeExceptionally(cause instanceof HttpTimeoutException
+                            ? new DeadlineExceededException(failDetail, cause)
+                            : new FetchException(failDetail, cause));
+                    return;
+                }
+                try {
+                    responseHandler.accept(resp);
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+
+        private void schedule(Duration wait, Supplier<String> exceptionDetail, Runnable nextStep) {
+            if (deadline != null && Instant.now().plus(wait).isAfter(deadline)) {
+                result.completeExceptionally(new DeadlineExceededException("Deadline would be exceeded while waiting %s - deadline=%s, %s"
+                        .formatted(wait, deadline, exceptionDetail.get())));
+                return;
+            }
+            Lazy.SCHEDULER.schedule(() -> {
+                // Nothing more to do if the caller has cancelled the future in the meantime
+                if (!result.isDone()) {
+                    nextStep.run();
+                }
+            }, wait.toNanos(), NANOSECONDS);
+        }
+    }
+
+    private boolean isGenerationInProgress(HttpResponse<String> resp) {
+        Matcher m = Lazy.HTTP_RESP2_ERROR_CODE.matcher(resp.body());
+        return m.find() && "1019".equals(m.group(1));
+    }
+
+    /// Waits for the next request slot of the token, so that no request is rejected with error 1018
+    private void awaitRequestSlot(String token, Instant deadline, String flexQueryId, int attempt, Supplier<String> exceptionDetail) {
+        Duration slotWait = requestScheduler.reserve(token, deadline);
+        if (slotWait == null) {
+            throw new DeadlineExceededException("Deadline would be exceeded while waiting for a request slot - deadline=%s, %s"
+                    .formatted(deadline, exceptionDetail.get()));
+        }
+        if (slotWait.isPositive()) {
+            sleep(slotWait, deadline, flexQueryId, attempt, exceptionDetail);
+        }
+    }
+
+    private HttpRequest newRequest(URI uri, Instant deadline) {
+        return newRequestBuilder(uri, deadline).build();
+    }
+
+    private HttpRequest.Builder newRequestBuilder(URI uri, Instant deadline) {
+        HttpRequest.Builder reqBuilder = HttpRequest.newBuilder(uri);
+        if (deadline != null) {
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (remaining.isNegative() || remaining.isZero()) {
+                throw new DeadlineExceededException("Deadline exceeded before sending request - deadline=%s".formatted(deadline));
+            }
+            reqBuilder.timeout(remaining);
+        }
+        return reqBuilder;
+    }
+
+    private HttpResponse<String> send(HttpRequest request, String flexQueryId, String step, int attempt) throws IOException, InterruptedException {
+        FetchAttemptEvent event = new FetchAttemptEvent();
+        event.begin();
+        HttpResponse<String> resp = null;
+        try {
+            resp = httpClient.send(request, BodyHandlers.ofString(UTF_8));
+            return resp;
+        } finally {
+            commitAttemptEvent(event, flexQueryId, step, attempt, resp);
+        }
+    }
+
+    /// Statement responses with an error are small, they are recognized by the status code or by an error code in the body head
+    /// and buffered like the other responses. Otherwise the statement, requested with gzip transfer encoding,
+    /// is decompressed on the fly and handed to the reader as a stream.
+    private <T> StatementResponse<T> sendForStatement(
+            HttpRequest request,
+            String flexQueryId,
+            int attempt,
+            StatementReader<T> statementReader
+    ) throws IOException, InterruptedException {
+        FetchAttemptEvent event = new FetchAttemptEvent();
+        event.begin();
+        HttpResponse<InputStream> resp = null;
+        HttpResponse<String> bufferedResp = null;
+        try {
+            resp = httpClient.send(request, BodyHandlers.ofInputStream());
+            InputStream rawBody = resp.body();
+            boolean gzipped = resp.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent();
+            try (InputStream body = new BufferedInputStream(gzipped ? new GZIPInputStream(rawBody) : rawBody, Lazy.STATEMENT_BUFFER_SIZE)) {
+                body.mark(Lazy.STATEMENT_HEAD_SIZE);
+                String head = new String(body.readNBytes(Lazy.STATEMENT_HEAD_SIZE), UTF_8);
+                body.reset();
+                if (resp.statusCode() != 200 || head.contains("<ErrorCode>")) {
+                    bufferedResp = new BufferedResponse(resp, new String(body.readAllBytes(), UTF_8));
+                    return new StatementResponse<>(bufferedResp, null);
+                }
+                return new StatementResponse<>(null, statementReader.read(body));
+            }
+        } finally {
+            if (bufferedResp != null || resp == null) {
+                commitAttemptEvent(event, flexQueryId, "GetStatement", attempt, bufferedResp);
+            } else {
+                commitAttemptEvent(event, flexQueryId, "GetStatement", attempt, resp.statusCode(), null,
+                        resp.headers().firstValueAsLong("Content-Length").orElse(0));
+            }
+        }
+    }
+
+    private void commitAttemptEvent(FetchAttemptEvent event, String flexQueryId, String step, int attempt, HttpResponse<String> resp) {
+        commitAttemptEvent(event, flexQueryId, step, attempt, resp == null ? 0 : resp.statusCode(), resp == null ? null : resp.body(), 0);
+    }
+
+    /// @param byteSize used only if the body is not available
+    private void commitAttemptEvent(FetchAttemptEvent event, String flexQueryId, String step, int attempt, int httpStatus, String body, long byteSize) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.providerName = PROVIDER_NAME;
+            event.queryId = flexQueryId;
+            event.step = step;
+            event.attempt = attempt;
+            event.httpStatus = httpStatus;
+            if (body != null) {
+                Matcher m = Lazy.HTTP_RESP2_ERROR_CODE.matcher(body);
+                event.errorCode = m.find() ? m.group(1) : null;
+                event.byteSize = body.length();
+            } else {
+                event.byteSize = byteSize;
+            }
+            event.commit();
+        }
+    }
+
+    private record StatementResponse<T>(HttpResponse<String> bufferedResponse, T statement) {
+    }
+
+    /// Response whose streamed body has been read into a String
+    private record BufferedResponse(HttpResponse<InputStream> response, String body) implements HttpResponse<String> {
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public HttpRequest request() {
+            return response.request();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return response.headers();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return response.sslSession();
+        }
+
+        @Override
+        public URI uri() {
+            return response.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return response.version();
+        }
+    }
+
+    private void sleep(Duration duration, Instant deadline, String flexQueryId, int attempt, Supplier<String> exceptionDetail) {
+        if (deadline != null && Instant.now().plus(duration).isAfter(deadline)) {
+            throw new DeadlineExceededException("Deadline would be exceeded while waiting %s - deadline=%s, %s"
+                    .formatted(duration, deadline, exceptionDetail.get()));
+        }
+        FetchSleepEvent event = new FetchSleepEvent();
+        event.begin();
         try {
             Thread.sleep(duration);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(exceptionDetail.get(), e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.providerName = PROVIDER_NAME;
+                event.queryId = flexQueryId;
+                event.attempt = attempt;
+                event.commit();
+            }
         }
     }
 
@@ -227,6 +654,12 @@ public class IbkrFetcherImpl implements IbkrFetcher {
         private static final Pattern HTTP_RESP1_REFERENCE_CODE_PATTERN = Pattern.compile("<ReferenceCode>(.*)</ReferenceCode>");
         private static final Pattern HTTP_RESP1_URL_PATTERN = Pattern.compile("<Url>(.*)</Url>");
         private static final Pattern HTTP_RESP2_ERROR_CODE = Pattern.compile("<ErrorCode>(.+)</ErrorCode>");
+        private static final Duration MIN_POLL_WAIT = ofMillis(250);
+        private static final int STATEMENT_HEAD_SIZE = 4 * 1024;
+        private static final int STATEMENT_BUFFER_SIZE = 64 * 1024;
+        /// Only starts the next steps, the requests themselves are sent asynchronously by the HTTP client
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ibkr-fetch-scheduler").daemon().factory());
     }
 
 }
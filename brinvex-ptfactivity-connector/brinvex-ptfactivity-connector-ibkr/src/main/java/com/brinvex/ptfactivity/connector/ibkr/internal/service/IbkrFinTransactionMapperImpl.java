@@ -21,16 +21,16 @@ import com.brinvex.java.validation.Assert;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.SequencedMap;
-import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CashTransactionType.DEPOSITS_WITHDRAWALS;
@@ -44,32 +44,46 @@ import static com.brinvex.java.StringUtil.stripToNull;
 import static java.math.BigDecimal.ZERO;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNullElse;
-import static java.util.stream.Collectors.groupingBy;
 
 @SuppressWarnings({"DuplicatedCode", "unused"})
 public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
 
     private static final DateTimeFormatter idDf = DateTimeFormatter.ofPattern("yyyyMMdd");
 
+    private static final Comparator<CashTransaction> cashTranOrder =
+            comparing(CashTransaction::reportDate).thenComparing(CashTransaction::transactionID);
+
+    /// Cash transactions of the same corporate action, e.g. a dividend and its withholding tax
+    private record ActionKey(LocalDate reportDate, String actionID) {
+    }
+
+    /// Withholding taxes of one {@link ActionKey}, {@code paired} once a dividend took the tax into its net value
+    private static final class ActionTaxes {
+        private final List<CashTransaction> taxTrans = new ArrayList<>(1);
+        private boolean paired;
+    }
+
     @Override
     public List<FinTransaction> mapCashTransactions(List<CashTransaction> cashTrans) {
 
-        cashTrans = cashTrans.stream()
-                .sorted(comparing(CashTransaction::reportDate).thenComparing(CashTransaction::transactionID))
-                .toList();
+        List<CashTransaction> sortedCashTrans = new ArrayList<>(cashTrans);
+        sortedCashTrans.sort(cashTranOrder);
 
-        Function<CashTransaction, String> reportDateAndActionIdConcat = ct -> "%s/%s".formatted(ct.reportDate(), ct.actionID());
-        Map<String, List<CashTransaction>> cashTransByReportDateAndActionId = cashTrans
-                .stream()
-                .collect(groupingBy(reportDateAndActionIdConcat));
+        // Only the withholding taxes are looked up, so only they are grouped
+        Map<ActionKey, ActionTaxes> taxesByAction = new HashMap<>();
+        for (CashTransaction cashTran : sortedCashTrans) {
+            if (cashTran.type() == WITHHOLDING_TAX) {
+                taxesByAction.computeIfAbsent(new ActionKey(cashTran.reportDate(), cashTran.actionID()), _ -> new ActionTaxes())
+                        .taxTrans.add(cashTran);
+            }
+        }
 
-        SequencedMap<String, FinTransaction> resultTrans = new LinkedHashMap<>();
-        Set<CashTransaction> cashTransToSkip = new HashSet<>();
-        for (CashTransaction cashTran : cashTrans) {
-            if (cashTransToSkip.contains(cashTran)) {
+        SequencedMap<String, FinTransaction> resultTrans = LinkedHashMap.newLinkedHashMap(sortedCashTrans.size());
+        for (CashTransaction cashTran : sortedCashTrans) {
+            CashTransactionType cashTranType = cashTran.type();
+            if (cashTranType == WITHHOLDING_TAX && taxesByAction.get(new ActionKey(cashTran.reportDate(), cashTran.actionID())).paired) {
                 continue;
             }
-            CashTransactionType cashTranType = cashTran.type();
             BigDecimal amount = cashTran.amount();
 
             FinTransactionBuilder finTranBldr = switch (cashTranType) {
@@ -82,12 +96,9 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
                         .tax(ZERO)
                         .fee(ZERO);
                 case DIVIDENDS, PAYMENT_IN_LIEU_OF_DIVIDENDS -> {
-                    String reportDateAndActionId = reportDateAndActionIdConcat.apply(cashTran);
-                    List<CashTransaction> dividTaxTrans = cashTransByReportDateAndActionId.get(reportDateAndActionId)
-                            .stream()
-                            .filter(t -> t != cashTran)
-                            .filter(t -> t.type().equals(WITHHOLDING_TAX))
-                            .toList();
+                    ActionKey actionKey = new ActionKey(cashTran.reportDate(), cashTran.actionID());
+                    ActionTaxes actionTaxes = taxesByAction.get(actionKey);
+                    List<CashTransaction> dividTaxTrans = actionTaxes == null ? List.of() : actionTaxes.taxTrans;
 
                     BigDecimal netValue;
                     BigDecimal tax;
@@ -101,12 +112,12 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
                             tax = dividTaxTran.amount();
                             netValue = amount.add(tax);
                             Assert.negative(tax);
-                            cashTransToSkip.add(dividTaxTran);
+                            actionTaxes.paired = true;
                         }
                         default -> throw new IllegalStateException(
                                 "Found more than one dividendTaxTransaction related to the same dividendTransaction: " +
-                                "reportDateAndActionId=%s, dividTran=%s, dividTaxTran=%s"
-                                        .formatted(reportDateAndActionId, cashTran, dividTaxTrans));
+                                "reportDateAndActionId=%s/%s, dividTran=%s, dividTaxTran=%s"
+                                        .formatted(actionKey.reportDate(), actionKey.actionID(), cashTran, dividTaxTrans));
                     }
 
                     String extraTranType = switch (cashTranType) {
@@ -126,7 +137,7 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
                             .externalType(extraTranType)
                             .asset(Asset.builder()
                                     .type(toAssetType(cashTran.assetCategory(), cashTran.assetSubCategory()))
-                                    .extraType("%s/%s".formatted(cashTran.assetCategory(), cashTran.assetSubCategory()))
+                                    .extraType(cashTran.assetCategory() + "/" + cashTran.assetSubCategory())
                                     .country(detectCountryByExchange(cashTran.listingExchange()))
                                     .symbol(stripToNull(cashTran.symbol()))
                                     .countryFigi(stripToNull(cashTran.figi()))
@@ -145,7 +156,7 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
                             .externalType(WITHHOLDING_TAX.name())
                             .asset(Asset.builder()
                                     .type(toAssetType(cashTran.assetCategory(), cashTran.assetSubCategory()))
-                                    .extraType("%s/%s".formatted(cashTran.assetCategory(), cashTran.assetSubCategory()))
+                                    .extraType(cashTran.assetCategory() + "/" + cashTran.assetSubCategory())
                                     .country(detectCountryByExchange(cashTran.listingExchange()))
                                     .symbol(stripToNull(cashTran.symbol()))
                                     .countryFigi(stripToNull(cashTran.figi()))
@@ -267,7 +278,7 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
                                 .externalType(trade.transactionType().name())
                                 .asset(Asset.builder()
                                         .type(toAssetType(trade.assetCategory(), trade.assetSubCategory()))
-                                        .extraType("%s/%s".formatted(trade.assetCategory(), trade.assetSubCategory()))
+                                        .extraType(trade.assetCategory() + "/" + trade.assetSubCategory())
                                         .country(detectCountryByExchange(trade.listingExchange()))
                                         .symbol(stripToNull(trade.symbol()))
                                         .countryFigi(stripToNull(trade.figi()))
@@ -375,7 +386,7 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
         for (CorporateAction corpAction : corpActions) {
             Asset asset = Asset.builder()
                     .type(toAssetType(corpAction.assetCategory(), corpAction.assetSubCategory()))
-                    .extraType("%s/%s".formatted(corpAction.assetCategory(), corpAction.assetSubCategory()))
+                    .extraType(corpAction.assetCategory() + "/" + corpAction.assetSubCategory())
                     .country(corpAction.issuerCountryCode())
                     .symbol(stripToNull(corpAction.symbol()))
                     .isin(stripToNull(corpAction.isin()))
@@ -444,23 +455,15 @@ public class IbkrFinTransactionMapperImpl implements IbkrFinTransactionMapper {
     }
 
     private String getId(CashTransaction cashTran) {
-        return "CT/%s/%s".formatted(
-                cashTran.reportDate().format(idDf),
-                cashTran.transactionID()
-        );
+        return "CT/" + idDf.format(cashTran.reportDate()) + "/" + cashTran.transactionID();
     }
 
     private String getId(CorporateAction corpAction) {
-        return "CA/%s/%s".formatted(
-                corpAction.reportDate().format(idDf),
-                corpAction.actionID()
-        );
+        return "CA/" + idDf.format(corpAction.reportDate()) + "/" + corpAction.actionID();
     }
 
     private String getId(Trade trade) {
-        return "T/%s/%s/%s".formatted(
-                trade.reportDate().format(idDf), trade.tradeID(), trade.ibOrderID()
-        );
+        return "T/" + idDf.format(trade.reportDate()) + "/" + trade.tradeID() + "/" + trade.ibOrderID();
     }
 
     public AssetType toAssetType(AssetCategory assetCategory, AssetSubCategory assetSubCategory) {
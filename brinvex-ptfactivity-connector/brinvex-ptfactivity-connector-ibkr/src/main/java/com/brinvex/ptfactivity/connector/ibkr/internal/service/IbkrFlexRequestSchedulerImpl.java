@@ -0,0 +1,108 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFlexRequestScheduler;
+import com.brinvex.java.validation.Validate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+
+/// Remembers the start times of the most recently reserved slots of each token.
+/// A new slot starts as soon as every limit window, counted back from it, holds fewer than the allowed number of requests.
+/// This is a token bucket with a capacity of one request per window limit, refilled exactly when the oldest slot leaves the window.
+public class IbkrFlexRequestSchedulerImpl implements IbkrFlexRequestScheduler {
+
+    private record Window(long lengthNanos, int maxRequests) {
+    }
+
+    /// Start times of the recently reserved slots of one token in a ring buffer, in ascending order
+    private static final class TokenSlots {
+        private final long[] slotNanos;
+        private int size;
+        private int next;
+
+        private TokenSlots(int capacity) {
+            this.slotNanos = new long[capacity];
+        }
+
+        private long earliestSlot(long nowNanos, List<Window> windows) {
+            long earliest = nowNanos;
+            for (Window window : windows) {
+                if (size >= window.maxRequests()) {
+                    long oldestInWindow = slotNanos[Math.floorMod(next - window.maxRequests(), slotNanos.length)];
+                    earliest = Math.max(earliest, oldestInWindow + window.lengthNanos());
+                }
+            }
+            return earliest;
+        }
+
+        private void add(long slot) {
+            slotNanos[next] = slot;
+            next = (next + 1) % slotNanos.length;
+            size = Math.min(size + 1, slotNanos.length);
+        }
+    }
+
+    /// The limits are enforced by IBKR when a request arrives, so the windows are stretched to cover the latency jitter
+    private static final Duration SAFETY_MARGIN = ofMillis(100);
+
+    private final List<Window> windows;
+
+    private final int historySize;
+
+    private final ConcurrentMap<String, TokenSlots> tokenSlots = new ConcurrentHashMap<>();
+
+    /// A non-positive limit is not enforced
+    public IbkrFlexRequestSchedulerImpl(int maxRequestsPerSecond, int maxRequestsPerMinute) {
+        List<Window> windows = new ArrayList<>(2);
+        if (maxRequestsPerSecond > 0) {
+            windows.add(new Window(ofSeconds(1).plus(SAFETY_MARGIN).toNanos(), maxRequestsPerSecond));
+        }
+        if (maxRequestsPerMinute > 0) {
+            windows.add(new Window(ofMinutes(1).plus(SAFETY_MARGIN).toNanos(), maxRequestsPerMinute));
+        }
+        this.windows = List.copyOf(windows);
+        this.historySize = windows.stream().mapToInt(Window::maxRequests).max().orElse(0);
+    }
+
+    @Override
+    public Duration expectedWait(String token) {
+        Validate.notNull(token, () -> "token cannot be null");
+        if (historySize == 0) {
+            return Duration.ZERO;
+        }
+        TokenSlots slots = tokenSlots.get(token);
+        if (slots == null) {
+            return Duration.ZERO;
+        }
+        synchronized (slots) {
+            long nowNanos = System.nanoTime();
+            return Duration.ofNanos(slots.earliestSlot(nowNanos, windows) - nowNanos);
+        }
+    }
+
+    @Override
+    public Duration reserve(String token, Instant deadline) {
+        Validate.notNull(token, () -> "token cannot be null");
+        if (historySize == 0) {
+            return Duration.ZERO;
+        }
+        TokenSlots slots = tokenSlots.computeIfAbsent(token, _ -> new TokenSlots(historySize));
+        synchronized (slots) {
+            long nowNanos = System.nanoTime();
+            Duration wait = Duration.ofNanos(slots.earliestSlot(nowNanos, windows) - nowNanos);
+            if (deadline != null && Instant.now().plus(wait).isAfter(deadline)) {
+                return null;
+            }
+            slots.add(nowNanos + wait.toNanos());
+            return wait;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CashTransaction;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CorporateAction;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.EquitySummary;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatementType;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.Trade;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/// Serializes an {@link ActivityStatement} back to the Flex XML format read by {@link IbkrStatementParserImpl}.
+/// Only the attributes known to the parser are written, each element on its own line,
+/// so the `whenGenerated` attribute stays on the third line as expected by
+/// {@link IbkrStatementParserImpl#parseStatementCreatedOn(java.util.List)}.
+final class IbkrFlexStatementWriter {
+
+    String writeActivityStatement(ActivityStatement statement) {
+        return writeActivityStatement(statement, null);
+    }
+
+    /// Writes the statement with the keys of the statements it was merged from,
+    /// listed in a `SnapshotSources` element in front of the records, which the parser skips.
+    String writeActivitySnapshot(ActivityStatement statement, List<ActivityDocKey> sources) {
+        return writeActivityStatement(statement, sources);
+    }
+
+    private String writeActivityStatement(ActivityStatement statement, List<ActivityDocKey> sources) {
+        StringWriter out = new StringWriter(1024 + statement.trades().size() * 1024 + statement.cashTransactions().size() * 512);
+        try {
+            XMLStreamWriter w = Lazy.xmlOutputFactory.createXMLStreamWriter(out);
+            try {
+                w.writeStartElement("FlexQueryResponse");
+                w.writeAttribute("queryName", "Consolidated");
+                w.writeAttribute("type", FlexStatementType.ACT.value());
+                newLine(w);
+                w.writeStartElement("FlexStatements");
+                w.writeAttribute("count", "1");
+                newLine(w);
+                w.writeStartElement("FlexStatement");
+                w.writeAttribute("accountId", statement.accountId());
+                w.writeAttribute("fromDate", format(statement.fromDate()));
+                w.writeAttribute("toDate", format(statement.toDate()));
+                w.writeAttribute("period", "Custom");
+                w.writeAttribute("whenGenerated", format(statement.whenGenerated()));
+                newLine(w);
+
+                if (sources != null) {
+                    w.writeStartElement("SnapshotSources");
+                    newLine(w);
+                    for (ActivityDocKey source : sources) {
+                        w.writeEmptyElement("SnapshotSource");
+                        w.writeAttribute("fromDate", format(source.fromDateIncl()));
+                        w.writeAttribute("toDate", format(source.toDateIncl()));
+                        newLine(w);
+                    }
+                    w.writeEndElement();
+                    newLine(w);
+                }
+
+                w.writeStartElement("EquitySummaryInBase");
+                newLine(w);
+                for (EquitySummary es : statement.equitySummaries()) {
+                    w.writeEmptyElement("EquitySummaryByReportDateInBase");
+                    w.writeAttribute("currency", str(es.currency()));
+                    w.writeAttribute("reportDate", format(es.reportDate()));
+                    w.writeAttribute("cash", str(es.cash()));
+                    w.writeAttribute("stock", str(es.stock()));
+                    w.writeAttribute("dividendAccruals", str(es.dividendAccruals()));
+                    w.writeAttribute("interestAccruals", str(es.interestAccruals()));
+                    w.writeAttribute("total", str(es.total()));
+                    newLine(w);
+                }
+                w.writeEndElement();
+                newLine(w);
+
+                w.writeStartElement("CashTransactions");
+                newLine(w);
+                for (CashTransaction c : statement.cashTransactions()) {
+                    w.writeEmptyElement("CashTransaction");
+                    w.writeAttribute("currency", str(c.currency()));
+                    w.writeAttribute("fxRateToBase", str(c.fxRateToBase()));
+                    w.writeAttribute("description", str(c.description()));
+                    w.writeAttribute("symbol", str(c.symbol()));
+                    w.writeAttribute("listingExchange", str(c.listingExchange()));
+                    w.writeAttribute("assetCategory", c.assetCategory() == null ? "" : c.assetCategory().value());
+                    w.writeAttribute("subCategory", c.assetSubCategory() == null ? "" : c.assetSubCategory().value());
+                    w.writeAttribute("figi", str(c.figi()));
+                    w.writeAttribute("isin", str(c.isin()));
+                    w.writeAttribute("securityID", str(c.securityID()));
+                    w.writeAttribute("securityIDType", c.securityIDType() == null ? "" : c.securityIDType().value());
+                    w.writeAttribute("dateTime", str(c.extraDateTimeStr()));
+                    w.writeAttribute("settleDate", format(c.settleDate()));
+                    w.writeAttribute("amount", str(c.amount()));
+                    w.writeAttribute("type", c.type() == null ? "" : c.type().value());
+                    w.writeAttribute("transactionID", str(c.transactionID()));
+                    w.writeAttribute("reportDate", format(c.reportDate()));
+                    w.writeAttribute("actionID", str(c.actionID()));
+                    newLine(w);
+                }
+                w.writeEndElement();
+                newLine(w);
+
+                w.writeStartElement("Trades");
+                newLine(w);
+                for (Trade t : statement.trades()) {
+                    w.writeEmptyElement("Trade");
+                    w.writeAttribute("currency", str(t.currency()));
+                    w.writeAttribute("assetCategory", t.assetCategory() == null ? "" : t.assetCategory().value());
+                    w.writeAttribute("subCategory", t.assetSubCategory() == null ? "" : t.assetSubCategory().value());
+                    w.writeAttribute("symbol", str(t.symbol()));
+                    w.writeAttribute("description", str(t.description()));
+                    w.writeAttribute("securityID", str(t.securityID()));
+                    w.writeAttribute("securityIDType", t.securityIDType() == null ? "" : t.securityIDType().value());
+                    w.writeAttribute("figi", str(t.figi()));
+                    w.writeAttribute("isin", str(t.isin()));
+                    w.writeAttribute("listingExchange", str(t.listingExchange()));
+                    w.writeAttribute("tradeID", str(t.tradeID()));
+                    w.writeAttribute("reportDate", format(t.reportDate()));
+                    w.writeAttribute("dateTime", str(t.extraDateTimeStr()));
+                    w.writeAttribute("tradeDate", format(t.tradeDate()));
+                    w.writeAttribute("settleDateTarget", format(t.settleDateTarget()));
+                    w.writeAttribute("transactionType", t.transactionType() == null ? "" : t.transactionType().value());
+                    w.writeAttribute("exchange", str(t.exchange()));
+                    w.writeAttribute("quantity", str(t.quantity()));
+                    w.writeAttribute("tradePrice", str(t.tradePrice()));
+                    w.writeAttribute("tradeMoney", str(t.tradeMoney()));
+                    w.writeAttribute("proceeds", str(t.proceeds()));
+                    w.writeAttribute("taxes", str(t.taxes()));
+                    w.writeAttribute("ibCommission", str(t.ibCommission()));
+                    w.writeAttribute("ibCommissionCurrency", str(t.ibCommissionCurrency()));
+                    w.writeAttribute("netCash", str(t.netCash()));
+                    w.writeAttribute("cost", str(t.cost()));
+                    w.writeAttribute("buySell", t.buySell() == null ? "" : t.buySell().value());
+                    w.writeAttribute("transactionID", str(t.transactionID()));
+                    w.writeAttribute("ibOrderID", str(t.ibOrderID()));
+                    w.writeAttribute("orderTime", format(t.orderTime()));
+                    newLine(w);
+                }
+                w.writeEndElement();
+                newLine(w);
+
+                w.writeStartElement("CorporateActions");
+                newLine(w);
+                for (CorporateAction ca : statement.corporateActions()) {
+                    w.writeEmptyElement("CorporateAction");
+                    w.writeAttribute("currency", str(ca.currency()));
+                    w.writeAttribute("assetCategory", ca.assetCategory() == null ? "" : ca.assetCategory().value());
+                    w.writeAttribute("subCategory", ca.assetSubCategory() == null ? "" : ca.assetSubCategory().value());
+                    w.writeAttribute("symbol", str(ca.symbol()));
+                    w.writeAttribute("description", str(ca.description()));
+                    w.writeAttribute("securityID", str(ca.securityID()));
+                    w.writeAttribute("securityIDType", ca.securityIDType() == null ? "" : ca.securityIDType().value());
+                    w.writeAttribute("figi", str(ca.figi()));
+                    w.writeAttribute("isin", str(ca.isin()));
+                    w.writeAttribute("listingExchange", str(ca.listingExchange()));
+                    w.writeAttribute("issuerCountryCode", str(ca.issuerCountryCode()));
+                    w.writeAttribute("reportDate", format(ca.reportDate()));
+                    w.writeAttribute("dateTime", str(ca.extraDateTimeStr()));
+                    w.writeAttribute("type", ca.type() == null ? "" : ca.type().value());
+                    w.writeAttribute("quantity", str(ca.quantity()));
+                    w.writeAttribute("amount", str(ca.amount()));
+                    w.writeAttribute("proceeds", str(ca.proceeds()));
+                    w.writeAttribute("value", str(ca.value()));
+                    w.writeAttribute("transactionID", str(ca.transactionId()));
+                    w.writeAttribute("actionID", str(ca.actionID()));
+                    newLine(w);
+                }
+                w.writeEndElement();
+                newLine(w);
+
+                w.writeEndElement();
+                newLine(w);
+                w.writeEndElement();
+                newLine(w);
+                w.writeEndElement();
+                newLine(w);
+            } finally {
+                w.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to write ActivityStatement: %s, %s-%s"
+                    .formatted(statement.accountId(), statement.fromDate(), statement.toDate()), e);
+        }
+        return out.toString();
+    }
+
+    private static void newLine(XMLStreamWriter w) throws XMLStreamException {
+        w.writeCharacters("\n");
+    }
+
+    private static String format(LocalDate date) {
+        return date == null ? "" : Lazy.ibkrDf.format(date);
+    }
+
+    private static String format(ZonedDateTime dateTime) {
+        return dateTime == null ? "" : Lazy.ibkrDtf.format(dateTime);
+    }
+
+    private static String str(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    private static String str(Enum<?> value) {
+        return value == null ? "" : value.name();
+    }
+
+    private static String str(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class Lazy {
+        private static final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+        private static final DateTimeFormatter ibkrDf = DateTimeFormatter.ofPattern("yyyyMMdd");
+        private static final DateTimeFormatter ibkrDtf = DateTimeFormatter.ofPattern("yyyyMMdd;HHmmss z");
+    }
+}
@@ -0,0 +1,126 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.TradeConfirmDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.TradeConfirmStatement;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.TradeConfirm;
+import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static java.util.Comparator.comparing;
+
+/// Incremental mapping of the trade confirms of the current day.
+///
+/// The current day of each account is kept in memory together with its transactions,
+/// so only the confirms appended since then are mapped again.
+/// Any other change of the day, e.g. a confirm changed under a known `tradeID` or a busted trade
+/// missing in the refetched statement, maps the whole day again.
+/// Days before the current one are evicted.
+///
+/// IBKR always returns the whole day, so the fetch and the stored day document stay the same.
+public class IbkrIntradayTradeConfirms {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IbkrIntradayTradeConfirms.class);
+
+    /// @param confirmsByTradeId null if the day contains a `tradeID` more than once
+    private record Day(
+            TradeConfirmDocKey docKey,
+            Map<String, TradeConfirm> confirmsByTradeId,
+            List<FinTransaction> finTransactions
+    ) {
+    }
+
+    private final boolean enabled;
+
+    private final ConcurrentMap<String, Day> days = new ConcurrentHashMap<>();
+
+    public IbkrIntradayTradeConfirms(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /// Maps the confirms of the given day, passing the mapper only those not mapped before.
+    /// The result is in the order a mapping of all the confirms would produce.
+    /// Only the days since the given current day are kept for the next call.
+    public List<FinTransaction> map(
+            TradeConfirmDocKey docKey,
+            TradeConfirmStatement statement,
+            LocalDate today,
+            Function<List<TradeConfirm>, List<FinTransaction>> mapper
+    ) {
+        List<TradeConfirm> confirms = statement.tradeConfirmations();
+        if (!enabled) {
+            return mapper.apply(confirms);
+        }
+        days.values().removeIf(day -> day.docKey().date().isBefore(today));
+        if (docKey.date().isBefore(today)) {
+            return mapper.apply(confirms);
+        }
+        Day oldDay = days.get(docKey.accountId());
+        List<TradeConfirm> newConfirms = oldDay != null && oldDay.docKey().equals(docKey) ? appended(oldDay, confirms) : null;
+
+        List<FinTransaction> finTransactions;
+        if (newConfirms == null) {
+            finTransactions = mapper.apply(confirms);
+        } else if (newConfirms.isEmpty()) {
+            finTransactions = oldDay.finTransactions();
+        } else {
+            LOG.debug("map - mapping {} appended confirms - {}", newConfirms.size(), docKey);
+            List<FinTransaction> newFinTransactions = mapper.apply(newConfirms);
+            finTransactions = new ArrayList<>(oldDay.finTransactions().size() + newFinTransactions.size());
+            finTransactions.addAll(oldDay.finTransactions());
+            finTransactions.addAll(newFinTransactions);
+            finTransactions.sort(Lazy.finTranOrder);
+        }
+        finTransactions = List.copyOf(finTransactions);
+        days.put(docKey.accountId(), new Day(docKey, byTradeId(confirms), finTransactions));
+        return finTransactions;
+    }
+
+    /// @return the confirms unknown to the given day, or null if a known confirm changed or disappeared
+    private static List<TradeConfirm> appended(Day oldDay, List<TradeConfirm> confirms) {
+        Map<String, TradeConfirm> known = oldDay.confirmsByTradeId();
+        if (known == null) {
+            return null;
+        }
+        List<TradeConfirm> newConfirms = new ArrayList<>();
+        int matched = 0;
+        for (TradeConfirm tradeConfirm : confirms) {
+            TradeConfirm knownConfirm = known.get(tradeConfirm.tradeID());
+            if (knownConfirm == null) {
+                newConfirms.add(tradeConfirm);
+            } else if (knownConfirm.equals(tradeConfirm)) {
+                matched++;
+            } else {
+                return null;
+            }
+        }
+        return matched == known.size() ? newConfirms : null;
+    }
+
+    private static Map<String, TradeConfirm> byTradeId(List<TradeConfirm> confirms) {
+        Map<String, TradeConfirm> confirmsByTradeId = HashMap.newHashMap(confirms.size());
+        for (TradeConfirm tradeConfirm : confirms) {
+            if (confirmsByTradeId.put(tradeConfirm.tradeID(), tradeConfirm) != null) {
+                return null;
+            }
+        }
+        return confirmsByTradeId;
+    }
+
+    private static final class Lazy {
+        /// The mapper orders the trades by report date and `tradeID` compared as a String,
+        /// which the external id `T/<date>/<tradeID>/<orderID>` orders the same way within a date
+        private static final Comparator<FinTransaction> finTranOrder = comparing(FinTransaction::date)
+                .thenComparing(FinTransaction::externalId);
+    }
+}
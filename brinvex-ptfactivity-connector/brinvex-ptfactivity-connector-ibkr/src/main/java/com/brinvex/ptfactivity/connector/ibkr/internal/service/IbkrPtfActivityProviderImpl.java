@@ -10,37 +10,57 @@ import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.EquitySummary;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.TradeConfirmStatement;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms.StoredActivityStatement;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFetcher;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFinTransactionMapper;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
+import com.brinvex.ptfactivity.core.api.PipelineObserver.Stage;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
 import com.brinvex.ptfactivity.core.api.exception.AssistanceRequiredException;
+import com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException;
+import com.brinvex.ptfactivity.core.api.exception.StorageException;
+import com.brinvex.ptfactivity.core.api.jfr.PtfActivityEvents;
 import com.brinvex.java.validation.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.SequencedMap;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static com.brinvex.java.collection.CollectionUtil.getFirstThrowIfMore;
 import static com.brinvex.java.DateUtil.maxDate;
 import static com.brinvex.java.DateUtil.minDate;
-import static com.brinvex.java.NullUtil.nullSafe;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.FETCH;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MAP;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MERGE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.PARSE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.READ;
 import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofSeconds;
 import static java.util.Collections.emptyList;
@@ -59,23 +79,72 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
 
     private final IbkrFinTransactionMapper finTransactionMapper;
 
+    private final PipelineObserver observer;
+
+    /// Bounds the number of activity statements parsed at once across all requests of this provider
+    private final Semaphore parsePermits;
+
+    private final int parseParallelism;
+
+    private final IbkrStatementCache statementCache;
+
+    /// Whether fetched activity statements are written straight to DMS instead of being buffered and parsed right away
+    private final boolean streamActivityDownloads;
+
+    private final IbkrActivitySnapshots activitySnapshots;
+
+    private final IbkrIntradayTradeConfirms intradayTradeConfirms;
+
     public IbkrPtfActivityProviderImpl(
             IbkrDms dms,
             IbkrStatementParser parser,
             IbkrFetcher fetcher,
             IbkrStatementMerger statementMerger,
-            IbkrFinTransactionMapper finTransactionMapper
+            IbkrFinTransactionMapper finTransactionMapper,
+            PipelineObserver observer
     ) {
+        this(dms, parser, fetcher, statementMerger, finTransactionMapper, observer, 1, new IbkrStatementCache(0), false,
+                new IbkrActivitySnapshots(dms, parser, statementMerger, false), new IbkrIntradayTradeConfirms(false));
+    }
+
+    public IbkrPtfActivityProviderImpl(
+            IbkrDms dms,
+            IbkrStatementParser parser,
+            IbkrFetcher fetcher,
+            IbkrStatementMerger statementMerger,
+            IbkrFinTransactionMapper finTransactionMapper,
+            PipelineObserver observer,
+            int parseParallelism,
+            IbkrStatementCache statementCache,
+            boolean streamActivityDownloads,
+            IbkrActivitySnapshots activitySnapshots,
+            IbkrIntradayTradeConfirms intradayTradeConfirms
+    ) {
+        if (parseParallelism <= 0) {
+            throw new IllegalArgumentException("Parse parallelism must be positive: %s".formatted(parseParallelism));
+        }
         this.dms = dms;
         this.parser = parser;
         this.fetcher = fetcher;
         this.statementMerger = statementMerger;
         this.finTransactionMapper = finTransactionMapper;
+        this.observer = observer;
+        this.parseParallelism = parseParallelism;
+        this.parsePermits = new Semaphore(parseParallelism);
+        this.statementCache = statementCache;
+        this.streamActivityDownloads = streamActivityDownloads;
+        this.activitySnapshots = activitySnapshots;
+        this.intradayTradeConfirms = intradayTradeConfirms;
+    }
+
+    @Override
+    public String providerName() {
+        return "ibkr";
     }
 
     @Override
     public boolean supports(PtfActivityReq ptfActivityReq) {
-        return ptfActivityReq.providerName().equals("ibkr");
+        return providerName().equals(ptfActivityReq.providerName());
     }
 
     @Override
@@ -85,57 +154,58 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
         LocalDate reqFromDateIncl = ptfActivityReq.fromDateIncl();
         LocalDate reqToDateIncl = ptfActivityReq.toDateIncl();
         Duration staleTolerance = ptfActivityReq.staleTolerance();
-        return getPtfProgress(ibkrAccount, reqFromDateIncl, reqToDateIncl, staleTolerance);
+        return getPtfProgress(ibkrAccount, reqFromDateIncl, reqToDateIncl, staleTolerance, true, ptfActivityReq.deadline());
     }
 
     @Override
     public PtfActivity getPtfProgressOffline(IbkrAccount ibkrAccount, LocalDate fromDateIncl, LocalDate toDateIncl) {
-        return getPtfProgress(ibkrAccount, fromDateIncl, toDateIncl, null, false);
+        return getPtfProgress(ibkrAccount, fromDateIncl, toDateIncl, null, false, null);
     }
 
     @Override
     public PtfActivity getPtfProgress(IbkrAccount account, LocalDate fromDateIncl, LocalDate toDateIncl, Duration staleTolerance) {
-        return getPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, true);
+        return getPtfProgress(account, fromDateIncl, toDateIncl, staleTolerance, true, null);
     }
 
     @SuppressWarnings("UnnecessaryLocalVariable")
-    private PtfActivity getPtfProgress(IbkrAccount account, LocalDate fromDateIncl, LocalDate toDateIncl, Duration staleTolerance, boolean online) {
-        LOG.debug("getPtfProgress({}, {}-{}, staleTolerance={}, online={})", account, fromDateIncl, toDateIncl, staleTolerance, online);
+    private PtfActivity getPtfProgress(
+            IbkrAccount account,
+            LocalDate fromDateIncl,
+            LocalDate toDateIncl,
+            Duration staleTolerance,
+            boolean online,
+            Instant deadline
+    ) {
+        LOG.debug("getPtfProgress({}, {}-{}, staleTolerance={}, online={}, deadline={})", account, fromDateIncl, toDateIncl, staleTolerance, online, deadline);
 
-        List<FinTransaction> trans = new ArrayList<>();
-        SequencedMap<LocalDate, DateAmount> navs = new LinkedHashMap<>();
         Currency pcy = account.ccy();
-
+        List<Segment> segments = new ArrayList<>();
         for (IbkrAccount.MigratedAccount migratedAccount : account.migratedAccounts()) {
             LocalDate progressFromDateIncl = maxDate(fromDateIncl, migratedAccount.externalIdValidFromIncl());
             LocalDate progressToDateIncl = minDate(toDateIncl, migratedAccount.externalIdValidToIncl());
             if (!progressFromDateIncl.isAfter(progressToDateIncl)) {
-                PtfActivity migrPtfActivity = getSinglePtfProgress(
-                        migratedAccount.externalId(), pcy, migratedAccount.credentials(), progressFromDateIncl, progressToDateIncl, staleTolerance, online
-                );
-                if (migrPtfActivity != null) {
-                    trans.addAll(migrPtfActivity.transactions());
-                    for (DateAmount e : migrPtfActivity.netAssetValues()) {
-                        navs.put(e.date(), e);
-                    }
-                }
+                segments.add(new Segment(migratedAccount.externalId(), migratedAccount.credentials(), progressFromDateIncl, progressToDateIncl));
             }
         }
         {
             LocalDate progressFromDateIncl = maxDate(fromDateIncl, account.externalIdValidFromIncl());
             LocalDate progressToDateIncl = toDateIncl;
             if (!progressFromDateIncl.isAfter(progressToDateIncl)) {
-                PtfActivity mainPtfActivity = getSinglePtfProgress(
-                        account.externalId(), pcy, account.credentials(), progressFromDateIncl, progressToDateIncl, staleTolerance, online
-                );
-                if (mainPtfActivity != null) {
-                    trans.addAll(mainPtfActivity.transactions());
-                    for (DateAmount e : mainPtfActivity.netAssetValues()) {
-                        navs.put(e.date(), e);
-                    }
-                }
+                segments.add(new Segment(account.externalId(), account.credentials(), progressFromDateIncl, progressToDateIncl));
             }
+        }
 
+        List<PtfActivity> segmentPtfActivities = getSegmentPtfProgresses(segments, pcy, staleTolerance, online, deadline);
+
+        List<FinTransaction> trans = new ArrayList<>();
+        SortedMap<LocalDate, DateAmount> navs = new TreeMap<>();
+        for (PtfActivity segmentPtfActivity : segmentPtfActivities) {
+            if (segmentPtfActivity != null) {
+                trans.addAll(segmentPtfActivity.transactions());
+                for (DateAmount e : segmentPtfActivity.netAssetValues()) {
+                    navs.put(e.date(), e);
+                }
+            }
         }
         if (navs.isEmpty()) {
             throw new IllegalStateException(
@@ -146,13 +216,57 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
         return new PtfActivity(trans, new ArrayList<>(navs.values()));
     }
 
-    private PtfActivity getSinglePtfProgress(String accountId, Currency pcy, Credentials credentials, LocalDate fromDateIncl, LocalDate toDateIncl, Duration staleTolerance, boolean online) {
+    /// Processes the segments concurrently, each one may wait for its fetches for seconds.
+    /// Fetches of the segments sharing a token are queued by the per-token request scheduler of the fetcher.
+    /// The results follow the order of the given segments, so they are combined the same way
+    /// regardless of which segment finishes first.
+    private List<PtfActivity> getSegmentPtfProgresses(
+            List<Segment> segments,
+            Currency pcy,
+            Duration staleTolerance,
+            boolean online,
+            Instant deadline
+    ) {
+        int size = segments.size();
+        List<PtfActivity> ptfActivities = new ArrayList<>(size);
+        if (size <= 1) {
+            for (Segment segment : segments) {
+                ptfActivities.add(getSinglePtfProgress(
+                        segment.accountId(), pcy, segment.credentials(), segment.fromDateIncl(), segment.toDateIncl(), staleTolerance, online, deadline));
+            }
+            return ptfActivities;
+        }
+
+        List<Future<PtfActivity>> futures = new ArrayList<>(size);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Segment segment : segments) {
+                futures.add(executor.submit(() -> getSinglePtfProgress(
+                        segment.accountId(), pcy, segment.credentials(), segment.fromDateIncl(), segment.toDateIncl(), staleTolerance, online, deadline)));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            ptfActivities.add(resultNow(futures.get(i), "processing", segments.get(i).accountId()));
+        }
+        return ptfActivities;
+    }
+
+    private PtfActivity getSinglePtfProgress(
+            String accountId,
+            Currency pcy,
+            Credentials credentials,
+            LocalDate fromDateIncl,
+            LocalDate toDateIncl,
+            Duration staleTolerance,
+            boolean online,
+            Instant deadline
+    ) {
         assert accountId != null;
         assert pcy != null;
         assert !fromDateIncl.isAfter(toDateIncl);
 
         LocalDateTime now = LocalDateTime.now();
         LocalDate ibkrToday = ZonedDateTime.now(IBKR_ZONE_ID).toLocalDate();
+        Map<ActivityDocKey, ActivityStatement> fetchedActStatements = new HashMap<>(2);
         {
             boolean actOnline = online && credentials != null && credentials.activityFlexQueryId() != null;
             if (actOnline) {
@@ -187,38 +301,64 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
 
                     LocalDateTime newestOldCreatedOn = newestOldKey == null ? null :
                             parser.parseStatementCreatedOn(dms.getStatementContentLines(newestOldKey, 3));
-                    if (newestOldCreatedOn == null || newestOldCreatedOn.plus(staleTolerance).isBefore(now)) {
-                        String fetchedContent = fetcher.fetchFlexStatement(credentials.token(), credentials.activityFlexQueryId(), 4, ofSeconds(5));
-
-                        ActivityStatement fetchedActStatement = parser.parseActivityStatement(fetchedContent);
-                        ActivityDocKey fetchedDocKey = new ActivityDocKey(accountId, fetchedActStatement.fromDate(), fetchedActStatement.toDate());
-                        boolean useful = dms.putActivityStatement(fetchedDocKey, fetchedContent);
-                        if (useful) {
-                            LOG.debug("getSinglePtfProgress - saved fetched statement - {}", fetchedDocKey);
-                        } else {
-                            LOG.debug("getSinglePtfProgress - fetched statement is useless - {}", fetchedDocKey);
+                    boolean fetchNeeded = newestOldCreatedOn == null || newestOldCreatedOn.plus(staleTolerance).isBefore(now);
+                    if (!fetchNeeded) {
+                        LOG.debug("getSinglePtfProgress - skipping activity fetch - externalId={}, newestOldCreatedOn={}, staleTolerance={}, now={}",
+                                accountId, newestOldCreatedOn, staleTolerance, now);
+                    }
+                    ActivityDocKey fetchedDocKey = null;
+                    if (fetchNeeded && streamActivityDownloads) {
+                        StoredActivityStatement storedActStatement = fetchFlexStatementBeforeDeadline(credentials.token(), credentials.activityFlexQueryId(), 4, ofSeconds(5), deadline,
+                                content -> dms.putActivityStatement(accountId, content));
+                        if (storedActStatement != null) {
+                            fetchedDocKey = storedActStatement.docKey();
+                            LOG.debug("getSinglePtfProgress - streamed fetched statement - {}, useful={}", fetchedDocKey, storedActStatement.useful());
                         }
-                        {
-                            List<TradeConfirmDocKey> unnecessaryTcDocKeys = dms.getTradeConfirmDocKeys(accountId, fetchedActStatement.fromDate(), fetchedActStatement.toDate());
-                            for (TradeConfirmDocKey unnecessaryTcDocKey : unnecessaryTcDocKeys) {
-                                LOG.debug("getPortfolioProgress - deleting unnecessary statement - {}", unnecessaryTcDocKey);
-                                dms.delete(unnecessaryTcDocKey);
+                    } else if (fetchNeeded) {
+                        String fetchedContent = fetchFlexStatementBeforeDeadline(credentials.token(), credentials.activityFlexQueryId(), 4, ofSeconds(5), deadline);
+                        if (fetchedContent != null) {
+                            ActivityStatement fetchedActStatement = parseActivityStatement(accountId, null, fetchedContent);
+                            fetchedDocKey = new ActivityDocKey(accountId, fetchedActStatement.fromDate(), fetchedActStatement.toDate());
+                            boolean useful = dms.putActivityStatement(fetchedDocKey, fetchedContent);
+                            if (useful) {
+                                LOG.debug("getSinglePtfProgress - saved fetched statement - {}", fetchedDocKey);
+                                fetchedActStatements.put(fetchedDocKey, fetchedActStatement);
+                                if (statementCache.isEnabled()) {
+                                    statementCache.put(fetchedDocKey, dms.getStatementLastModifiedTime(fetchedDocKey), fetchedActStatement);
+                                }
+                            } else {
+                                LOG.debug("getSinglePtfProgress - fetched statement is useless - {}", fetchedDocKey);
                             }
                         }
-                    } else {
-                        LOG.debug("getSinglePtfProgress - skipping activity fetch - externalId={}, newestOldCreatedOn={}, staleTolerance={}, now={}",
-                                accountId, newestOldCreatedOn, staleTolerance, now);
+                    }
+                    if (fetchedDocKey != null) {
+                        List<TradeConfirmDocKey> unnecessaryTcDocKeys = dms.getTradeConfirmDocKeys(accountId, fetchedDocKey.fromDateIncl(), fetchedDocKey.toDateIncl());
+                        for (TradeConfirmDocKey unnecessaryTcDocKey : unnecessaryTcDocKeys) {
+                            LOG.debug("getPortfolioProgress - deleting unnecessary statement - {}", unnecessaryTcDocKey);
+                            dms.delete(unnecessaryTcDocKey);
+                        }
                     }
                 }
             }
         }
-        List<ActivityStatement> actStatements = dms.getActivityDocKeys(accountId, fromDateIncl, toDateIncl)
-                .stream()
-                .map(dms::getStatementContent)
-                .map(parser::parseActivityStatement)
-                .toList();
+        List<ActivityDocKey> actDocKeys = dms.getActivityDocKeys(accountId, fromDateIncl, toDateIncl);
+        ActivityStatement mergedActStatement = null;
+        if (activitySnapshots.isEnabled()) {
+            mergedActStatement = activitySnapshots.merge(accountId, dms.getActivityDocKeys(accountId, null, null), actDocKeys, docKeys -> {
+                List<ActivityStatement> actStatements = readActivityStatements(accountId, docKeys, fetchedActStatements);
+                observer.documentsParsed(providerName(), actStatements.size());
+                return actStatements;
+            });
+        }
+        if (mergedActStatement == null) {
+            List<ActivityStatement> actStatements = readActivityStatements(accountId, actDocKeys, fetchedActStatements);
+            observer.documentsParsed(providerName(), actStatements.size());
 
-        ActivityStatement mergedActStatement = statementMerger.mergeActivityStatements(actStatements).orElse(null);
+            mergedActStatement = observe(MERGE, () -> PtfActivityEvents.merge(providerName(), accountId, actStatements.size(),
+                    () -> statementMerger.mergeActivityStatements(actStatements),
+                    merged -> merged.map(IbkrPtfActivityProviderImpl::countItems).orElse(0)
+            )).orElse(null);
+        }
         if (mergedActStatement == null) {
             return null;
         }
@@ -232,11 +372,14 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
                     .formatted(accountId, fromDateIncl));
         }
 
-        List<FinTransaction> cashTrans = finTransactionMapper.mapCashTransactions(mergedActStatement.cashTransactions());
+        List<FinTransaction> cashTrans = mapToFinTransactions(
+                accountId, "mapCashTransactions", mergedActStatement.cashTransactions(), finTransactionMapper::mapCashTransactions);
 
-        List<FinTransaction> trades = finTransactionMapper.mapTrades(mergedActStatement.trades());
+        List<FinTransaction> trades = mapToFinTransactions(
+                accountId, "mapTrades", mergedActStatement.trades(), finTransactionMapper::mapTrades);
 
-        List<FinTransaction> corpActions = finTransactionMapper.mapCorporateAction(mergedActStatement.corporateActions());
+        List<FinTransaction> corpActions = mapToFinTransactions(
+                accountId, "mapCorporateAction", mergedActStatement.corporateActions(), finTransactionMapper::mapCorporateAction);
 
         List<FinTransaction> tcTrades;
         {
@@ -254,29 +397,35 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
                                 LOG.debug("getSinglePtfProgress - old is stale - oldTcDocKey={}, staleTolerance={}, now={}", oldTcDocKey, staleTolerance, now);
                             } else {
                                 LOG.debug("getSinglePtfProgress - going to use old - oldTcDocKey={}, staleTolerance={}, now={}", oldTcDocKey, staleTolerance, now);
-                                tcStatement = parser.parseTradeConfirmStatement(dms.getStatementContent(oldTcDocKey));
+                                tcStatement = readTradeConfirmStatement(accountId, oldTcDocKey);
+                                observer.documentsParsed(providerName(), 1);
                             }
                         }
                         if (tcStatement == null) {
-                            if (oldTcDocKey != null) {
-                                dms.delete(oldTcDocKey);
+                            String tcContent = fetchFlexStatementBeforeDeadline(credentials.token(), credentials.tradeConfirmFlexQueryId(), 2, ofMillis(250), deadline);
+                            if (tcContent != null) {
+                                tcStatement = parseTradeConfirmStatement(accountId, null, tcContent);
+                                observer.documentsParsed(providerName(), 1);
+                                if (oldTcDocKey != null) {
+                                    dms.delete(oldTcDocKey);
+                                }
+                                dms.putTradeConfirmStatement(new TradeConfirmDocKey(accountId, tcStatement.fromDate()), tcContent);
                             }
-                            String tcContent = fetcher.fetchFlexStatement(credentials.token(), credentials.tradeConfirmFlexQueryId(), 2, ofMillis(250));
-                            tcStatement = parser.parseTradeConfirmStatement(tcContent);
-                            dms.putTradeConfirmStatement(new TradeConfirmDocKey(accountId, tcStatement.fromDate()), tcContent);
                         }
                     }
                 }
                 if (tcStatement == null) {
-                    tcStatement = nullSafe(
-                            getFirstThrowIfMore(dms.getTradeConfirmDocKeys(accountId, tcDate, tcDate)),
-                            dms::getStatementContent,
-                            parser::parseTradeConfirmStatement
-                    );
+                    TradeConfirmDocKey tcDocKey = getFirstThrowIfMore(dms.getTradeConfirmDocKeys(accountId, tcDate, tcDate));
+                    if (tcDocKey != null) {
+                        tcStatement = readTradeConfirmStatement(accountId, tcDocKey);
+                        observer.documentsParsed(providerName(), 1);
+                    }
                 }
             }
             if (tcStatement != null) {
-                tcTrades = finTransactionMapper.mapTradeConfirms(tcStatement.tradeConfirmations());
+                TradeConfirmDocKey tcDocKey = new TradeConfirmDocKey(accountId, tcStatement.fromDate());
+                tcTrades = intradayTradeConfirms.map(tcDocKey, tcStatement, ibkrToday, tradeConfirms ->
+                        mapToFinTransactions(accountId, "mapTradeConfirms", tradeConfirms, finTransactionMapper::mapTradeConfirms));
             } else {
                 tcTrades = emptyList();
             }
@@ -305,9 +454,191 @@ public class IbkrPtfActivityProviderImpl implements IbkrPtfActivityProvider {
                 }
             }
         }
+        observer.transactionsProduced(providerName(), newTrans.size());
         return new PtfActivity(newTrans, List.copyOf(navs.values()));
     }
 
+    /// Reads and parses the given statements, concurrently if {@link #parseParallelism} allows it.
+    /// Statements fetched and parsed earlier in the same request are taken as they are.
+    /// The result follows the order of the given keys regardless of which parse finishes first,
+    /// so the merger always sees the same sequence.
+    private List<ActivityStatement> readActivityStatements(
+            String accountId,
+            List<ActivityDocKey> actDocKeys,
+            Map<ActivityDocKey, ActivityStatement> parsedActStatements
+    ) {
+        int size = actDocKeys.size();
+        List<ActivityStatement> actStatements = new ArrayList<>(size);
+        if (parseParallelism == 1 || size <= 1) {
+            for (ActivityDocKey actDocKey : actDocKeys) {
+                ActivityStatement parsed = parsedActStatements.get(actDocKey);
+                actStatements.add(parsed != null ? parsed : readActivityStatement(accountId, actDocKey));
+            }
+            return actStatements;
+        }
+
+        List<Future<ActivityStatement>> futures = new ArrayList<>(size);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ActivityDocKey actDocKey : actDocKeys) {
+                ActivityStatement parsed = parsedActStatements.get(actDocKey);
+                if (parsed != null) {
+                    futures.add(CompletableFuture.completedFuture(parsed));
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    parsePermits.acquire();
+                    try {
+                        return readActivityStatement(accountId, actDocKey);
+                    } finally {
+                        parsePermits.release();
+                    }
+                }));
+            }
+        }
+        for (Future<ActivityStatement> future : futures) {
+            actStatements.add(resultNow(future, "parse", accountId));
+        }
+        return actStatements;
+    }
+
+    /// Result of a completed task, its failure is rethrown as it is if unchecked
+    private static <T> T resultNow(Future<T> future, String task, String accountId) {
+        return switch (future.state()) {
+            case SUCCESS -> future.resultNow();
+            case FAILED -> {
+                Throwable failure = future.exceptionNow();
+                if (failure instanceof RuntimeException e) {
+                    throw e;
+                }
+                if (failure instanceof Error e) {
+                    throw e;
+                }
+                throw new IllegalStateException("Parallel %s failed: %s".formatted(task, accountId), failure);
+            }
+            case CANCELLED, RUNNING -> throw new IllegalStateException("Unexpected state: %s, %s".formatted(future.state(), accountId));
+        };
+    }
+
+    /// Parses the stored statement straight from its bytes, so the document is never held as a String.
+    /// Unchanged documents are served from {@link #statementCache} when it is enabled.
+    private ActivityStatement readActivityStatement(String accountId, ActivityDocKey docKey) {
+        LocalDateTime version = statementCache.isEnabled() ? dms.getStatementLastModifiedTime(docKey) : null;
+        if (version != null) {
+            ActivityStatement cached = statementCache.get(docKey, version, ActivityStatement.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ActivityStatement actStatement;
+        try (InputStream content = observe(READ, () -> dms.openStatementContent(docKey))) {
+            int size = content.available();
+            observer.bytesRead(providerName(), size);
+            actStatement = observe(PARSE, () -> PtfActivityEvents.parse(providerName(), accountId, docKey, size,
+                    () -> parser.parseActivityStatement(content),
+                    IbkrPtfActivityProviderImpl::countItems
+            ));
+        } catch (IOException e) {
+            throw new StorageException("Failed to read %s".formatted(docKey), e);
+        }
+        statementCache.put(docKey, version, actStatement);
+        return actStatement;
+    }
+
+    /// Parses the stored statement straight from its bytes, so the document is never held as a String.
+    /// Unchanged documents are served from {@link #statementCache} when it is enabled.
+    private TradeConfirmStatement readTradeConfirmStatement(String accountId, TradeConfirmDocKey docKey) {
+        LocalDateTime version = statementCache.isEnabled() ? dms.getStatementLastModifiedTime(docKey) : null;
+        if (version != null) {
+            TradeConfirmStatement cached = statementCache.get(docKey, version, TradeConfirmStatement.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        TradeConfirmStatement tcStatement;
+        try (InputStream content = observe(READ, () -> dms.openStatementContent(docKey))) {
+            int size = content.available();
+            observer.bytesRead(providerName(), size);
+            tcStatement = observe(PARSE, () -> PtfActivityEvents.parse(providerName(), accountId, docKey, size,
+                    () -> parser.parseTradeConfirmStatement(content),
+                    parsed -> parsed.tradeConfirmations().size()
+            ));
+        } catch (IOException e) {
+            throw new StorageException("Failed to read %s".formatted(docKey), e);
+        }
+        statementCache.put(docKey, version, tcStatement);
+        return tcStatement;
+    }
+
+    private ActivityStatement parseActivityStatement(String accountId, ActivityDocKey docKey, String content) {
+        return observe(PARSE, () -> PtfActivityEvents.parse(providerName(), accountId, docKey, content.length(),
+                () -> parser.parseActivityStatement(content),
+                IbkrPtfActivityProviderImpl::countItems
+        ));
+    }
+
+    private TradeConfirmStatement parseTradeConfirmStatement(String accountId, TradeConfirmDocKey docKey, String content) {
+        return observe(PARSE, () -> PtfActivityEvents.parse(providerName(), accountId, docKey, content.length(),
+                () -> parser.parseTradeConfirmStatement(content),
+                tcStatement -> tcStatement.tradeConfirmations().size()
+        ));
+    }
+
+    private <ITEM> List<FinTransaction> mapToFinTransactions(
+            String accountId,
+            String mapping,
+            List<ITEM> items,
+            Function<List<ITEM>, List<FinTransaction>> mapper
+    ) {
+        return observe(MAP, () -> PtfActivityEvents.map(providerName(), accountId, mapping, items.size(),
+                () -> mapper.apply(items),
+                List::size
+        ));
+    }
+
+    private static int countItems(ActivityStatement actStatement) {
+        return actStatement.cashTransactions().size()
+               + actStatement.trades().size()
+               + actStatement.corporateActions().size()
+               + actStatement.equitySummaries().size();
+    }
+
+    private <T> T observe(Stage stage, Supplier<T> action) {
+        return observer.observe(providerName(), stage, action);
+    }
+
+    /**
+     * Returns null if the deadline does not allow the fetch to complete,
+     * so that the caller falls back to the statements already stored in DMS.
+     */
+    private String fetchFlexStatementBeforeDeadline(String token, String flexQueryId, int maxRepeatCount, Duration estimatedRemoteInProgressTime, Instant deadline) {
+        try {
+            return observe(FETCH, () -> fetcher.fetchFlexStatement(token, flexQueryId, maxRepeatCount, estimatedRemoteInProgressTime, deadline));
+        } catch (DeadlineExceededException e) {
+            LOG.warn("Falling back to stored statements - flexQueryId={}, deadline={}, {}", flexQueryId, deadline, e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T fetchFlexStatementBeforeDeadline(
+            String token,
+            String flexQueryId,
+            int maxRepeatCount,
+            Duration estimatedRemoteInProgressTime,
+            Instant deadline,
+            IbkrFetcher.StatementReader<T> statementReader
+    ) {
+        try {
+            return observe(FETCH, () -> fetcher.fetchFlexStatement(token, flexQueryId, maxRepeatCount, estimatedRemoteInProgressTime, deadline, statementReader));
+        } catch (DeadlineExceededException e) {
+            LOG.warn("Falling back to stored statements - flexQueryId={}, deadline={}, {}", flexQueryId, deadline, e.getMessage());
+            return null;
+        }
+    }
+
+
+    /// A part of the requested period served by one IBKR account id
+    private record Segment(String accountId, Credentials credentials, LocalDate fromDateIncl, LocalDate toDateIncl) {
+    }
 
     private static final Logger LOG = LoggerFactory.getLogger(IbkrPtfActivityProviderImpl.class);
 
@@ -0,0 +1,63 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/// Size bounded LRU cache of parsed statements keyed by {@link IbkrDocKey}.
+/// Each entry remembers the last-modified time of the document it was parsed from
+/// and is only returned for the same version, so a document rewritten behind the DMS wrapper is parsed again.
+/// {@link IbkrDmsImpl} evicts the entries of the documents it replaces or deletes.
+public class IbkrStatementCache {
+
+    private record Entry(LocalDateTime version, FlexStatement statement) {
+    }
+
+    private final int maxSize;
+
+    private final LinkedHashMap<IbkrDocKey, Entry> entries;
+
+    /// A {@code maxSize} of zero or less disables the cache
+    public IbkrStatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IbkrDocKey, Entry> eldest) {
+                return size() > IbkrStatementCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public synchronized <S extends FlexStatement> S get(IbkrDocKey docKey, LocalDateTime version, Class<S> statementType) {
+        Entry entry = entries.get(docKey);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.version().equals(version)) {
+            entries.remove(docKey);
+            return null;
+        }
+        return statementType.cast(entry.statement());
+    }
+
+    public synchronized void put(IbkrDocKey docKey, LocalDateTime version, FlexStatement statement) {
+        if (maxSize > 0 && version != null) {
+            entries.put(docKey, new Entry(version, statement));
+        }
+    }
+
+    public synchronized void invalidate(IbkrDocKey docKey) {
+        entries.remove(docKey);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
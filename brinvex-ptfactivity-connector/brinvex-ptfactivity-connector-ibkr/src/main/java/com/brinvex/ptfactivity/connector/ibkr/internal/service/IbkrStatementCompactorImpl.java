@@ -0,0 +1,135 @@
+package com.brinvex.ptfactivity.connector.ibkr.internal.service;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementCompactor;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
+import com.brinvex.ptfactivity.core.api.exception.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static java.util.Comparator.naturalOrder;
+
+public class IbkrStatementCompactorImpl implements IbkrStatementCompactor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IbkrStatementCompactorImpl.class);
+
+    private final IbkrDms dms;
+
+    private final IbkrStatementParser parser;
+
+    private final IbkrStatementMerger statementMerger;
+
+    private final IbkrFlexStatementWriter writer = new IbkrFlexStatementWriter();
+
+    public IbkrStatementCompactorImpl(IbkrDms dms, IbkrStatementParser parser, IbkrStatementMerger statementMerger) {
+        this.dms = dms;
+        this.parser = parser;
+        this.statementMerger = statementMerger;
+    }
+
+    @Override
+    public List<ActivityDocKey> compactActivityStatements(String accountId, Period period, LocalDate toDateIncl) {
+        int periodMonths = (int) period.toTotalMonths();
+        if (period.getDays() != 0 || periodMonths <= 0 || (12 % periodMonths != 0 && periodMonths % 12 != 0)) {
+            throw new IllegalArgumentException("Period must be a whole number of months dividing a year or a whole number of years: %s"
+                    .formatted(period));
+        }
+
+        Map<LocalDate, List<ActivityDocKey>> docKeysByPeriodStart = new TreeMap<>();
+        for (ActivityDocKey docKey : dms.getActivityDocKeys(accountId, null, toDateIncl)) {
+            LocalDate periodStart = periodStart(docKey.fromDateIncl(), periodMonths);
+            LocalDate periodEnd = periodStart.plusMonths(periodMonths).minusDays(1);
+            if (!docKey.toDateIncl().isAfter(periodEnd) && !periodEnd.isAfter(toDateIncl)) {
+                docKeysByPeriodStart.computeIfAbsent(periodStart, _ -> new ArrayList<>()).add(docKey);
+            }
+        }
+
+        List<ActivityDocKey> results = new ArrayList<>();
+        for (List<ActivityDocKey> docKeys : docKeysByPeriodStart.values()) {
+            ActivityDocKey consolidatedDocKey = compact(accountId, docKeys);
+            if (consolidatedDocKey != null) {
+                results.add(consolidatedDocKey);
+            }
+        }
+        return results;
+    }
+
+    private ActivityDocKey compact(String accountId, List<ActivityDocKey> docKeys) {
+        if (docKeys.size() < 2) {
+            return null;
+        }
+        docKeys.sort(naturalOrder());
+        LocalDate coveredToDate = docKeys.getFirst().toDateIncl();
+        for (ActivityDocKey docKey : docKeys) {
+            if (docKey.fromDateIncl().isAfter(coveredToDate.plusDays(1))) {
+                LOG.debug("compact - skipping period with missing days <{}, {}> - {}",
+                        coveredToDate.plusDays(1), docKey.fromDateIncl().minusDays(1), docKeys);
+                return null;
+            }
+            if (docKey.toDateIncl().isAfter(coveredToDate)) {
+                coveredToDate = docKey.toDateIncl();
+            }
+        }
+        ActivityDocKey consolidatedDocKey = new ActivityDocKey(accountId, docKeys.getFirst().fromDateIncl(), coveredToDate);
+        if (docKeys.contains(consolidatedDocKey)) {
+            LOG.debug("compact - skipping period already covered by one statement - {}", consolidatedDocKey);
+            return null;
+        }
+
+        List<ActivityStatement> statements = new ArrayList<>(docKeys.size());
+        for (ActivityDocKey docKey : docKeys) {
+            try (InputStream content = dms.openStatementContent(docKey)) {
+                statements.add(parser.parseActivityStatement(content));
+            } catch (IOException e) {
+                throw new StorageException("Failed to read %s".formatted(docKey), e);
+            }
+        }
+        ActivityStatement merged = statementMerger.mergeActivityStatements(statements).orElseThrow();
+        ZonedDateTime whenGenerated = statements.stream()
+                .map(ActivityStatement::whenGenerated)
+                .filter(Objects::nonNull)
+                .max(naturalOrder())
+                .orElse(null);
+        ActivityStatement consolidated = new ActivityStatement(
+                merged.accountId(),
+                merged.fromDate(),
+                merged.toDate(),
+                whenGenerated,
+                merged.cashTransactions(),
+                merged.trades(),
+                merged.corporateActions(),
+                merged.equitySummaries()
+        );
+
+        String consolidatedContent = writer.writeActivityStatement(consolidated);
+        ActivityStatement verification = parser.parseActivityStatement(consolidatedContent);
+        if (!consolidated.equals(verification)) {
+            throw new IllegalStateException("Consolidated statement does not match the merge of its inputs: %s, %s"
+                    .formatted(consolidatedDocKey, docKeys));
+        }
+
+        boolean saved = dms.putActivityStatement(consolidatedDocKey, consolidatedContent);
+        LOG.debug("compact - {} {} statements into {}", saved ? "consolidated" : "skipped", docKeys.size(), consolidatedDocKey);
+        return saved ? consolidatedDocKey : null;
+    }
+
+    private static LocalDate periodStart(LocalDate date, int periodMonths) {
+        long epochMonth = date.getYear() * 12L + date.getMonthValue() - 1;
+        long periodEpochMonth = Math.floorDiv(epochMonth, periodMonths) * periodMonths;
+        return LocalDate.of((int) (periodEpochMonth / 12), (int) (periodEpochMonth % 12) + 1, 1);
+    }
+}
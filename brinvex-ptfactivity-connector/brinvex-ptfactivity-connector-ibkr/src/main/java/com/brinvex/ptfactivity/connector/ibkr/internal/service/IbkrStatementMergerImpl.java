@@ -11,11 +11,13 @@ import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
 import com.brinvex.ptfactivity.connector.ibkr.internal.builder.ActivityStatementBuilder;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.SequencedSet;
+import java.util.function.Function;
 
 import static java.util.Comparator.comparing;
 
@@ -41,10 +43,10 @@ public class IbkrStatementMergerImpl implements IbkrStatementMerger {
             resultFromDate = oldestStatement.fromDate();
             resultToDate = oldestStatement.toDate();
         }
-        SequencedSet<CashTransaction> cashTrans = new LinkedHashSet<>();
-        SequencedSet<Trade> trades = new LinkedHashSet<>();
-        SequencedSet<CorporateAction> corpActions = new LinkedHashSet<>();
-        SequencedSet<EquitySummary> equitySummaries = new LinkedHashSet<>();
+        DistinctRecords<CashTransaction> cashTrans = new DistinctRecords<>(CashTransaction::transactionID);
+        DistinctRecords<Trade> trades = new DistinctRecords<>(t -> t.transactionID() != null ? t.transactionID() : t.tradeID());
+        DistinctRecords<CorporateAction> corpActions = new DistinctRecords<>(ca -> ca.transactionId() != null ? ca.transactionId() : ca.actionID());
+        DistinctRecords<EquitySummary> equitySummaries = new DistinctRecords<>(EquitySummary::reportDate);
 
         for (ActivityStatement statement : sortedStatements) {
             String accountId = statement.accountId();
@@ -76,10 +78,57 @@ public class IbkrStatementMergerImpl implements IbkrStatementMerger {
                 .accountId(resultAccountId)
                 .fromDate(resultFromDate)
                 .toDate(resultToDate)
-                .cashTransactions(cashTrans)
-                .trades(trades)
-                .corporateActions(corpActions)
-                .equitySummaries(equitySummaries)
+                .cashTransactions(cashTrans.records())
+                .trades(trades.records())
+                .corporateActions(corpActions.records())
+                .equitySummaries(equitySummaries.records())
                 .build());
     }
+
+    /// Distinct records in encounter order, the same as a {@link java.util.LinkedHashSet} would keep them.
+    /// Records are looked up by their natural IBKR identifier, which is much cheaper to hash than the whole record,
+    /// and are compared field by field only if the identifiers collide.
+    /// A different record sharing the identifier of a known one is kept as well, a record without an identifier is its own key.
+    private static final class DistinctRecords<T> {
+
+        private final Function<T, Object> keyFunction;
+
+        private final List<T> records = new ArrayList<>();
+
+        private final Map<Object, T> firstRecordsByKey = new HashMap<>();
+
+        /// Further distinct records per identifier, expected to stay empty
+        private final Map<Object, List<T>> collidingRecordsByKey = new HashMap<>(0);
+
+        DistinctRecords(Function<T, Object> keyFunction) {
+            this.keyFunction = keyFunction;
+        }
+
+        void addAll(List<T> newRecords) {
+            for (T newRecord : newRecords) {
+                add(newRecord);
+            }
+        }
+
+        private void add(T newRecord) {
+            Object key = keyFunction.apply(newRecord);
+            if (key == null) {
+                key = newRecord;
+            }
+            T firstRecord = firstRecordsByKey.putIfAbsent(key, newRecord);
+            if (firstRecord == null) {
+                records.add(newRecord);
+            } else if (!firstRecord.equals(newRecord)) {
+                List<T> collidingRecords = collidingRecordsByKey.computeIfAbsent(key, _ -> new ArrayList<>(1));
+                if (!collidingRecords.contains(newRecord)) {
+                    collidingRecords.add(newRecord);
+                    records.add(newRecord);
+                }
+            }
+        }
+
+        List<T> records() {
+            return records;
+        }
+    }
 }
@@ -28,12 +28,12 @@ import com.brinvex.java.validation.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -41,12 +41,16 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedList;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @SuppressWarnings({"DuplicatedCode", "unused"})
 public class IbkrStatementParserImpl implements IbkrStatementParser {
 
@@ -63,225 +67,310 @@ public class IbkrStatementParserImpl implements IbkrStatementParser {
 
     @Override
     public FlexStatement.ActivityStatement parseActivityStatement(String statementXmlContent) {
-
-        ActivityStatementBuilder statementBldr = null;
-
-        List<CashTransaction> cashTransactions = new LinkedList<>();
-        List<CorporateAction> corporateActions = new LinkedList<>();
-        List<EquitySummary> equitySummaries = new LinkedList<>();
-        List<Trade> trades = new LinkedList<>();
-
+        FlexStatement.ActivityStatement statement;
         try {
-            XMLEventReader reader = Lazy.xmlInputFactory.createXMLEventReader(new StringReader(statementXmlContent));
-            while (reader.hasNext()) {
-                XMLEvent xmlEvent = reader.nextEvent();
-                if (!xmlEvent.isStartElement()) {
-                    continue;
-                }
-                StartElement e = xmlEvent.asStartElement();
-                switch (e.getName().getLocalPart()) {
-                    case "FlexQueryResponse" -> {
-                        FlexStatementType flexStatementType = parseEnum(FlexStatementType::fromValue, getAttrValue(e, FlexQueryResponseQN.type));
-                        Assert.equal(FlexStatementType.ACT, flexStatementType);
-                    }
-                    case "FlexStatement" -> {
-                        Assert.isNull(statementBldr);
-                        statementBldr = new ActivityStatementBuilder()
-                                .accountId(getAttrValue(e, FlexStatementQN.accountId))
-                                .fromDate(parseDate(getAttrValue(e, FlexStatementQN.fromDate)))
-                                .toDate(parseDate(getAttrValue(e, FlexStatementQN.toDate)))
-                                .whenGenerated(parseZonedDateTime(getAttrValue(e, FlexStatementQN.whenGenerated)))
-                                .corporateActions(corporateActions)
-                                .cashTransactions(cashTransactions)
-                                .trades(trades)
-                                .equitySummaries(equitySummaries);
-                    }
-                    case "Trade" -> trades.add(new TradeBuilder()
-                            .currency(parseEnum(Currency::valueOf, getAttrValue(e, TradeQN.currency)))
-                            .assetCategory(parseEnum(AssetCategory::fromValue, getAttrValue(e, TradeQN.assetCategory)))
-                            .assetSubCategory(parseEnum(AssetSubCategory::fromValue, getAttrValue(e, TradeQN.subCategory)))
-                            .symbol(getAttrValue(e, TradeQN.symbol))
-                            .description(getAttrValue(e, TradeQN.description))
-                            .securityID(getAttrValue(e, TradeQN.securityID))
-                            .securityIDType(parseEnum(SecurityIDType::fromValue, getAttrValue(e, TradeQN.securityIDType)))
-                            .figi(getAttrValue(e, TradeQN.figi))
-                            .isin(getAttrValue(e, TradeQN.isin))
-                            .listingExchange(getAttrValue(e, TradeQN.listingExchange))
-                            .tradeID(getAttrValue(e, TradeQN.tradeID))
-                            .reportDate(parseDate(getAttrValue(e, TradeQN.reportDate)))
-                            .tradeDate(parseDate(getAttrValue(e, TradeQN.tradeDate)))
-                            .settleDateTarget(parseDate(getAttrValue(e, TradeQN.settleDateTarget)))
-                            .transactionType(parseEnum(TradeType::fromValue, getAttrValue(e, TradeQN.transactionType)))
-                            .exchange(getAttrValue(e, TradeQN.exchange))
-                            .quantity(getAttrBigDecimal(e, TradeQN.quantity))
-                            .tradePrice(getAttrBigDecimal(e, TradeQN.tradePrice))
-                            .tradeMoney(getAttrBigDecimal(e, TradeQN.tradeMoney))
-                            .proceeds(getAttrBigDecimal(e, TradeQN.proceeds))
-                            .taxes(getAttrBigDecimal(e, TradeQN.taxes))
-                            .ibCommission(getAttrBigDecimal(e, TradeQN.ibCommission))
-                            .ibCommissionCurrency(parseEnum(Currency::valueOf, getAttrValue(e, TradeQN.ibCommissionCurrency)))
-                            .netCash(getAttrBigDecimal(e, TradeQN.netCash))
-                            .cost(getAttrBigDecimal(e, TradeQN.cost))
-                            .buySell(parseEnum(BuySell::fromValue, getAttrValue(e, TradeQN.buySell)))
-                            .transactionID(getAttrValue(e, TradeQN.transactionID))
-                            .ibOrderID(getAttrValue(e, TradeQN.ibOrderID))
-                            .extraDateTimeStr(getAttrValue(e, TradeQN.dateTime))
-                            .orderTime(parseZonedDateTime(getAttrValue(e, TradeQN.orderTime)))
-                            .build());
-                    case "CashTransaction" -> cashTransactions.add(new CashTransactionBuilder()
-                            .currency(parseEnum(Currency::valueOf, getAttrValue(e, CashTransactionQN.currency)))
-                            .fxRateToBase(getAttrBigDecimal(e, CashTransactionQN.fxRateToBase))
-                            .symbol(getAttrValue(e, CashTransactionQN.symbol))
-                            .listingExchange(getAttrValue(e, CashTransactionQN.listingExchange))
-                            .assetCategory(parseEnum(AssetCategory::fromValue, getAttrValue(e, CashTransactionQN.assetCategory)))
-                            .assetSubCategory(parseEnum(AssetSubCategory::fromValue, getAttrValue(e, CashTransactionQN.subCategory)))
-                            .figi(getAttrValue(e, CashTransactionQN.figi))
-                            .isin(getAttrValue(e, CashTransactionQN.isin))
-                            .securityID(getAttrValue(e, CashTransactionQN.securityID))
-                            .securityIDType(parseEnum(SecurityIDType::fromValue, getAttrValue(e, CashTransactionQN.securityIDType)))
-                            .description(getAttrValue(e, CashTransactionQN.description))
-                            .settleDate(parseDate(getAttrValue(e, CashTransactionQN.settleDate)))
-                            .amount(getAttrBigDecimal(e, CashTransactionQN.amount))
-                            .type(parseEnum(CashTransactionType::fromValue, getAttrValue(e, CashTransactionQN.type)))
-                            .transactionID(getAttrValue(e, CashTransactionQN.transactionID))
-                            .reportDate(parseDate(getAttrValue(e, CashTransactionQN.reportDate)))
-                            .actionID(getAttrValue(e, CashTransactionQN.actionID))
-                            .extraDateTimeStr(getAttrValue(e, CashTransactionQN.dateTime))
-                            .build());
-                    case "CorporateAction" -> corporateActions.add(new CorporateActionBuilder()
-                            .reportDate(parseDate(getAttrValue(e, CorporateActionQN.reportDate)))
-                            .assetCategory(parseEnum(AssetCategory::fromValue, getAttrValue(e, CorporateActionQN.assetCategory)))
-                            .assetSubCategory(parseEnum(AssetSubCategory::fromValue, getAttrValue(e, CorporateActionQN.subCategory)))
-                            .symbol(getAttrValue(e, CorporateActionQN.symbol))
-                            .type(parseEnum(CorporateActionType::fromValue, getAttrValue(e, CorporateActionQN.type)))
-                            .currency(parseEnum(Currency::valueOf, getAttrValue(e, CorporateActionQN.currency)))
-                            .amount(getAttrBigDecimal(e, CorporateActionQN.amount))
-                            .value(getAttrBigDecimal(e, CorporateActionQN.value))
-                            .quantity(getAttrBigDecimal(e, CorporateActionQN.quantity))
-                            .proceeds(getAttrBigDecimal(e, CorporateActionQN.proceeds))
-                            .description(getAttrValue(e, CorporateActionQN.description))
-                            .securityID(getAttrValue(e, CorporateActionQN.securityID))
-                            .securityIDType(parseEnum(SecurityIDType::fromValue, getAttrValue(e, CorporateActionQN.securityIDType)))
-                            .figi(getAttrValue(e, CorporateActionQN.figi))
-                            .isin(getAttrValue(e, CorporateActionQN.isin))
-                            .listingExchange(getAttrValue(e, CorporateActionQN.listingExchange))
-                            .issuerCountryCode(getAttrValue(e, CorporateActionQN.issuerCountryCode))
-                            .extraDateTimeStr(getAttrValue(e, CorporateActionQN.dateTime))
-                            .transactionId(getAttrValue(e, CorporateActionQN.transactionID))
-                            .actionID(getAttrValue(e, CorporateActionQN.actionID))
-                            .build());
-                    case "EquitySummaryByReportDateInBase" -> equitySummaries.add(new EquitySummaryBuilder()
-                            .currency(parseEnum(Currency::valueOf, getAttrValue(e, EquitySummaryQN.currency)))
-                            .reportDate(parseDate(getAttrValue(e, EquitySummaryQN.reportDate)))
-                            .cash(getAttrBigDecimal(e, EquitySummaryQN.cash))
-                            .stock(getAttrBigDecimal(e, EquitySummaryQN.stock))
-                            .dividendAccruals(getAttrBigDecimal(e, EquitySummaryQN.dividendAccruals))
-                            .interestAccruals(getAttrBigDecimal(e, EquitySummaryQN.interestAccruals))
-                            .total(getAttrBigDecimal(e, EquitySummaryQN.total))
-                            .build());
-                    case "Transfer" -> {
-                        AssetCategory assetCat = parseEnum(AssetCategory::fromValue, getAttrValue(e, TransferQN.assetCategory));
-                        String type = getAttrValue(e, TransferQN.type);
-                        if (assetCat.equals(AssetCategory.CASH) && type.equals("INTERNAL")) {
-                            continue;
-                        }
-                        if (assetCat.equals(AssetCategory.STK) && type.equals("INTERCOMPANY")) {
-                            continue;
-                        }
-                        throw new IllegalStateException("Unsupported transfer: %s, %s".formatted(assetCat, type));
-                    }
-                }
+            XMLStreamReader reader = Lazy.xmlInputFactory.createXMLStreamReader(new StringReader(statementXmlContent));
+            try {
+                statement = parseActivityStatement(reader, statementXmlContent.length());
+            } finally {
+                reader.close();
             }
         } catch (XMLStreamException e) {
             Lazy.LOG.error("XMLStreamException while parsing: %s".formatted(statementXmlContent), e);
             throw new RuntimeException(e);
         }
-        if (statementBldr == null) {
+        if (statement == null) {
             Lazy.LOG.error("Expected node 'FlexStatement' was not found while parsing ActivityStatement: {}", statementXmlContent);
             throw new IllegalArgumentException("Expected node 'FlexStatement' was not found while parsing ActivityStatement");
         }
-        return statementBldr.build();
+        return statement;
     }
 
     @Override
-    public FlexStatement.TradeConfirmStatement parseTradeConfirmStatement(String statementXmlContent) {
+    public FlexStatement.ActivityStatement parseActivityStatement(InputStream statementXmlContent) {
+        FlexStatement.ActivityStatement statement;
+        try {
+            XMLStreamReader reader = Lazy.xmlInputFactory.createXMLStreamReader(statementXmlContent, UTF_8.name());
+            try {
+                statement = parseActivityStatement(reader, availableBytes(statementXmlContent));
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            Lazy.LOG.error("XMLStreamException while parsing ActivityStatement stream", e);
+            throw new RuntimeException(e);
+        }
+        if (statement == null) {
+            throw new IllegalArgumentException("Expected node 'FlexStatement' was not found while parsing ActivityStatement");
+        }
+        return statement;
+    }
 
-        TradeConfirmStatementBuilder statementBldr = null;
+    @Override
+    public FlexStatement.TradeConfirmStatement parseTradeConfirmStatement(InputStream statementXmlContent) {
+        FlexStatement.TradeConfirmStatement statement;
+        try {
+            XMLStreamReader reader = Lazy.xmlInputFactory.createXMLStreamReader(statementXmlContent, UTF_8.name());
+            try {
+                statement = parseTradeConfirmStatement(reader, availableBytes(statementXmlContent));
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            Lazy.LOG.error("XMLStreamException while parsing TradeConfirmStatement stream", e);
+            throw new RuntimeException(e);
+        }
+        if (statement == null) {
+            throw new IllegalArgumentException("Expected node 'FlexStatement' was not found while parsing TradeConfirmStatement");
+        }
+        return statement;
+    }
 
-        List<TradeConfirm> tradeConfirms = new LinkedList<>();
+    /// @param contentLength length of the statement in chars or bytes, used to pre-size the record lists
+    /// @return null if the statement contains no FlexStatement element
+    private FlexStatement.ActivityStatement parseActivityStatement(XMLStreamReader reader, int contentLength) throws XMLStreamException {
 
-        try {
-            XMLEventReader reader = Lazy.xmlInputFactory.createXMLEventReader(new StringReader(statementXmlContent));
-            while (reader.hasNext()) {
-                XMLEvent xmlEvent = reader.nextEvent();
-                if (!xmlEvent.isStartElement()) {
-                    continue;
+        ActivityStatementBuilder statementBldr = null;
+
+        List<CashTransaction> cashTransactions = new ArrayList<>(contentLength / Lazy.CASH_TRAN_CHARS_ESTIMATE);
+        List<CorporateAction> corporateActions = new ArrayList<>();
+        ArrayList<EquitySummary> equitySummaries = new ArrayList<>();
+        List<Trade> trades = new ArrayList<>(contentLength / Lazy.TRADE_CHARS_ESTIMATE);
+
+        AttrReader<FlexQueryResponseAttr> responseAttrs = new AttrReader<>(FlexQueryResponseAttr.class);
+        AttrReader<FlexStatementAttr> statementAttrs = new AttrReader<>(FlexStatementAttr.class);
+        AttrReader<TradeAttr> t = new AttrReader<>(TradeAttr.class);
+        AttrReader<CashTransactionAttr> c = new AttrReader<>(CashTransactionAttr.class);
+        AttrReader<CorporateActionAttr> ca = new AttrReader<>(CorporateActionAttr.class);
+        AttrReader<EquitySummaryAttr> es = new AttrReader<>(EquitySummaryAttr.class);
+        AttrReader<TransferAttr> tr = new AttrReader<>(TransferAttr.class);
+
+        while (reader.hasNext()) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "FlexQueryResponse" -> {
+                    responseAttrs.read(reader);
+                    FlexStatementType flexStatementType = parseEnum(FlexStatementType::fromValue, responseAttrs.get(FlexQueryResponseAttr.type));
+                    Assert.equal(FlexStatementType.ACT, flexStatementType);
                 }
-                StartElement e = xmlEvent.asStartElement();
-                switch (e.getName().getLocalPart()) {
-                    case "FlexQueryResponse" -> {
-                        FlexStatementType flexStatementType = parseEnum(FlexStatementType::fromValue, getAttrValue(e, FlexQueryResponseQN.type));
-                        Assert.equal(FlexStatementType.TC, flexStatementType);
+                case "FlexStatement" -> {
+                    Assert.isNull(statementBldr);
+                    statementAttrs.read(reader);
+                    LocalDate fromDate = parseDate(statementAttrs.get(FlexStatementAttr.fromDate));
+                    LocalDate toDate = parseDate(statementAttrs.get(FlexStatementAttr.toDate));
+                    if (fromDate != null && toDate != null && !toDate.isBefore(fromDate)) {
+                        equitySummaries.ensureCapacity((int) ChronoUnit.DAYS.between(fromDate, toDate) + 1);
                     }
-                    case "FlexStatement" -> {
-                        Assert.isNull(statementBldr);
-                        statementBldr = new TradeConfirmStatementBuilder()
-                                .accountId(getAttrValue(e, FlexStatementQN.accountId))
-                                .fromDate(parseDate(getAttrValue(e, FlexStatementQN.fromDate)))
-                                .toDate(parseDate(getAttrValue(e, FlexStatementQN.toDate)))
-                                .whenGenerated(parseZonedDateTime(getAttrValue(e, FlexStatementQN.whenGenerated)))
-                                .tradeConfirmations(tradeConfirms);
+                    statementBldr = new ActivityStatementBuilder()
+                            .accountId(statementAttrs.get(FlexStatementAttr.accountId))
+                            .fromDate(fromDate)
+                            .toDate(toDate)
+                            .whenGenerated(parseZonedDateTime(statementAttrs.get(FlexStatementAttr.whenGenerated)))
+                            .corporateActions(corporateActions)
+                            .cashTransactions(cashTransactions)
+                            .trades(trades)
+                            .equitySummaries(equitySummaries);
+                }
+                case "Trade" -> trades.add(new TradeBuilder()
+                        .currency(parseEnum(Currency::valueOf, t.read(reader).get(TradeAttr.currency)))
+                        .assetCategory(parseEnum(AssetCategory::fromValue, t.get(TradeAttr.assetCategory)))
+                        .assetSubCategory(parseEnum(AssetSubCategory::fromValue, t.get(TradeAttr.subCategory)))
+                        .symbol(t.get(TradeAttr.symbol))
+                        .description(t.get(TradeAttr.description))
+                        .securityID(t.get(TradeAttr.securityID))
+                        .securityIDType(parseEnum(SecurityIDType::fromValue, t.get(TradeAttr.securityIDType)))
+                        .figi(t.get(TradeAttr.figi))
+                        .isin(t.get(TradeAttr.isin))
+                        .listingExchange(t.get(TradeAttr.listingExchange))
+                        .tradeID(t.get(TradeAttr.tradeID))
+                        .reportDate(parseDate(t.get(TradeAttr.reportDate)))
+                        .tradeDate(parseDate(t.get(TradeAttr.tradeDate)))
+                        .settleDateTarget(parseDate(t.get(TradeAttr.settleDateTarget)))
+                        .transactionType(parseEnum(TradeType::fromValue, t.get(TradeAttr.transactionType)))
+                        .exchange(t.get(TradeAttr.exchange))
+                        .quantity(t.getBigDecimal(TradeAttr.quantity))
+                        .tradePrice(t.getBigDecimal(TradeAttr.tradePrice))
+                        .tradeMoney(t.getBigDecimal(TradeAttr.tradeMoney))
+                        .proceeds(t.getBigDecimal(TradeAttr.proceeds))
+                        .taxes(t.getBigDecimal(TradeAttr.taxes))
+                        .ibCommission(t.getBigDecimal(TradeAttr.ibCommission))
+                        .ibCommissionCurrency(parseEnum(Currency::valueOf, t.get(TradeAttr.ibCommissionCurrency)))
+                        .netCash(t.getBigDecimal(TradeAttr.netCash))
+                        .cost(t.getBigDecimal(TradeAttr.cost))
+                        .buySell(parseEnum(BuySell::fromValue, t.get(TradeAttr.buySell)))
+                        .transactionID(t.get(TradeAttr.transactionID))
+                        .ibOrderID(t.get(TradeAttr.ibOrderID))
+                        .extraDateTimeStr(t.get(TradeAttr.dateTime))
+                        .orderTime(parseZonedDateTime(t.get(TradeAttr.orderTime)))
+                        .build());
+                case "CashTransaction" -> cashTransactions.add(new CashTransactionBuilder()
+                        .currency(parseEnum(Currency::valueOf, c.read(reader).get(CashTransactionAttr.currency)))
+                        .fxRateToBase(c.getBigDecimal(CashTransactionAttr.fxRateToBase))
+                        .symbol(c.get(CashTransactionAttr.symbol))
+                        .listingExchange(c.get(CashTransactionAttr.listingExchange))
+                        .assetCategory(parseEnum(AssetCategory::fromValue, c.get(CashTransactionAttr.assetCategory)))
+                        .assetSubCategory(parseEnum(AssetSubCategory::fromValue, c.get(CashTransactionAttr.subCategory)))
+                        .figi(c.get(CashTransactionAttr.figi))
+                        .isin(c.get(CashTransactionAttr.isin))
+                        .securityID(c.get(CashTransactionAttr.securityID))
+                        .securityIDType(parseEnum(SecurityIDType::fromValue, c.get(CashTransactionAttr.securityIDType)))
+                        .description(c.get(CashTransactionAttr.description))
+                        .settleDate(parseDate(c.get(CashTransactionAttr.settleDate)))
+                        .amount(c.getBigDecimal(CashTransactionAttr.amount))
+                        .type(parseEnum(CashTransactionType::fromValue, c.get(CashTransactionAttr.type)))
+                        .transactionID(c.get(CashTransactionAttr.transactionID))
+                        .reportDate(parseDate(c.get(CashTransactionAttr.reportDate)))
+                        .actionID(c.get(CashTransactionAttr.actionID))
+                        .extraDateTimeStr(c.get(CashTransactionAttr.dateTime))
+                        .build());
+                case "CorporateAction" -> corporateActions.add(new CorporateActionBuilder()
+                        .reportDate(parseDate(ca.read(reader).get(CorporateActionAttr.reportDate)))
+                        .assetCategory(parseEnum(AssetCategory::fromValue, ca.get(CorporateActionAttr.assetCategory)))
+                        .assetSubCategory(parseEnum(AssetSubCategory::fromValue, ca.get(CorporateActionAttr.subCategory)))
+                        .symbol(ca.get(CorporateActionAttr.symbol))
+                        .type(parseEnum(CorporateActionType::fromValue, ca.get(CorporateActionAttr.type)))
+                        .currency(parseEnum(Currency::valueOf, ca.get(CorporateActionAttr.currency)))
+                        .amount(ca.getBigDecimal(CorporateActionAttr.amount))
+                        .value(ca.getBigDecimal(CorporateActionAttr.value))
+                        .quantity(ca.getBigDecimal(CorporateActionAttr.quantity))
+                        .proceeds(ca.getBigDecimal(CorporateActionAttr.proceeds))
+                        .description(ca.get(CorporateActionAttr.description))
+                        .securityID(ca.get(CorporateActionAttr.securityID))
+                        .securityIDType(parseEnum(SecurityIDType::fromValue, ca.get(CorporateActionAttr.securityIDType)))
+                        .figi(ca.get(CorporateActionAttr.figi))
+                        .isin(ca.get(CorporateActionAttr.isin))
+                        .listingExchange(ca.get(CorporateActionAttr.listingExchange))
+                        .issuerCountryCode(ca.get(CorporateActionAttr.issuerCountryCode))
+                        .extraDateTimeStr(ca.get(CorporateActionAttr.dateTime))
+                        .transactionId(ca.get(CorporateActionAttr.transactionID))
+                        .actionID(ca.get(CorporateActionAttr.actionID))
+                        .build());
+                case "EquitySummaryByReportDateInBase" -> equitySummaries.add(new EquitySummaryBuilder()
+                        .currency(parseEnum(Currency::valueOf, es.read(reader).get(EquitySummaryAttr.currency)))
+                        .reportDate(parseDate(es.get(EquitySummaryAttr.reportDate)))
+                        .cash(es.getBigDecimal(EquitySummaryAttr.cash))
+                        .stock(es.getBigDecimal(EquitySummaryAttr.stock))
+                        .dividendAccruals(es.getBigDecimal(EquitySummaryAttr.dividendAccruals))
+                        .interestAccruals(es.getBigDecimal(EquitySummaryAttr.interestAccruals))
+                        .total(es.getBigDecimal(EquitySummaryAttr.total))
+                        .build());
+                case "Transfer" -> {
+                    tr.read(reader);
+                    AssetCategory assetCat = parseEnum(AssetCategory::fromValue, tr.get(TransferAttr.assetCategory));
+                    String type = tr.get(TransferAttr.type);
+                    if (assetCat.equals(AssetCategory.CASH) && type.equals("INTERNAL")) {
+                        continue;
+                    }
+                    if (assetCat.equals(AssetCategory.STK) && type.equals("INTERCOMPANY")) {
+                        continue;
                     }
-                    case "TradeConfirm" -> tradeConfirms.add(new TradeConfirmBuilder()
-                            .currency(parseEnum(Currency::valueOf, getAttrValue(e, TradeConfirmQN.currency)))
-                            .assetCategory(parseEnum(AssetCategory::fromValue, getAttrValue(e, TradeConfirmQN.assetCategory)))
-                            .assetSubCategory(parseEnum(AssetSubCategory::fromValue, getAttrValue(e, TradeConfirmQN.subCategory)))
-                            .symbol(getAttrValue(e, TradeConfirmQN.symbol))
-                            .description(getAttrValue(e, TradeConfirmQN.description))
-                            .securityID(getAttrValue(e, TradeConfirmQN.securityID))
-                            .securityIDType(parseEnum(SecurityIDType::fromValue, getAttrValue(e, TradeConfirmQN.securityIDType)))
-                            .figi(getAttrValue(e, TradeConfirmQN.figi))
-                            .isin(getAttrValue(e, TradeConfirmQN.isin))
-                            .listingExchange(getAttrValue(e, TradeConfirmQN.listingExchange))
-                            .tradeID(getAttrValue(e, TradeConfirmQN.tradeID))
-                            .reportDate(parseDate(getAttrValue(e, TradeConfirmQN.reportDate)))
-                            .tradeDate(parseDate(getAttrValue(e, TradeConfirmQN.tradeDate)))
-                            .settleDate(parseDate(getAttrValue(e, TradeConfirmQN.settleDate)))
-                            .transactionType(parseEnum(TradeType::fromValue, getAttrValue(e, TradeConfirmQN.transactionType)))
-                            .exchange(getAttrValue(e, TradeConfirmQN.exchange))
-                            .quantity(getAttrBigDecimal(e, TradeConfirmQN.quantity))
-                            .price(getAttrBigDecimal(e, TradeConfirmQN.price))
-                            .amount(getAttrBigDecimal(e, TradeConfirmQN.amount))
-                            .proceeds(getAttrBigDecimal(e, TradeConfirmQN.proceeds))
-                            .netCash(getAttrBigDecimal(e, TradeConfirmQN.netCash))
-                            .commission(getAttrBigDecimal(e, TradeConfirmQN.commission))
-                            .commissionCurrency(parseEnum(Currency::valueOf, getAttrValue(e, TradeConfirmQN.commissionCurrency)))
-                            .tax(getAttrBigDecimal(e, TradeConfirmQN.tax))
-                            .buySell(parseEnum(BuySell::fromValue, getAttrValue(e, TradeConfirmQN.buySell)))
-                            .orderID(getAttrValue(e, TradeConfirmQN.orderID))
-                            .extraDateTimeStr(getAttrValue(e, TradeConfirmQN.dateTime))
-                            .orderTime(parseZonedDateTime(getAttrValue(e, TradeConfirmQN.orderTime)))
-                            .build());
+                    throw new IllegalStateException("Unsupported transfer: %s, %s".formatted(assetCat, type));
+                }
+                default -> {
                 }
             }
+        }
+        return statementBldr == null ? null : statementBldr.build();
+    }
 
+    @Override
+    public FlexStatement.TradeConfirmStatement parseTradeConfirmStatement(String statementXmlContent) {
+        FlexStatement.TradeConfirmStatement statement;
+        try {
+            XMLStreamReader reader = Lazy.xmlInputFactory.createXMLStreamReader(new StringReader(statementXmlContent));
+            try {
+                statement = parseTradeConfirmStatement(reader, statementXmlContent.length());
+            } finally {
+                reader.close();
+            }
         } catch (XMLStreamException e) {
             Lazy.LOG.error("XMLStreamException while parsing: %s".formatted(statementXmlContent), e);
             throw new RuntimeException(e);
         }
-        if (statementBldr == null) {
+        if (statement == null) {
             Lazy.LOG.error("Expected node 'FlexStatement' was not found while parsing TradeConfirmStatement: {}", statementXmlContent);
             throw new IllegalArgumentException("Expected node 'FlexStatement' was not found while parsing TradeConfirmStatement");
         }
-        return statementBldr.build();
+        return statement;
     }
 
-    private String getAttrValue(StartElement e, QName attributeName) {
-        return e.getAttributeByName(attributeName).getValue();
+    /// @param contentLength length of the statement in chars or bytes, used to pre-size the record list
+    /// @return null if the statement contains no FlexStatement element
+    private FlexStatement.TradeConfirmStatement parseTradeConfirmStatement(XMLStreamReader reader, int contentLength) throws XMLStreamException {
+
+        TradeConfirmStatementBuilder statementBldr = null;
+
+        List<TradeConfirm> tradeConfirms = new ArrayList<>(contentLength / Lazy.TRADE_CHARS_ESTIMATE);
+
+        AttrReader<FlexQueryResponseAttr> responseAttrs = new AttrReader<>(FlexQueryResponseAttr.class);
+        AttrReader<FlexStatementAttr> statementAttrs = new AttrReader<>(FlexStatementAttr.class);
+        AttrReader<TradeConfirmAttr> tc = new AttrReader<>(TradeConfirmAttr.class);
+
+        while (reader.hasNext()) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "FlexQueryResponse" -> {
+                    responseAttrs.read(reader);
+                    FlexStatementType flexStatementType = parseEnum(FlexStatementType::fromValue, responseAttrs.get(FlexQueryResponseAttr.type));
+                    Assert.equal(FlexStatementType.TC, flexStatementType);
+                }
+                case "FlexStatement" -> {
+                    Assert.isNull(statementBldr);
+                    statementAttrs.read(reader);
+                    statementBldr = new TradeConfirmStatementBuilder()
+                            .accountId(statementAttrs.get(FlexStatementAttr.accountId))
+                            .fromDate(parseDate(statementAttrs.get(FlexStatementAttr.fromDate)))
+                            .toDate(parseDate(statementAttrs.get(FlexStatementAttr.toDate)))
+                            .whenGenerated(parseZonedDateTime(statementAttrs.get(FlexStatementAttr.whenGenerated)))
+                            .tradeConfirmations(tradeConfirms);
+                }
+                case "TradeConfirm" -> tradeConfirms.add(new TradeConfirmBuilder()
+                        .currency(parseEnum(Currency::valueOf, tc.read(reader).get(TradeConfirmAttr.currency)))
+                        .assetCategory(parseEnum(AssetCategory::fromValue, tc.get(TradeConfirmAttr.assetCategory)))
+                        .assetSubCategory(parseEnum(AssetSubCategory::fromValue, tc.get(TradeConfirmAttr.subCategory)))
+                        .symbol(tc.get(TradeConfirmAttr.symbol))
+                        .description(tc.get(TradeConfirmAttr.description))
+                        .securityID(tc.get(TradeConfirmAttr.securityID))
+                        .securityIDType(parseEnum(SecurityIDType::fromValue, tc.get(TradeConfirmAttr.securityIDType)))
+                        .figi(tc.get(TradeConfirmAttr.figi))
+                        .isin(tc.get(TradeConfirmAttr.isin))
+                        .listingExchange(tc.get(TradeConfirmAttr.listingExchange))
+                        .tradeID(tc.get(TradeConfirmAttr.tradeID))
+                        .reportDate(parseDate(tc.get(TradeConfirmAttr.reportDate)))
+                        .tradeDate(parseDate(tc.get(TradeConfirmAttr.tradeDate)))
+                        .settleDate(parseDate(tc.get(TradeConfirmAttr.settleDate)))
+                        .transactionType(parseEnum(TradeType::fromValue, tc.get(TradeConfirmAttr.transactionType)))
+                        .exchange(tc.get(TradeConfirmAttr.exchange))
+                        .quantity(tc.getBigDecimal(TradeConfirmAttr.quantity))
+                        .price(tc.getBigDecimal(TradeConfirmAttr.price))
+                        .amount(tc.getBigDecimal(TradeConfirmAttr.amount))
+                        .proceeds(tc.getBigDecimal(TradeConfirmAttr.proceeds))
+                        .netCash(tc.getBigDecimal(TradeConfirmAttr.netCash))
+                        .commission(tc.getBigDecimal(TradeConfirmAttr.commission))
+                        .commissionCurrency(parseEnum(Currency::valueOf, tc.get(TradeConfirmAttr.commissionCurrency)))
+                        .tax(tc.getBigDecimal(TradeConfirmAttr.tax))
+                        .buySell(parseEnum(BuySell::fromValue, tc.get(TradeConfirmAttr.buySell)))
+                        .orderID(tc.get(TradeConfirmAttr.orderID))
+                        .extraDateTimeStr(tc.get(TradeConfirmAttr.dateTime))
+                        .orderTime(parseZonedDateTime(tc.get(TradeConfirmAttr.orderTime)))
+                        .build());
+                default -> {
+                }
+            }
+        }
+        return statementBldr == null ? null : statementBldr.build();
     }
 
-    private BigDecimal getAttrBigDecimal(StartElement e, QName attributeName) {
-        return new BigDecimal(getAttrValue(e, attributeName));
+    private static int availableBytes(InputStream in) {
+        try {
+            return in.available();
+        } catch (IOException e) {
+            return 0;
+        }
     }
 
     private <E extends Enum<E>> E parseEnum(Function<String, E> strToEnumFnc, String str) {
@@ -306,138 +395,193 @@ public class IbkrStatementParserImpl implements IbkrStatementParser {
         return LocalDate.parse(str, Lazy.ibkrDf);
     }
 
-    private static class FlexQueryResponseQN {
-        static final QName type = new QName("type");
+    private enum FlexQueryResponseAttr {
+        type
+    }
+
+    private enum FlexStatementAttr {
+        accountId,
+        fromDate,
+        toDate,
+        whenGenerated
     }
 
-    private static class FlexStatementQN {
-        static final QName accountId = new QName("accountId");
-        static final QName fromDate = new QName("fromDate");
-        static final QName toDate = new QName("toDate");
-        static final QName whenGenerated = new QName("whenGenerated");
+    private enum CashTransactionAttr {
+        currency,
+        fxRateToBase,
+        description,
+        symbol,
+        listingExchange,
+        assetCategory,
+        subCategory,
+        figi,
+        isin,
+        securityID,
+        securityIDType,
+        dateTime,
+        settleDate,
+        amount,
+        type,
+        transactionID,
+        reportDate,
+        actionID
     }
 
-    private static class CashTransactionQN {
-        static final QName currency = new QName("currency");
-        static final QName fxRateToBase = new QName("fxRateToBase");
-        static final QName description = new QName("description");
-        static final QName symbol = new QName("symbol");
-        static final QName listingExchange = new QName("listingExchange");
-        static final QName assetCategory = new QName("assetCategory");
-        static final QName subCategory = new QName("subCategory");
-        static final QName figi = new QName("figi");
-        static final QName isin = new QName("isin");
-        static final QName securityID = new QName("securityID");
-        static final QName securityIDType = new QName("securityIDType");
-        static final QName dateTime = new QName("dateTime");
-        static final QName settleDate = new QName("settleDate");
-        static final QName amount = new QName("amount");
-        static final QName type = new QName("type");
-        static final QName transactionID = new QName("transactionID");
-        static final QName reportDate = new QName("reportDate");
-        static final QName actionID = new QName("actionID");
+    private enum TradeAttr {
+        currency,
+        assetCategory,
+        subCategory,
+        symbol,
+        description,
+        securityID,
+        securityIDType,
+        figi,
+        isin,
+        listingExchange,
+        tradeID,
+        reportDate,
+        dateTime,
+        tradeDate,
+        settleDateTarget,
+        transactionType,
+        exchange,
+        quantity,
+        tradePrice,
+        tradeMoney,
+        proceeds,
+        taxes,
+        ibCommission,
+        ibCommissionCurrency,
+        netCash,
+        cost,
+        buySell,
+        transactionID,
+        ibOrderID,
+        orderTime
     }
 
-    private static class TradeQN {
-        static final QName currency = new QName("currency");
-        static final QName assetCategory = new QName("assetCategory");
-        static final QName subCategory = new QName("subCategory");
-        static final QName symbol = new QName("symbol");
-        static final QName description = new QName("description");
-        static final QName securityID = new QName("securityID");
-        static final QName securityIDType = new QName("securityIDType");
-        static final QName figi = new QName("figi");
-        static final QName isin = new QName("isin");
-        static final QName listingExchange = new QName("listingExchange");
-        static final QName tradeID = new QName("tradeID");
-        static final QName reportDate = new QName("reportDate");
-        static final QName dateTime = new QName("dateTime");
-        static final QName tradeDate = new QName("tradeDate");
-        static final QName settleDateTarget = new QName("settleDateTarget");
-        static final QName transactionType = new QName("transactionType");
-        static final QName exchange = new QName("exchange");
-        static final QName quantity = new QName("quantity");
-        static final QName tradePrice = new QName("tradePrice");
-        static final QName tradeMoney = new QName("tradeMoney");
-        static final QName proceeds = new QName("proceeds");
-        static final QName taxes = new QName("taxes");
-        static final QName ibCommission = new QName("ibCommission");
-        static final QName ibCommissionCurrency = new QName("ibCommissionCurrency");
-        static final QName netCash = new QName("netCash");
-        static final QName cost = new QName("cost");
-        static final QName buySell = new QName("buySell");
-        static final QName transactionID = new QName("transactionID");
-        static final QName ibOrderID = new QName("ibOrderID");
-        static final QName orderTime = new QName("orderTime");
+    private enum TradeConfirmAttr {
+        currency,
+        assetCategory,
+        subCategory,
+        symbol,
+        description,
+        securityID,
+        securityIDType,
+        figi,
+        isin,
+        listingExchange,
+        tradeID,
+        reportDate,
+        dateTime,
+        tradeDate,
+        settleDate,
+        transactionType,
+        exchange,
+        quantity,
+        price,
+        amount,
+        proceeds,
+        netCash,
+        tax,
+        commission,
+        commissionCurrency,
+        buySell,
+        orderID,
+        orderTime
     }
 
-    private static class TradeConfirmQN {
-        static final QName currency = new QName("currency");
-        static final QName assetCategory = new QName("assetCategory");
-        static final QName subCategory = new QName("subCategory");
-        static final QName symbol = new QName("symbol");
-        static final QName description = new QName("description");
-        static final QName securityID = new QName("securityID");
-        static final QName securityIDType = new QName("securityIDType");
-        static final QName figi = new QName("figi");
-        static final QName isin = new QName("isin");
-        static final QName listingExchange = new QName("listingExchange");
-        static final QName tradeID = new QName("tradeID");
-        static final QName reportDate = new QName("reportDate");
-        static final QName dateTime = new QName("dateTime");
-        static final QName tradeDate = new QName("tradeDate");
-        static final QName settleDate = new QName("settleDate");
-        static final QName transactionType = new QName("transactionType");
-        static final QName exchange = new QName("exchange");
-        static final QName quantity = new QName("quantity");
-        static final QName price = new QName("price");
-        static final QName amount = new QName("amount");
-        static final QName proceeds = new QName("proceeds");
-        static final QName netCash = new QName("netCash");
-        static final QName tax = new QName("tax");
-        static final QName commission = new QName("commission");
-        static final QName commissionCurrency = new QName("commissionCurrency");
-        static final QName buySell = new QName("buySell");
-        static final QName orderID = new QName("orderID");
-        static final QName orderTime = new QName("orderTime");
+    private enum CorporateActionAttr {
+        currency,
+        assetCategory,
+        subCategory,
+        symbol,
+        description,
+        securityID,
+        securityIDType,
+        figi,
+        isin,
+        listingExchange,
+        issuerCountryCode,
+        reportDate,
+        dateTime,
+        type,
+        quantity,
+        amount,
+        proceeds,
+        value,
+        transactionID,
+        actionID
     }
 
-    private static class CorporateActionQN {
-        static final QName currency = new QName("currency");
-        static final QName assetCategory = new QName("assetCategory");
-        static final QName subCategory = new QName("subCategory");
-        static final QName symbol = new QName("symbol");
-        static final QName description = new QName("description");
-        static final QName securityID = new QName("securityID");
-        static final QName securityIDType = new QName("securityIDType");
-        static final QName figi = new QName("figi");
-        static final QName isin = new QName("isin");
-        static final QName listingExchange = new QName("listingExchange");
-        static final QName issuerCountryCode = new QName("issuerCountryCode");
-        static final QName reportDate = new QName("reportDate");
-        static final QName dateTime = new QName("dateTime");
-        static final QName type = new QName("type");
-        static final QName quantity = new QName("quantity");
-        static final QName amount = new QName("amount");
-        static final QName proceeds = new QName("proceeds");
-        static final QName value = new QName("value");
-        static final QName transactionID = new QName("transactionID");
-        static final QName actionID = new QName("actionID");
+    private enum EquitySummaryAttr {
+        currency,
+        reportDate,
+        cash,
+        stock,
+        dividendAccruals,
+        interestAccruals,
+        total
     }
 
-    private static class EquitySummaryQN {
-        static final QName currency = new QName("currency");
-        static final QName reportDate = new QName("reportDate");
-        static final QName cash = new QName("cash");
-        static final QName stock = new QName("stock");
-        static final QName dividendAccruals = new QName("dividendAccruals");
-        static final QName interestAccruals = new QName("interestAccruals");
-        static final QName total = new QName("total");
+    private enum TransferAttr {
+        assetCategory,
+        type
     }
 
-    private static class TransferQN {
-        static final QName assetCategory = new QName("assetCategory");
-        static final QName type = new QName("type");
+    /// Reads the attributes of the current start element into slots given by the constants of {@code A}.
+    /// Flex statements repeat the same attribute order for all elements of a kind, so the position
+    /// found for the first element is verified by name and reused for the following ones
+    /// instead of looking every attribute up by {@link javax.xml.namespace.QName}.
+    private static final class AttrReader<A extends Enum<A>> {
+
+        private final A[] attrs;
+
+        private final int[] positions;
+
+        private final String[] values;
+
+        private String elementName;
+
+        AttrReader(Class<A> attrType) {
+            this.attrs = attrType.getEnumConstants();
+            this.positions = new int[attrs.length];
+            this.values = new String[attrs.length];
+            Arrays.fill(positions, -1);
+        }
+
+        AttrReader<A> read(XMLStreamReader reader) {
+            elementName = reader.getLocalName();
+            int count = reader.getAttributeCount();
+            for (int slot = 0; slot < attrs.length; slot++) {
+                String name = attrs[slot].name();
+                int pos = positions[slot];
+                if (pos < 0 || pos >= count || !name.equals(reader.getAttributeLocalName(pos))) {
+                    pos = -1;
+                    for (int i = 0; i < count; i++) {
+                        if (name.equals(reader.getAttributeLocalName(i))) {
+                            pos = i;
+                            break;
+                        }
+                    }
+                    positions[slot] = pos;
+                }
+                values[slot] = pos < 0 ? null : reader.getAttributeValue(pos);
+            }
+            return this;
+        }
+
+        String get(A attr) {
+            String value = values[attr.ordinal()];
+            if (value == null) {
+                throw new IllegalStateException("Missing attribute '%s' of element '%s'".formatted(attr.name(), elementName));
+            }
+            return value;
+        }
+
+        BigDecimal getBigDecimal(A attr) {
+            return new BigDecimal(get(attr));
+        }
     }
 
     private static class Lazy {
@@ -450,6 +594,10 @@ public class IbkrStatementParserImpl implements IbkrStatementParser {
         private static final DateTimeFormatter ibkrDtf = DateTimeFormatter.ofPattern("yyyyMMdd;HHmmss z");
 
         private static final Pattern WHEN_GENERATED_PATTERN = Pattern.compile("whenGenerated=\"(.*?)\"");
+
+        /// Typical serialized size of a Trade or TradeConfirm element, used to pre-size the record lists
+        private static final int TRADE_CHARS_ESTIMATE = 1024;
+        private static final int CASH_TRAN_CHARS_ESTIMATE = 8 * 1024;
     }
 
 
@@ -0,0 +1,108 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrAccount;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.core.api.Module;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.brinvex.finance.types.enu.Currency.USD;
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IbkrActivitySnapshotTest {
+
+    private static final String ACCOUNT_ID = "U1234567";
+
+    private static final String SNAPSHOT_FILE_KEY = "%s-ACT-SNAPSHOT.xml".formatted(ACCOUNT_ID);
+
+    @Test
+    void activitySnapshot() {
+        String dmsWorkspace = "ibkr-dms-tmp-snapshot";
+        TestContext testCtx = new TestContext(IbkrModule.class);
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        Map<String, String> snapshotProps = Map.of(Module.PropKey.dmsWorkspace, dmsWorkspace, IbkrModule.PropKey.activitySnapshot, "true");
+        IbkrModule ibkrModule = testCtx.withProperties(snapshotProps).get(IbkrModule.class);
+        IbkrDms ibkrDms = ibkrModule.dms();
+        IbkrPtfActivityProvider snapshotProvider = ibkrModule.ptfProgressProvider();
+        IbkrPtfActivityProvider mergingProvider = testCtx.withProperties(Map.of(
+                        Module.PropKey.dmsWorkspace, dmsWorkspace,
+                        IbkrModule.PropKey.docKeyIndexMaxAge, "PT0S"))
+                .get(IbkrModule.class)
+                .ptfProgressProvider();
+
+        IbkrStatementGenerator generator = new IbkrStatementGenerator(
+                new LoadDataSpec(11, parse("2024-09-30"), 1, 3, LoadDataSpec.DEFAULT_SYMBOLS, List.of(ACCOUNT_ID)));
+        for (LocalDate month = parse("2024-01-01"); month.isBefore(parse("2024-07-01")); month = month.plusMonths(1)) {
+            putMonth(ibkrDms, generator, month);
+        }
+        IbkrAccount account = new IbkrAccount(ACCOUNT_ID, USD, parse("2024-01-01"), null, null, null, null);
+
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-06-30")),
+                snapshotProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-06-30")));
+        assertEquals(5, countSources(dms));
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-03-10"), parse("2024-04-20")),
+                snapshotProvider.getPtfProgressOffline(account, parse("2024-03-10"), parse("2024-04-20")));
+
+        // A statement after the watermark is folded into the snapshot
+        putMonth(ibkrDms, generator, parse("2024-07-01"));
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-02-01"), parse("2024-07-31")),
+                snapshotProvider.getPtfProgressOffline(account, parse("2024-02-01"), parse("2024-07-31")));
+        assertEquals(6, countSources(dms));
+
+        // The last statement replaced by a wider refetch is folded into the persisted snapshot, which stays the same
+        LocalDateTime snapshotModified = dms.getLastModifiedTime(ACCOUNT_ID, SNAPSHOT_FILE_KEY);
+        ibkrDms.delete(new ActivityDocKey(ACCOUNT_ID, parse("2024-07-01"), parse("2024-07-31")));
+        putPeriod(ibkrDms, generator, parse("2024-07-01"), parse("2024-08-10"));
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-08-10")),
+                snapshotProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-08-10")));
+        assertEquals(snapshotModified, dms.getLastModifiedTime(ACCOUNT_ID, SNAPSHOT_FILE_KEY));
+        assertEquals(6, countSources(dms));
+
+        // The persisted snapshot is used by a new instance
+        IbkrPtfActivityProvider reloadedProvider = testCtx.withProperties(snapshotProps).get(IbkrModule.class).ptfProgressProvider();
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-08-10")),
+                reloadedProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-08-10")));
+
+        // A statement after a missing period starts a new snapshot, the earlier periods are merged as before
+        putPeriod(ibkrDms, generator, parse("2024-09-01"), parse("2024-09-15"));
+        putPeriod(ibkrDms, generator, parse("2024-09-16"), parse("2024-09-30"));
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-09-01"), parse("2024-09-30")),
+                snapshotProvider.getPtfProgressOffline(account, parse("2024-09-01"), parse("2024-09-30")));
+        assertEquals(1, countSources(dms));
+        assertEquals(
+                mergingProvider.getPtfProgressOffline(account, parse("2024-05-01"), parse("2024-08-10")),
+                snapshotProvider.getPtfProgressOffline(account, parse("2024-05-01"), parse("2024-08-10")));
+    }
+
+    private static void putMonth(IbkrDms ibkrDms, IbkrStatementGenerator generator, LocalDate month) {
+        putPeriod(ibkrDms, generator, month, month.plusMonths(1).minusDays(1));
+    }
+
+    private static void putPeriod(IbkrDms ibkrDms, IbkrStatementGenerator generator, LocalDate fromDate, LocalDate toDate) {
+        ibkrDms.putActivityStatement(new ActivityDocKey(ACCOUNT_ID, fromDate, toDate), generator.activityStatement(ACCOUNT_ID, fromDate, toDate));
+    }
+
+    private static int countSources(Dms dms) {
+        return dms.getTextContent(ACCOUNT_ID, SNAPSHOT_FILE_KEY).split("<SnapshotSource ", -1).length - 1;
+    }
+}
@@ -3,21 +3,30 @@ package test.com.brinvex.ptfactivity.connector.ibkr;
 
 import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.TradeConfirmDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms.StoredActivityStatement;
+import com.brinvex.ptfactivity.core.api.Module;
 import com.brinvex.ptfactivity.testsupport.TestContext;
 import com.brinvex.dms.api.Dms;
 import com.brinvex.dms.api.DmsFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIf;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.LocalDate.parse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class IbkrDmsTest extends IbkrBaseTest {
@@ -123,5 +132,142 @@ class IbkrDmsTest extends IbkrBaseTest {
         assertEquals(content2, ibkrDms.getStatementContent(actDocKeys.get(1)));
         assertEquals(content3, ibkrDms.getStatementContent(actDocKeys.get(2)));
     }
-}
 
+    @Test
+    void docKeyIndex() {
+        String accountId = "U1234567";
+        String dmsWorkspace = "ibkr-dms-tmp2";
+        TestContext ptfactivity = testCtx.withProperties(Map.of(
+                Module.PropKey.dmsWorkspace, dmsWorkspace,
+                IbkrModule.PropKey.docKeyIndexMaxAge, "PT1H"));
+        Dms dms = ptfactivity.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        IbkrDms ibkrDms = ptfactivity.get(IbkrModule.class).dms();
+
+        assertTrue(ibkrDms.getActivityDocKeys(accountId, LocalDate.MIN, LocalDate.MAX).isEmpty());
+
+        ActivityDocKey yearKey = new ActivityDocKey(accountId, parse("2024-01-01"), parse("2024-12-31"));
+        ActivityDocKey nextYearKey = new ActivityDocKey(accountId, parse("2025-01-01"), parse("2025-01-10"));
+        assertTrue(ibkrDms.putActivityStatement(yearKey, "test content 1"));
+        assertTrue(ibkrDms.putActivityStatement(nextYearKey, "test content 2"));
+        ibkrDms.putTradeConfirmStatement(new TradeConfirmDocKey(accountId, parse("2025-01-11")), "test content 3");
+
+        // Inserted in front of the indexed keys and removed again
+        ActivityDocKey prevYearKey = new ActivityDocKey(accountId, parse("2023-01-01"), parse("2023-12-31"));
+        assertTrue(ibkrDms.putActivityStatement(prevYearKey, "test content 5"));
+        assertEquals(List.of(prevYearKey, yearKey, nextYearKey), ibkrDms.getActivityDocKeys(accountId, null, null));
+        assertEquals(List.of(yearKey), ibkrDms.getActivityDocKeys(accountId, parse("2024-06-01"), parse("2024-06-30")));
+        assertEquals(List.of(prevYearKey), ibkrDms.getActivityDocKeys(accountId, null, parse("2023-12-31")));
+        ibkrDms.delete(prevYearKey);
+        assertEquals(List.of(yearKey, nextYearKey), ibkrDms.getActivityDocKeys(accountId, null, null));
+
+        // Written behind the IbkrDms back, overlaps the yearly statement without being covered by it
+        dms.add(accountId, "%s-ACT-20240301-20250105.xml".formatted(accountId), "test content 4");
+        assertEquals(List.of(yearKey, nextYearKey), ibkrDms.getActivityDocKeys(accountId, LocalDate.MIN, LocalDate.MAX));
+
+        IbkrDms freshIbkrDms = testCtx.withProperties(Map.of(
+                        Module.PropKey.dmsWorkspace, dmsWorkspace,
+                        IbkrModule.PropKey.docKeyIndexMaxAge, "PT0S"))
+                .get(IbkrModule.class)
+                .dms();
+        ActivityDocKey overlappingKey = new ActivityDocKey(accountId, parse("2024-03-01"), parse("2025-01-05"));
+        assertEquals(List.of(yearKey, overlappingKey, nextYearKey), freshIbkrDms.getActivityDocKeys(accountId, null, null));
+        assertEquals(List.of(yearKey, overlappingKey), freshIbkrDms.getActivityDocKeys(accountId, parse("2024-06-01"), parse("2024-06-30")));
+        assertEquals(List.of(overlappingKey, nextYearKey), freshIbkrDms.getActivityDocKeys(accountId, parse("2025-01-02"), parse("2025-01-31")));
+        assertEquals(List.of(nextYearKey), freshIbkrDms.getActivityDocKeys(accountId, parse("2025-01-06"), null));
+        assertTrue(freshIbkrDms.getActivityDocKeys(accountId, parse("2025-01-11"), null).isEmpty());
+        assertEquals(1, freshIbkrDms.getTradeConfirmDocKeys(accountId, parse("2025-01-11"), parse("2025-01-11")).size());
+        assertTrue(freshIbkrDms.getTradeConfirmDocKeys(accountId, null, parse("2025-01-10")).isEmpty());
+
+        freshIbkrDms.delete(overlappingKey);
+        assertEquals(List.of(yearKey, nextYearKey), freshIbkrDms.getActivityDocKeys(accountId, null, null));
+    }
+
+    @Test
+    void putStreamedActivityStatement() {
+        String accountId = "U1234567";
+        String dmsWorkspace = "ibkr-dms-tmp3";
+        TestContext ptfactivity = testCtx.withProperties(Map.of(Module.PropKey.dmsWorkspace, dmsWorkspace));
+        Dms dms = ptfactivity.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        IbkrDms ibkrDms = ptfactivity.get(IbkrModule.class).dms();
+
+        String content = """
+                <FlexQueryResponse queryName="Test" type="AF">
+                <FlexStatements count="1">
+                <FlexStatement accountId="%s" fromDate="20240101" toDate="20240131" period="Custom" whenGenerated="20240201;101010 EST">
+                %s
+                </FlexStatement>
+                </FlexStatements>
+                </FlexQueryResponse>
+                """.formatted(accountId, "<Trades/>\n".repeat(20_000));
+        ActivityDocKey docKey = new ActivityDocKey(accountId, parse("2024-01-01"), parse("2024-01-31"));
+
+        StoredActivityStatement stored = ibkrDms.putActivityStatement(accountId, new ByteArrayInputStream(content.getBytes(UTF_8)));
+        assertEquals(new StoredActivityStatement(docKey, true), stored);
+        assertEquals(content, ibkrDms.getStatementContent(docKey));
+
+        StoredActivityStatement storedAgain = ibkrDms.putActivityStatement(accountId, new ByteArrayInputStream(content.getBytes(UTF_8)));
+        assertEquals(new StoredActivityStatement(docKey, false), storedAgain);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ibkrDms.putActivityStatement("U7654321", new ByteArrayInputStream(content.getBytes(UTF_8))));
+
+        // A truncated statement covering the stored one is rejected and does not replace it
+        String truncatedContent = content.replace("toDate=\"20240131\"", "toDate=\"20240229\"").substring(0, content.length() / 2);
+        assertThrows(IllegalArgumentException.class,
+                () -> ibkrDms.putActivityStatement(accountId, new ByteArrayInputStream(truncatedContent.getBytes(UTF_8))));
+        assertEquals(List.of(docKey), ibkrDms.getActivityDocKeys(accountId, parse("2024-01-01"), parse("2024-02-29")));
+    }
+
+    @Test
+    void compressedStorage() throws IOException {
+        String accountId = "U1234567";
+        String dmsWorkspace = "ibkr-dms-tmp4";
+        TestContext ptfactivity = testCtx.withProperties(Map.of(
+                Module.PropKey.dmsWorkspace, dmsWorkspace,
+                Module.PropKey.dmsCompression, "gzip"));
+        Dms dms = ptfactivity.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        IbkrDms ibkrDms = ptfactivity.get(IbkrModule.class).dms();
+
+        String content = """
+                <FlexQueryResponse queryName="Test" type="AF">
+                <FlexStatements count="1">
+                <FlexStatement accountId="%s" fromDate="20240101" toDate="20240131" period="Custom" whenGenerated="20240201;101010 EST">
+                %s
+                </FlexStatement>
+                </FlexStatements>
+                </FlexQueryResponse>
+                """.formatted(accountId, "<Trade description=\"Příliš žluťoučký kůň\"/>\n".repeat(10_000));
+        ActivityDocKey docKey = new ActivityDocKey(accountId, parse("2024-01-01"), parse("2024-01-31"));
+        assertTrue(ibkrDms.putActivityStatement(docKey, content));
+
+        String fileKey = "%s-ACT-20240101-20240131.xml".formatted(accountId);
+        String storedContent = dms.getTextContent(accountId, fileKey);
+        assertTrue(storedContent.startsWith("H4sI"));
+        assertTrue(storedContent.length() < content.length() / 10);
+
+        assertEquals(content, ibkrDms.getStatementContent(docKey));
+        assertEquals(content.lines().limit(3).toList(), ibkrDms.getStatementContentLines(docKey, 3));
+        try (InputStream in = ibkrDms.openStatementContent(docKey)) {
+            assertEquals(content, new String(in.readAllBytes(), UTF_8));
+        }
+
+        // Written before the compression was enabled
+        ActivityDocKey oldDocKey = new ActivityDocKey(accountId, parse("2023-01-01"), parse("2023-01-31"));
+        String oldContent = content.replace("2024", "2023");
+        dms.add(accountId, "%s-ACT-20230101-20230131.xml".formatted(accountId), oldContent);
+        assertEquals(oldContent, ibkrDms.getStatementContent(oldDocKey));
+        assertEquals(oldContent.lines().limit(3).toList(), ibkrDms.getStatementContentLines(oldDocKey, 3));
+
+        // Read back without the compression enabled
+        IbkrDms plainIbkrDms = testCtx.withProperties(Map.of(Module.PropKey.dmsWorkspace, dmsWorkspace))
+                .get(IbkrModule.class)
+                .dms();
+        assertEquals(content, plainIbkrDms.getStatementContent(docKey));
+    }
+}
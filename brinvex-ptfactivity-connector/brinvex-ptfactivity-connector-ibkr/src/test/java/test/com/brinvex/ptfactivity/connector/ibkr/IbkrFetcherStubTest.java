@@ -0,0 +1,163 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFetcher;
+import com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException;
+import com.brinvex.ptfactivity.core.api.exception.FetchException;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+import com.brinvex.ptfactivity.testsupport.stub.IbkrFlexServiceStub;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbkrFetcherStubTest {
+
+    private static final String TOKEN = "TOKEN1";
+
+    private static final String QUERY_ID = "111111";
+
+    private final String statement = new IbkrStatementGenerator(new LoadDataSpec(1, LocalDate.parse("2024-01-31"), 1, 2, LoadDataSpec.DEFAULT_SYMBOLS, List.of("U1234567")))
+            .activityStatement("U1234567", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"));
+
+    /// The stubs of most tests do not throttle, so neither does the fetcher
+    private IbkrFetcher fetcher(IbkrFlexServiceStub stub) {
+        return fetcher(stub, 0, 0);
+    }
+
+    private IbkrFetcher fetcher(IbkrFlexServiceStub stub, int maxRequestsPerSecond, int maxRequestsPerMinute) {
+        TestContext testCtx = new TestContext(IbkrModule.class).withProperties(Map.of(
+                IbkrModule.PropKey.flexBaseUrl, stub.baseUrl(),
+                IbkrModule.PropKey.flexMaxRequestsPerSecond, String.valueOf(maxRequestsPerSecond),
+                IbkrModule.PropKey.flexMaxRequestsPerMinute, String.valueOf(maxRequestsPerMinute)));
+        return testCtx.get(IbkrModule.class).fetcher();
+    }
+
+    @Test
+    void fetch() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null).throttling(0, 0).start()) {
+            String content = fetcher(stub).fetchFlexStatement(TOKEN, QUERY_ID, 1, ZERO);
+            assertEquals(statement, content);
+            assertEquals(1, stub.sendRequestCount());
+            assertEquals(1, stub.getStatementCount());
+        }
+    }
+
+    @Test
+    void fetch_generationInProgress() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null)
+                .throttling(0, 0)
+                .generationDuration(ofMillis(500))
+                .start()) {
+            String content = fetcher(stub).fetchFlexStatement(TOKEN, QUERY_ID, 2, ZERO);
+            assertEquals(statement, content);
+            assertEquals(1, stub.inProgressCount());
+            assertEquals(2, stub.getStatementCount());
+        }
+    }
+
+    @Test
+    void fetch_invalidQuery() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, _) -> null).throttling(0, 0).start()) {
+            assertThrows(FetchException.class, () -> fetcher(stub).fetchFlexStatement(TOKEN, QUERY_ID, 2, ZERO));
+            assertEquals(1, stub.sendRequestCount());
+        }
+    }
+
+    @Test
+    void fetchAsync_generationInProgress() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null)
+                .throttling(0, 0)
+                .generationDuration(ofMillis(1000))
+                .start()) {
+            IbkrFetcher fetcher = fetcher(stub);
+            assertEquals(statement, fetcher.fetchFlexStatementAsync(TOKEN, QUERY_ID, 8, ZERO, null).join());
+            long inProgressCount1 = stub.inProgressCount();
+            assertTrue(inProgressCount1 >= 2);
+
+            // The second fetch starts polling at the generation time observed by the first one
+            assertEquals(statement, fetcher.fetchFlexStatementAsync(TOKEN, QUERY_ID, 8, ZERO, null).join());
+            assertTrue(stub.inProgressCount() - inProgressCount1 < inProgressCount1);
+            assertEquals(2, stub.sendRequestCount());
+        }
+    }
+
+    @Test
+    void fetchAsync_deadlineExceeded() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null)
+                .throttling(0, 0)
+                .generationDuration(ofMillis(5000))
+                .start()) {
+            Instant deadline = Instant.now().plusMillis(500);
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> fetcher(stub).fetchFlexStatementAsync(TOKEN, QUERY_ID, 8, ZERO, deadline).join());
+            assertInstanceOf(DeadlineExceededException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void fetchAsync_invalidQuery() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, _) -> null).throttling(0, 0).start()) {
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> fetcher(stub).fetchFlexStatementAsync(TOKEN, QUERY_ID, 2, ZERO, null).join());
+            assertInstanceOf(FetchException.class, e.getCause());
+            assertEquals(1, stub.sendRequestCount());
+        }
+    }
+
+    @Test
+    void fetchAsync_parallelWithinRateLimits() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null).start()) {
+            IbkrFetcher fetcher = fetcher(stub, 1, 10);
+            List<CompletableFuture<String>> futures = List.of(
+                    fetcher.fetchFlexStatementAsync(TOKEN, QUERY_ID, 3, ZERO, null),
+                    fetcher.fetchFlexStatementAsync(TOKEN, QUERY_ID, 3, ZERO, null),
+                    fetcher.fetchFlexStatementAsync(TOKEN, QUERY_ID, 3, ZERO, null));
+            for (CompletableFuture<String> future : futures) {
+                assertEquals(statement, future.join());
+            }
+            assertEquals(0, stub.throttledCount());
+            assertEquals(3, stub.sendRequestCount());
+            assertEquals(3, stub.getStatementCount());
+        }
+    }
+
+    @Test
+    void fetch_streamedWithGzip() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null)
+                .throttling(0, 0)
+                .generationDuration(ofMillis(500))
+                .start()) {
+            String content = fetcher(stub).fetchFlexStatement(TOKEN, QUERY_ID, 3, ZERO, null, in -> new String(in.readAllBytes(), UTF_8));
+            assertEquals(statement, content);
+            assertEquals(1, stub.inProgressCount());
+            assertEquals(2, stub.gzipResponseCount());
+        }
+    }
+
+    @Test
+    void fetch_streamedReaderFailure() {
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> QUERY_ID.equals(q) ? statement : null).throttling(0, 0).start()) {
+            FetchException e = assertThrows(FetchException.class, () -> fetcher(stub).fetchFlexStatement(TOKEN, QUERY_ID, 1, ZERO, null, _ -> {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }));
+            assertInstanceOf(UncheckedIOException.class, e.getCause());
+        }
+    }
+}
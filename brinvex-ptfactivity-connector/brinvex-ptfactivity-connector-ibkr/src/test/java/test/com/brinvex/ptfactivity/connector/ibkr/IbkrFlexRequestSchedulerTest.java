@@ -0,0 +1,44 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFlexRequestScheduler;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbkrFlexRequestSchedulerTest {
+
+    private static void assertAbout(Duration expected, Duration actual) {
+        assertTrue(actual.compareTo(expected.minus(ofMillis(50))) >= 0 && actual.compareTo(expected.plus(ofMillis(50))) <= 0,
+                () -> "expected=%s, actual=%s".formatted(expected, actual));
+    }
+
+    @Test
+    void reserve() {
+        IbkrFlexRequestScheduler scheduler = new TestContext(IbkrModule.class).get(IbkrModule.class).flexRequestScheduler();
+
+        assertEquals(ZERO, scheduler.expectedWait("TOKEN1"));
+        for (int i = 0; i < 10; i++) {
+            assertAbout(ofMillis(1100L * i), scheduler.reserve("TOKEN1", null));
+        }
+        // The 11th request has to wait until the first one leaves the minute window
+        assertAbout(ofMillis(60_100), scheduler.expectedWait("TOKEN1"));
+        assertNull(scheduler.reserve("TOKEN1", Instant.now().plus(ofSeconds(30))));
+        assertAbout(ofMillis(60_100), scheduler.reserve("TOKEN1", null));
+        assertAbout(ofMillis(61_200), scheduler.expectedWait("TOKEN1"));
+
+        // Tokens are limited independently
+        assertEquals(ZERO, scheduler.expectedWait("TOKEN2"));
+        assertEquals(ZERO, scheduler.reserve("TOKEN2", null));
+        assertAbout(ofMillis(1100), scheduler.expectedWait("TOKEN2"));
+    }
+}
@@ -0,0 +1,117 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrAccount;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrAccount.Credentials;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.core.api.Module;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+import com.brinvex.ptfactivity.testsupport.stub.IbkrFlexServiceStub;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+
+import static com.brinvex.finance.types.enu.Currency.USD;
+import static java.time.Duration.ZERO;
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbkrIntradayTradeConfirmTest {
+
+    private static final String ACCOUNT_ID = "U1234567";
+
+    private static final String TOKEN = "TOKEN1";
+
+    private static final String ACT_QUERY_ID = "111111";
+
+    private static final String TC_QUERY_ID = "222222";
+
+    private static final DateTimeFormatter IBKR_DF = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Test
+    void incrementalTradeConfirms() {
+        String dmsWorkspace = "ibkr-dms-tmp-intraday";
+        LocalDate ibkrToday = LocalDate.now(ZoneId.of("America/New_York"));
+        TestContext testCtx = new TestContext(IbkrModule.class);
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+
+        LocalDate fromDate = ibkrToday.minusDays(30);
+        IbkrStatementGenerator actGenerator = new IbkrStatementGenerator(
+                new LoadDataSpec(13, ibkrToday, 1, 5, LoadDataSpec.DEFAULT_SYMBOLS, List.of(ACCOUNT_ID)));
+        IbkrModule offlineModule = testCtx.withProperties(Map.of(
+                Module.PropKey.dmsWorkspace, dmsWorkspace,
+                IbkrModule.PropKey.docKeyIndexMaxAge, "PT0S")).get(IbkrModule.class);
+        IbkrDms ibkrDms = offlineModule.dms();
+        ibkrDms.putActivityStatement(new ActivityDocKey(ACCOUNT_ID, fromDate, ibkrToday.minusDays(1)),
+                actGenerator.activityStatement(ACCOUNT_ID, fromDate, ibkrToday.minusDays(1)));
+        IbkrPtfActivityProvider offlineProvider = offlineModule.ptfProgressProvider();
+
+        // The trades of a fixed business day, moved to today and generated before the zero stale tolerance
+        LocalDate tradeDay = parse("2024-03-05");
+        String tcStatement = new IbkrStatementGenerator(
+                new LoadDataSpec(13, tradeDay, 1, 5, LoadDataSpec.DEFAULT_SYMBOLS, List.of(ACCOUNT_ID)))
+                .tradeConfirmStatement(ACCOUNT_ID, tradeDay)
+                .replace(IBKR_DF.format(tradeDay), IBKR_DF.format(ibkrToday))
+                .replace("whenGenerated=\"%s;".formatted(IBKR_DF.format(ibkrToday)), "whenGenerated=\"%s;".formatted(IBKR_DF.format(ibkrToday.minusDays(2))));
+        int tcCount = tcStatement.split("<TradeConfirm ", -1).length - 1;
+        assertTrue(tcCount >= 3);
+
+        AtomicReference<String> fetchedTcStatement = new AtomicReference<>();
+        try (IbkrFlexServiceStub stub = new IbkrFlexServiceStub((_, q) -> TC_QUERY_ID.equals(q) ? fetchedTcStatement.get() : null).throttling(0, 0).start()) {
+            IbkrPtfActivityProvider incrementalProvider = testCtx.withProperties(Map.of(
+                    Module.PropKey.dmsWorkspace, dmsWorkspace,
+                    IbkrModule.PropKey.flexBaseUrl, stub.baseUrl(),
+                    IbkrModule.PropKey.flexMaxRequestsPerSecond, "0",
+                    IbkrModule.PropKey.flexMaxRequestsPerMinute, "0",
+                    IbkrModule.PropKey.incrementalTradeConfirms, "true")).get(IbkrModule.class).ptfProgressProvider();
+            IbkrAccount account = new IbkrAccount(ACCOUNT_ID, USD, fromDate, null, new Credentials(TOKEN, ACT_QUERY_ID, TC_QUERY_ID), null, null);
+
+            // The first confirms of the day
+            fetchedTcStatement.set(tradeConfirms(tcStatement, i -> i < tcCount - 2));
+            PtfActivity ptfActivity1 = incrementalProvider.getPtfProgress(account, fromDate, ibkrToday, ZERO);
+            assertEquals(offlineProvider.getPtfProgressOffline(account, fromDate, ibkrToday), ptfActivity1);
+
+            // Two more confirms are appended
+            fetchedTcStatement.set(tcStatement);
+            PtfActivity ptfActivity2 = incrementalProvider.getPtfProgress(account, fromDate, ibkrToday, ZERO);
+            assertEquals(offlineProvider.getPtfProgressOffline(account, fromDate, ibkrToday), ptfActivity2);
+            assertEquals(ptfActivity1.transactions().size() + 2, ptfActivity2.transactions().size());
+
+            // A busted confirm missing in the refetched statement is dropped from the day
+            fetchedTcStatement.set(tradeConfirms(tcStatement, i -> i > 0));
+            PtfActivity ptfActivity3 = incrementalProvider.getPtfProgress(account, fromDate, ibkrToday, ZERO);
+            assertEquals(offlineProvider.getPtfProgressOffline(account, fromDate, ibkrToday), ptfActivity3);
+            assertEquals(ptfActivity2.transactions().size() - 1, ptfActivity3.transactions().size());
+            assertEquals(3, stub.getStatementCount());
+        }
+    }
+
+    /// The given statement with only the confirms at the matching positions
+    private static String tradeConfirms(String tcStatement, IntPredicate included) {
+        List<String> lines = new ArrayList<>();
+        int i = 0;
+        for (String line : tcStatement.split("\n")) {
+            if (!line.startsWith("<TradeConfirm ") || included.test(i++)) {
+                lines.add(line);
+            }
+        }
+        return String.join("\n", lines) + "\n";
+    }
+}
@@ -11,12 +11,17 @@ import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrFinTransactionMapper;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
+import com.brinvex.ptfactivity.core.api.domain.enu.FinTransactionType;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIf;
 
 import java.util.Collection;
 import java.util.List;
 
+import static com.brinvex.ptfactivity.connector.ibkr.api.model.statement.CashTransactionType.WITHHOLDING_TAX;
+import static java.time.LocalDate.parse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -66,5 +71,27 @@ class IbkrMapperTest extends IbkrBaseTest {
         }
     }
 
-}
+    @Test
+    void dividendTaxPairing() {
+        IbkrModule ibkrModule = testCtx.get(IbkrModule.class);
+        IbkrFinTransactionMapper finTranMapper = ibkrModule.finTransactionMapper();
+        String accountId = "U1234567";
+        IbkrStatementGenerator generator = new IbkrStatementGenerator(
+                new LoadDataSpec(5, parse("2024-12-31"), 1, 1, LoadDataSpec.DEFAULT_SYMBOLS, List.of(accountId)));
+        List<CashTransaction> rawCashTrans = ibkrModule.statementParser()
+                .parseActivityStatement(generator.activityStatement(accountId, parse("2024-01-01"), parse("2024-12-31")))
+                .cashTransactions();
+        long rawTaxCount = rawCashTrans.stream().filter(t -> t.type() == WITHHOLDING_TAX).count();
+        assertTrue(rawTaxCount > 0);
 
+        List<FinTransaction> trans = finTranMapper.mapCashTransactions(rawCashTrans);
+        assertEquals(rawCashTrans.size() - rawTaxCount, trans.size());
+        List<FinTransaction> dividends = trans.stream().filter(t -> t.type() == FinTransactionType.DIVIDEND).toList();
+        assertEquals(rawTaxCount, dividends.size());
+        for (FinTransaction dividend : dividends) {
+            assertTrue(dividend.tax().signum() < 0);
+            assertEquals(0, dividend.grossValue().add(dividend.tax()).compareTo(dividend.netValue()));
+        }
+        assertEquals(trans, finTranMapper.mapCashTransactions(rawCashTrans.reversed()));
+    }
+}
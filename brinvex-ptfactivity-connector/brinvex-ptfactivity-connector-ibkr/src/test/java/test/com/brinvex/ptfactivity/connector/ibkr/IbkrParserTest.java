@@ -17,6 +17,8 @@ import org.junit.jupiter.api.condition.EnabledIf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -38,7 +40,7 @@ class IbkrParserTest extends IbkrBaseTest {
 
     @EnabledIf("account1IsNotNull")
     @Test
-    void parseActivity() {
+    void parseActivity() throws IOException {
         assert account1 != null;
 
         IbkrModule ibkrModule = testCtx.withDmsWorkspace("ibkr-dms-stable").get(IbkrModule.class);
@@ -52,6 +54,9 @@ class IbkrParserTest extends IbkrBaseTest {
             String content = dms.getStatementContent(docKey);
             ActivityStatement activityStatement = parser.parseActivityStatement(content);
             assertNotNull(activityStatement);
+            try (InputStream contentStream = dms.openStatementContent(docKey)) {
+                assertEquals(activityStatement, parser.parseActivityStatement(contentStream));
+            }
 
             int days = (int) ChronoUnit.DAYS.between(activityStatement.fromDate(), activityStatement.toDate());
             int equitySummariesSize = activityStatement.equitySummaries().size();
@@ -1,11 +1,17 @@
 package test.com.brinvex.ptfactivity.connector.ibkr;
 
 
+import com.brinvex.dms.api.Dms;
+import com.brinvex.dms.api.DmsFactory;
 import com.brinvex.finance.types.vo.DateAmount;
 import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrAccount;
 import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
 import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.core.api.Module;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.facade.ValidatorFacade;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
@@ -13,12 +19,20 @@ import com.brinvex.ptfactivity.core.api.domain.enu.FinTransactionType;
 import com.brinvex.ptfactivity.core.api.domain.constraints.fintransaction.FinTransactionConstraints;
 import com.brinvex.ptfactivity.testsupport.TestContext;
 import com.brinvex.ptfactivity.testsupport.SimplePtf;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.brinvex.finance.types.enu.Currency.EUR;
@@ -28,6 +42,7 @@ import static java.math.BigDecimal.ZERO;
 import static java.math.RoundingMode.HALF_UP;
 import static java.time.LocalDate.now;
 import static java.time.LocalDate.parse;
+import static java.util.Comparator.comparing;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -323,5 +338,81 @@ class IbkrPtfActivityOfflineTest extends IbkrBaseTest {
         }
     }
 
-}
+    @EnabledIf("account2IsNotNull")
+    @Test
+    void ptfProgress_parallelParse() {
+        String workspace = "ibkr-dms-stable";
+        IbkrPtfActivityProvider sequentialProvider = this.testCtx.withDmsWorkspace(workspace)
+                .get(IbkrModule.class)
+                .ptfProgressProvider();
+        IbkrPtfActivityProvider parallelProvider = this.testCtx.withProperties(Map.of(
+                        Module.PropKey.dmsWorkspace, workspace,
+                        IbkrModule.PropKey.parseParallelism, "4"))
+                .get(IbkrModule.class)
+                .ptfProgressProvider();
+
+        LocalDate fromDateIncl = parse("2023-01-23");
+        LocalDate toDateIncl = parse("2024-06-10");
+        PtfActivity sequentialPtfActivity = sequentialProvider.getPtfProgressOffline(account2, fromDateIncl, toDateIncl);
+        PtfActivity parallelPtfActivity = parallelProvider.getPtfProgressOffline(account2, fromDateIncl, toDateIncl);
+        assertEquals(sequentialPtfActivity, parallelPtfActivity);
+    }
 
+    @Test
+    void ptfProgress_migratedSegments() {
+        String migratedAccountId = "U1111111";
+        String mainAccountId = "U2222222";
+        String workspace = "ibkr-dms-tmp-migrated";
+        TestContext testCtx = this.testCtx.withDmsWorkspace(workspace);
+        Dms dms = testCtx.dmsFactory().getDms(workspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        IbkrModule ibkrModule = testCtx.get(IbkrModule.class);
+        IbkrDms ibkrDms = ibkrModule.dms();
+        IbkrPtfActivityProvider ptfProgressProvider = ibkrModule.ptfProgressProvider();
+
+        IbkrStatementGenerator generator = new IbkrStatementGenerator(
+                new LoadDataSpec(17, parse("2024-06-30"), 1, 3, LoadDataSpec.DEFAULT_SYMBOLS, List.of(migratedAccountId, mainAccountId)));
+        ibkrDms.putActivityStatement(new ActivityDocKey(migratedAccountId, parse("2024-01-01"), parse("2024-03-31")),
+                generator.activityStatement(migratedAccountId, parse("2024-01-01"), parse("2024-03-31")));
+        ibkrDms.putActivityStatement(new ActivityDocKey(mainAccountId, parse("2024-04-01"), parse("2024-06-30")),
+                generator.activityStatement(mainAccountId, parse("2024-04-01"), parse("2024-06-30")));
+
+        PtfActivity migratedPtfActivity = ptfProgressProvider.getPtfProgressOffline(
+                new IbkrAccount(migratedAccountId, USD, parse("2024-01-01"), null, null, null, null), parse("2024-01-01"), parse("2024-03-31"));
+        PtfActivity mainPtfActivity = ptfProgressProvider.getPtfProgressOffline(
+                new IbkrAccount(mainAccountId, USD, parse("2024-04-01"), null, null, null, null), parse("2024-04-01"), parse("2024-06-30"));
+        List<FinTransaction> expectedTrans = new ArrayList<>(migratedPtfActivity.transactions());
+        expectedTrans.addAll(mainPtfActivity.transactions());
+        expectedTrans.sort(comparing(FinTransaction::date));
+        List<DateAmount> expectedNavs = new ArrayList<>(migratedPtfActivity.netAssetValues());
+        expectedNavs.addAll(mainPtfActivity.netAssetValues());
+        PtfActivity expectedPtfActivity = new PtfActivity(expectedTrans, expectedNavs);
+
+        IbkrAccount account = new IbkrAccount(mainAccountId, USD, parse("2024-01-01"), null, null, parse("2024-04-01"), List.of(
+                new IbkrAccount.MigratedAccount(migratedAccountId, null, parse("2024-01-01"), parse("2024-03-31"))));
+        // The segments are processed concurrently, the result must not depend on which one finishes first
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expectedPtfActivity, ptfProgressProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2024-06-30")));
+        }
+    }
+
+    @Test
+    void ptfProgress_loadData(@TempDir Path dmsRoot) {
+        String accountId = "12345678";
+        LoadDataSpec spec = new LoadDataSpec(19, parse("2024-06-30"), 2, 3, LoadDataSpec.DEFAULT_SYMBOLS, List.of(accountId));
+        DmsFactory dmsFactory = DmsFactory.newFilesystemDmsFactory(dmsRoot);
+        LoadDataGenerator.generate(dmsFactory, spec);
+        IbkrPtfActivityProvider ptfProgressProvider = PtfActivityRuntime.newPtfActivityRuntime(PtfActivityRuntimeConfig.builder()
+                        .dmsFactory(() -> dmsFactory)
+                        .build())
+                .getModule(IbkrModule.class)
+                .ptfProgressProvider();
+
+        PtfActivity ptfActivity = ptfProgressProvider.getPtfProgressOffline(
+                new IbkrAccount(accountId, USD, spec.fromDateIncl(), null, null, null, null), spec.fromDateIncl(), spec.toDateIncl());
+        assertFalse(ptfActivity.transactions().isEmpty());
+        assertFalse(ptfActivity.netAssetValues().isEmpty());
+        testCtx.validator().validateAndThrow(ptfActivity.transactions(), FinTransactionConstraints::of);
+    }
+}
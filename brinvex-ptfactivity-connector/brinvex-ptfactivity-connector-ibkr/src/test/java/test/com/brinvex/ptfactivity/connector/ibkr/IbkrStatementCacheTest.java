@@ -0,0 +1,68 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrAccount;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.core.api.Module;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.brinvex.finance.types.enu.Currency.USD;
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class IbkrStatementCacheTest {
+
+    private static final String ACCOUNT_ID = "U1234567";
+
+    private static String activityStatement(long seed, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        LoadDataSpec spec = new LoadDataSpec(seed, toDateIncl, 1, 3, LoadDataSpec.DEFAULT_SYMBOLS, List.of(ACCOUNT_ID));
+        return new IbkrStatementGenerator(spec).activityStatement(ACCOUNT_ID, fromDateIncl, toDateIncl);
+    }
+
+    @Test
+    void cachedStatementsFollowDmsChanges() {
+        String dmsWorkspace = "ibkr-dms-tmp-cache";
+        TestContext testCtx = new TestContext(IbkrModule.class).withProperties(Map.of(
+                Module.PropKey.dmsWorkspace, dmsWorkspace,
+                IbkrModule.PropKey.statementCacheMaxSize, "8"));
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        IbkrModule ibkrModule = testCtx.get(IbkrModule.class);
+        IbkrDms ibkrDms = ibkrModule.dms();
+        IbkrPtfActivityProvider ptfProgressProvider = ibkrModule.ptfProgressProvider();
+
+        IbkrAccount account = new IbkrAccount(ACCOUNT_ID, USD, parse("2024-01-01"), null, null, null, null);
+        LocalDate fromDateIncl = parse("2024-01-01");
+        LocalDate toDateIncl = parse("2024-01-31");
+        ActivityDocKey docKey = new ActivityDocKey(ACCOUNT_ID, fromDateIncl, toDateIncl);
+
+        ibkrDms.putActivityStatement(docKey, activityStatement(1, fromDateIncl, toDateIncl));
+        PtfActivity ptfActivity1 = ptfProgressProvider.getPtfProgressOffline(account, fromDateIncl, toDateIncl);
+        assertEquals(ptfActivity1, ptfProgressProvider.getPtfProgressOffline(account, fromDateIncl, toDateIncl));
+
+        ibkrDms.delete(docKey);
+        ibkrDms.putActivityStatement(docKey, activityStatement(2, fromDateIncl, toDateIncl));
+        PtfActivity ptfActivity2 = ptfProgressProvider.getPtfProgressOffline(account, fromDateIncl, toDateIncl);
+        assertNotEquals(ptfActivity1, ptfActivity2);
+
+        LocalDate extendedToDateIncl = parse("2024-02-29");
+        ibkrDms.putActivityStatement(
+                new ActivityDocKey(ACCOUNT_ID, fromDateIncl, extendedToDateIncl), activityStatement(2, fromDateIncl, extendedToDateIncl));
+        PtfActivity ptfActivity3 = ptfProgressProvider.getPtfProgressOffline(account, fromDateIncl, extendedToDateIncl);
+        assertEquals(extendedToDateIncl, ptfActivity3.netAssetValues().getLast().date());
+    }
+}
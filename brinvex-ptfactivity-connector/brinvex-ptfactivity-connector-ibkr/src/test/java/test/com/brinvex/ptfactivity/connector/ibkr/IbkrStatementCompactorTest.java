@@ -0,0 +1,71 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrAccount;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.IbkrDocKey.ActivityDocKey;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrDms;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrPtfActivityProvider;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementCompactor;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+import static com.brinvex.finance.types.enu.Currency.USD;
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbkrStatementCompactorTest {
+
+    private static final String ACCOUNT_ID = "U1234567";
+
+    @Test
+    void compactActivityStatements() {
+        String dmsWorkspace = "ibkr-dms-tmp-compaction";
+        TestContext testCtx = new TestContext(IbkrModule.class).withDmsWorkspace(dmsWorkspace);
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        IbkrModule ibkrModule = testCtx.get(IbkrModule.class);
+        IbkrDms ibkrDms = ibkrModule.dms();
+        IbkrStatementCompactor compactor = ibkrModule.statementCompactor();
+        IbkrPtfActivityProvider ptfProgressProvider = ibkrModule.ptfProgressProvider();
+
+        IbkrStatementGenerator generator = new IbkrStatementGenerator(
+                new LoadDataSpec(7, parse("2025-02-28"), 2, 2, LoadDataSpec.DEFAULT_SYMBOLS, List.of(ACCOUNT_ID)));
+        for (LocalDate month = parse("2024-01-01"); month.isBefore(parse("2025-03-01")); month = month.plusMonths(1)) {
+            LocalDate monthEnd = month.plusMonths(1).minusDays(1);
+            ibkrDms.putActivityStatement(new ActivityDocKey(ACCOUNT_ID, month, monthEnd), generator.activityStatement(ACCOUNT_ID, month, monthEnd));
+        }
+        assertEquals(14, ibkrDms.getActivityDocKeys(ACCOUNT_ID, null, null).size());
+
+        IbkrAccount account = new IbkrAccount(ACCOUNT_ID, USD, parse("2024-01-01"), null, null, null, null);
+        PtfActivity expectedPtfActivity = ptfProgressProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2025-02-28"));
+
+        List<ActivityDocKey> consolidatedDocKeys = compactor.compactActivityStatements(ACCOUNT_ID, Period.ofYears(1), parse("2024-12-31"));
+        ActivityDocKey yearDocKey = new ActivityDocKey(ACCOUNT_ID, parse("2024-01-01"), parse("2024-12-31"));
+        assertEquals(List.of(yearDocKey), consolidatedDocKeys);
+        List<ActivityDocKey> docKeys = ibkrDms.getActivityDocKeys(ACCOUNT_ID, null, null);
+        assertEquals(List.of(
+                yearDocKey,
+                new ActivityDocKey(ACCOUNT_ID, parse("2025-01-01"), parse("2025-01-31")),
+                new ActivityDocKey(ACCOUNT_ID, parse("2025-02-01"), parse("2025-02-28"))
+        ), docKeys);
+
+        assertEquals(expectedPtfActivity, ptfProgressProvider.getPtfProgressOffline(account, parse("2024-01-01"), parse("2025-02-28")));
+
+        // The open year is left alone and a compacted year is not compacted again
+        assertTrue(compactor.compactActivityStatements(ACCOUNT_ID, Period.ofYears(1), parse("2025-02-28")).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> compactor.compactActivityStatements(ACCOUNT_ID, Period.ofMonths(5), parse("2024-12-31")));
+    }
+}
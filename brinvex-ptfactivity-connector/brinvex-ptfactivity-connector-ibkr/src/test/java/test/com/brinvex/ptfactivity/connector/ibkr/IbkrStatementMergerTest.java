@@ -0,0 +1,64 @@
+package test.com.brinvex.ptfactivity.connector.ibkr;
+
+import com.brinvex.ptfactivity.connector.ibkr.api.IbkrModule;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.FlexStatement.ActivityStatement;
+import com.brinvex.ptfactivity.connector.ibkr.api.model.statement.Trade;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementMerger;
+import com.brinvex.ptfactivity.connector.ibkr.api.service.IbkrStatementParser;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import com.brinvex.ptfactivity.testsupport.generator.IbkrStatementGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.time.LocalDate.parse;
+import static java.util.Comparator.comparing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IbkrStatementMergerTest {
+
+    private static final String ACCOUNT_ID = "U1234567";
+
+    @Test
+    void mergeOverlappingStatements() {
+        IbkrModule ibkrModule = new TestContext(IbkrModule.class).get(IbkrModule.class);
+        IbkrStatementParser parser = ibkrModule.statementParser();
+        IbkrStatementMerger merger = ibkrModule.statementMerger();
+
+        IbkrStatementGenerator generator1 = generator(1);
+        IbkrStatementGenerator generator2 = generator(2);
+        List<ActivityStatement> statements = new ArrayList<>();
+        for (LocalDate month = parse("2023-01-01"); month.isBefore(parse("2025-01-01")); month = month.plusMonths(1)) {
+            LocalDate monthEnd = month.plusMonths(1).minusDays(1);
+            statements.add(parser.parseActivityStatement(generator1.activityStatement(ACCOUNT_ID, month, monthEnd)));
+            statements.add(parser.parseActivityStatement(generator1.activityStatement(ACCOUNT_ID, month.plusDays(14), monthEnd.plusDays(14))));
+        }
+        // Different records sharing the transaction IDs of the first generator
+        statements.add(parser.parseActivityStatement(generator2.activityStatement(ACCOUNT_ID, parse("2024-06-01"), parse("2024-06-30"))));
+
+        ActivityStatement merged = merger.mergeActivityStatements(statements).orElseThrow();
+
+        List<ActivityStatement> sortedStatements = statements
+                .stream()
+                .sorted(comparing(ActivityStatement::fromDate).thenComparing(ActivityStatement::toDate))
+                .toList();
+        // The same records in the same order as deduplicated by the full record equality
+        assertEquals(sortedStatements.stream().flatMap(s -> s.trades().stream()).distinct().toList(), merged.trades());
+        assertEquals(sortedStatements.stream().flatMap(s -> s.cashTransactions().stream()).distinct().toList(), merged.cashTransactions());
+        assertEquals(sortedStatements.stream().flatMap(s -> s.corporateActions().stream()).distinct().toList(), merged.corporateActions());
+        assertEquals(sortedStatements.stream().flatMap(s -> s.equitySummaries().stream()).distinct().toList(), merged.equitySummaries());
+
+        long distinctTradeIds = merged.trades().stream().map(Trade::transactionID).distinct().count();
+        assertTrue(distinctTradeIds < merged.trades().size());
+        assertEquals(parse("2023-01-01"), merged.fromDate());
+        assertEquals(parse("2025-01-14"), merged.toDate());
+    }
+
+    private static IbkrStatementGenerator generator(long seed) {
+        return new IbkrStatementGenerator(new LoadDataSpec(seed, parse("2025-01-14"), 2, 2, LoadDataSpec.DEFAULT_SYMBOLS, List.of(ACCOUNT_ID)));
+    }
+}
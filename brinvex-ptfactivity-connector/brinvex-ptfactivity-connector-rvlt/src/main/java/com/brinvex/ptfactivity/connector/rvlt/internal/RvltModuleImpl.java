@@ -83,7 +83,8 @@ public class RvltModuleImpl implements RvltModule, Module {
                 dms(),
                 statementParser(),
                 finTransactionMerger(),
-                finTransactionMapper()
+                finTransactionMapper(),
+                moduleCtx.toolbox().pipelineObserver()
         ));
     }
 }
@@ -3,6 +3,7 @@ package com.brinvex.ptfactivity.connector.rvlt.internal.service;
 import com.brinvex.ptfactivity.connector.rvlt.api.model.RvltDocKey.TradingAccountStatementDocKey;
 import com.brinvex.ptfactivity.connector.rvlt.api.model.RvltDocKey.PnlStatementDocKey;
 import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
 import com.brinvex.ptfactivity.connector.rvlt.api.service.RvltDms;
 
 import java.time.LocalDate;
@@ -51,7 +52,7 @@ public class RvltDmsImpl implements RvltDms {
                 .filter(_rawKey -> docKey.equals(parseAccountStatementDocKey(accountNumber, _rawKey)))
                 .findAny()
                 .orElseThrow(() -> new IllegalArgumentException("docKey not found: " + docKey));
-        return dms.getBinaryContent(directory, rawKey);
+        return DmsCompression.decodeBinary(dms.getBinaryContent(directory, rawKey));
     }
 
     @Override
@@ -82,7 +83,7 @@ public class RvltDmsImpl implements RvltDms {
                 .filter(_rawKey -> docKey.equals(parsePnlStatementDocKey(accountNumber, _rawKey)))
                 .findAny()
                 .orElseThrow(() -> new IllegalArgumentException("docKey not found: " + docKey));
-        return dms.getBinaryContent(directory, rawKey);
+        return DmsCompression.decodeBinary(dms.getBinaryContent(directory, rawKey));
     }
 
     private TradingAccountStatementDocKey parseAccountStatementDocKey(String accountNumber, String rawKey) {
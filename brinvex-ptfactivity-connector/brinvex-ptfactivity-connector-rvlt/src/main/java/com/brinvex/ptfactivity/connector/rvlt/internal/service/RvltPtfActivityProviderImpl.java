@@ -11,11 +11,14 @@ import com.brinvex.ptfactivity.connector.rvlt.api.model.RvltDocKey.TradingAccoun
 import com.brinvex.ptfactivity.connector.rvlt.api.model.statement.PnlStatement;
 import com.brinvex.ptfactivity.connector.rvlt.api.model.statement.TradingAccountStatement;
 import com.brinvex.ptfactivity.connector.rvlt.api.model.statement.Transaction;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
+import com.brinvex.ptfactivity.core.api.PipelineObserver.Stage;
 import com.brinvex.ptfactivity.core.api.domain.Account;
 import com.brinvex.ptfactivity.core.api.domain.FinTransaction;
 import com.brinvex.java.validation.Assert;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.jfr.PtfActivityEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,8 +29,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.SequencedMap;
 import java.util.SequencedSet;
+import java.util.function.Supplier;
 
 import static com.brinvex.java.DateUtil.isLastDayOfMonth;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MAP;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.MERGE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.PARSE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.READ;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
@@ -42,21 +50,30 @@ public class RvltPtfActivityProviderImpl implements RvltPtfActivityProvider {
 
     private final RvltFinTransactionMapper finTransactionMapper;
 
+    private final PipelineObserver observer;
+
     public RvltPtfActivityProviderImpl(
             RvltDms dms,
             RvltStatementParser statementParser,
             RvltFinTransactionMerger finTransactionMerger,
-            RvltFinTransactionMapper finTransactionMapper
+            RvltFinTransactionMapper finTransactionMapper,
+            PipelineObserver observer
     ) {
         this.dms = dms;
         this.statementParser = statementParser;
         this.finTransactionMerger = finTransactionMerger;
         this.finTransactionMapper = finTransactionMapper;
+        this.observer = observer;
+    }
+
+    @Override
+    public String providerName() {
+        return "rvlt";
     }
 
     @Override
     public boolean supports(PtfActivityReq ptfActivityReq) {
-        return ptfActivityReq.providerName().equals("rvlt");
+        return providerName().equals(ptfActivityReq.providerName());
     }
 
     @Override
@@ -85,7 +102,11 @@ public class RvltPtfActivityProviderImpl implements RvltPtfActivityProvider {
         List<PnlStatementDocKey> pnlStatementDocKeys = dms.getPnlStatementDocKeys(accountNumber, fromDateIncl, adjToDateIncl);
         Assert.isTrue(pnlStatementDocKeys.size() == 1);
 
-        PnlStatement pnlStatement = statementParser.parsePnlStatement(dms.getStatementContent(pnlStatementDocKeys.getFirst()));
+        byte[] pnlContent = readStatementContent(() -> dms.getStatementContent(pnlStatementDocKeys.getFirst()));
+        PnlStatement pnlStatement = observe(PARSE, () -> PtfActivityEvents.parse(providerName(), accountNumber, pnlStatementDocKeys.getFirst(), pnlContent.length,
+                () -> statementParser.parsePnlStatement(pnlContent),
+                s -> s.transactions().size()
+        ));
         Assert.isTrue(accountNumber.equals(pnlStatement.accountNumber()));
         Assert.isTrue(accountName == null || accountName.equals(pnlStatement.accountName()));
         List<Transaction> pnlTransactions = pnlStatement.transactions();
@@ -94,7 +115,11 @@ public class RvltPtfActivityProviderImpl implements RvltPtfActivityProvider {
         SequencedSet<FinTransaction> finTransactions = new LinkedHashSet<>();
         LocalDate prevTaPeriodEnd = null;
         for (TradingAccountStatementDocKey taDocKey : taDocKeys) {
-            TradingAccountStatement taStatement = statementParser.parseTradingAccountStatement(dms.getStatementContent(taDocKey));
+            byte[] taContent = readStatementContent(() -> dms.getStatementContent(taDocKey));
+            TradingAccountStatement taStatement = observe(PARSE, () -> PtfActivityEvents.parse(providerName(), accountNumber, taDocKey, taContent.length,
+                    () -> statementParser.parseTradingAccountStatement(taContent),
+                    s -> s.transactions().size()
+            ));
             Assert.isTrue(accountNumber.equals(taStatement.accountNumber()));
             Assert.isTrue(accountName == null || accountName.equals(taStatement.accountName()));
             Assert.equal(account.ccy(), taStatement.ccy());
@@ -143,8 +168,14 @@ public class RvltPtfActivityProviderImpl implements RvltPtfActivityProvider {
             if (!properTaTrans.isEmpty()) {
                 Assert.isTrue(!properTaTrans.getFirst().date().toLocalDate().isBefore(taPeriodStart));
 
-                List<Transaction> mergedTrans = finTransactionMerger.mergeTransactions(properTaTrans, pnlTransactions);
-                List<FinTransaction> mappedTrans = finTransactionMapper.mapTransactions(mergedTrans);
+                List<Transaction> mergedTrans = observe(MERGE, () -> PtfActivityEvents.merge(providerName(), accountNumber, properTaTrans.size() + pnlTransactions.size(),
+                        () -> finTransactionMerger.mergeTransactions(properTaTrans, pnlTransactions),
+                        List::size
+                ));
+                List<FinTransaction> mappedTrans = observe(MAP, () -> PtfActivityEvents.map(providerName(), accountNumber, "mapTransactions", mergedTrans.size(),
+                        () -> finTransactionMapper.mapTransactions(mergedTrans),
+                        List::size
+                ));
 
                 finTransactions.addAll(mappedTrans);
             }
@@ -152,6 +183,8 @@ public class RvltPtfActivityProviderImpl implements RvltPtfActivityProvider {
             prevTaPeriodEnd = taPeriodEnd;
         }
 
+        observer.documentsParsed(providerName(), taDocKeys.size() + 1);
+        observer.transactionsProduced(providerName(), finTransactions.size());
         return new PtfActivity(
                 finTransactions,
                 navs.entrySet()
@@ -163,6 +196,16 @@ public class RvltPtfActivityProviderImpl implements RvltPtfActivityProvider {
         );
     }
 
+    private byte[] readStatementContent(Supplier<byte[]> contentReader) {
+        byte[] content = observe(READ, contentReader);
+        observer.bytesRead(providerName(), content.length);
+        return content;
+    }
+
+    private <T> T observe(Stage stage, Supplier<T> action) {
+        return observer.observe(providerName(), stage, action);
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(RvltPtfActivityProviderImpl.class);
 
 }
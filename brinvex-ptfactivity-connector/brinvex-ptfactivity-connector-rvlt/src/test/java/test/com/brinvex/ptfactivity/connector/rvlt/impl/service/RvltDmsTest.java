@@ -0,0 +1,46 @@
+package test.com.brinvex.ptfactivity.connector.rvlt.impl.service;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.connector.rvlt.api.RvltModule;
+import com.brinvex.ptfactivity.connector.rvlt.api.model.RvltDocKey.PnlStatementDocKey;
+import com.brinvex.ptfactivity.connector.rvlt.api.model.RvltDocKey.TradingAccountStatementDocKey;
+import com.brinvex.ptfactivity.connector.rvlt.api.service.RvltDms;
+import com.brinvex.ptfactivity.core.api.general.DmsCompression;
+import com.brinvex.ptfactivity.testsupport.TestContext;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class RvltDmsTest extends RvltBaseTest {
+
+    @Test
+    void compressedStatements() {
+        String accountNumber = "12345678";
+        String dmsWorkspace = "rvlt-dms-tmp-compressed";
+        TestContext testCtx = this.testCtx.withDmsWorkspace(dmsWorkspace);
+        Dms dms = testCtx.dmsFactory().getDms(dmsWorkspace);
+        dms.resetWorkspace();
+        dms.purgeWorkspace(LocalDateTime.now());
+        RvltDms rvltDms = testCtx.get(RvltModule.class).dms();
+
+        String content = "%PDF-1.4\n" + "Account Statement Příliš žluťoučký kůň\n".repeat(5_000);
+        dms.add(accountNumber + "/trading-account-statement", "trading-account-statement_2024-01-01_2024-01-31_en-us_5f4277.pdf",
+                DmsCompression.GZIP.encode(content));
+        dms.add(accountNumber, "trading-pnl-statement_2024-01-01_2024-12-31_en-us_aae243.pdf",
+                DmsCompression.GZIP.encode(content));
+        assertArrayEquals(content.getBytes(UTF_8), rvltDms.getStatementContent(
+                new TradingAccountStatementDocKey(accountNumber, parse("2024-01-01"), parse("2024-01-31"))));
+        assertArrayEquals(content.getBytes(UTF_8), rvltDms.getStatementContent(
+                new PnlStatementDocKey(accountNumber, parse("2024-01-01"), parse("2024-12-31"))));
+
+        // Stored before the compression was enabled
+        String oldContent = content.replace("Account", "Old account");
+        dms.add(accountNumber + "/trading-account-statement", "trading-account-statement_2023-01-01_2023-01-31_en-us_5f4277.pdf", oldContent);
+        assertArrayEquals(oldContent.getBytes(UTF_8), rvltDms.getStatementContent(
+                new TradingAccountStatementDocKey(accountNumber, parse("2023-01-01"), parse("2023-01-31"))));
+    }
+}
@@ -1,21 +1,32 @@
 package test.com.brinvex.ptfactivity.core;
 
+import com.brinvex.dms.api.DmsFactory;
 import com.brinvex.finance.types.enu.Currency;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
+import com.brinvex.ptfactivity.core.api.domain.Account;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
 import com.brinvex.ptfactivity.core.api.domain.constraints.fintransaction.FinTransactionConstraints;
 import com.brinvex.ptfactivity.testsupport.SimplePtf;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataGenerator;
+import com.brinvex.ptfactivity.testsupport.generator.LoadDataSpec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.brinvex.finance.types.enu.Currency.EUR;
+import static com.brinvex.finance.types.enu.Currency.USD;
 import static java.math.BigDecimal.ZERO;
 import static java.time.LocalDate.parse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 class CorePtfActivityProviderTest extends CoreBaseTest {
@@ -166,4 +177,28 @@ class CorePtfActivityProviderTest extends CoreBaseTest {
             assertEquals(0, ptf.getHoldingsCount());
         }
     }
+
+    @Test
+    void ptfProgress_loadData(@TempDir Path dmsRoot) {
+        String accountName = "12345678";
+        LoadDataSpec spec = new LoadDataSpec(19, parse("2024-06-30"), 2, 3, LoadDataSpec.DEFAULT_SYMBOLS, List.of(accountName));
+        DmsFactory dmsFactory = DmsFactory.newFilesystemDmsFactory(dmsRoot);
+        LoadDataGenerator.generate(dmsFactory, spec);
+        PtfActivityRuntime ptfActivityRuntime = PtfActivityRuntime.newPtfActivityRuntime(PtfActivityRuntimeConfig.builder()
+                .dmsFactory(() -> dmsFactory)
+                .build());
+
+        PtfActivity ptfActivity = ptfActivityRuntime.process(new PtfActivityReq(
+                "core",
+                new Account(accountName, null, USD, spec.fromDateIncl(), null, null, null, Map.of()),
+                spec.fromDateIncl(),
+                spec.toDateIncl(),
+                null
+        ));
+        assertFalse(ptfActivity.transactions().isEmpty());
+        testCtx.validator().validateAndThrow(ptfActivity.transactions(), FinTransactionConstraints::of);
+
+        SimplePtf ptf = new SimplePtf(ptfActivity.transactions());
+        assertEquals(Set.of(USD), ptf.getCurrencies());
+    }
 }
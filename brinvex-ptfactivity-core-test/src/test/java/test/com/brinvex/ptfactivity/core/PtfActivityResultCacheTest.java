@@ -0,0 +1,166 @@
+package test.com.brinvex.ptfactivity.core;
+
+import com.brinvex.ptfactivity.core.api.CoreModule;
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import test.com.brinvex.ptfactivity.core.stub.StubModule;
+import test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.time.LocalDate.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.PROVIDER_A;
+
+class PtfActivityResultCacheTest extends StubBaseTest {
+
+    private static final Duration STALE_TOLERANCE = Duration.ofHours(1);
+
+    private final Map<String, AtomicInteger> processCounts = new ConcurrentHashMap<>();
+
+    private final Map<String, Runnable> duringProcess = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void countProcessing() {
+        StubPtfActivityProvider.handle((_, req) -> {
+            String accountName = req.account().name();
+            processCounts.computeIfAbsent(accountName, _ -> new AtomicInteger()).incrementAndGet();
+            duringProcess.getOrDefault(accountName, () -> {
+            }).run();
+            return new PtfActivity(List.of(), List.of());
+        });
+    }
+
+    private PtfActivityRuntime newCachingRuntime(String maxSize, String maxAge) {
+        return newRuntime(Map.of(
+                CoreModule.PropKey.resultCacheMaxSize, maxSize,
+                CoreModule.PropKey.resultCacheMaxAge, maxAge
+        ));
+    }
+
+    private static PtfActivityReq request(String accountName, Duration staleTolerance) {
+        return request(PROVIDER_A, account(accountName, null), staleTolerance);
+    }
+
+    private int processCount(String accountName) {
+        AtomicInteger processCount = processCounts.get(accountName);
+        return processCount == null ? 0 : processCount.get();
+    }
+
+    @Test
+    void hit() {
+        PtfActivityRuntime runtime = newCachingRuntime("10", "PT1H");
+
+        PtfActivity ptfActivity = runtime.process(request("ACC1", STALE_TOLERANCE));
+        assertSame(ptfActivity, runtime.process(request("ACC1", STALE_TOLERANCE)));
+        assertEquals(1, processCount("ACC1"));
+
+        // A different period is a different entry
+        runtime.process(new PtfActivityReq(PROVIDER_A, account("ACC1", null), parse("2024-02-01"), parse("2024-12-31"), STALE_TOLERANCE));
+        assertEquals(2, processCount("ACC1"));
+    }
+
+    @Test
+    void notCachedIfDeadline() {
+        PtfActivityRuntime runtime = newCachingRuntime("10", "PT1H");
+
+        // A result which may be a fallback to the stored data is not served to a request without a deadline
+        PtfActivity fallbackActivity = runtime.process(request("ACC1", STALE_TOLERANCE).withDeadline(Instant.now().minusSeconds(1)));
+        PtfActivity ptfActivity = runtime.process(request("ACC1", STALE_TOLERANCE));
+        assertNotSame(fallbackActivity, ptfActivity);
+        assertEquals(2, processCount("ACC1"));
+
+        // A request with a deadline is still served from the cache
+        assertSame(ptfActivity, runtime.process(request("ACC1", STALE_TOLERANCE).withTimeout(Duration.ofMinutes(1))));
+        assertEquals(2, processCount("ACC1"));
+    }
+
+    @Test
+    void disabledByDefault() {
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+
+        assertNotSame(runtime.process(request("ACC1", STALE_TOLERANCE)), runtime.process(request("ACC1", STALE_TOLERANCE)));
+        assertEquals(2, processCount("ACC1"));
+    }
+
+    @Test
+    void staleToleranceExceeded() throws InterruptedException {
+        PtfActivityRuntime runtime = newCachingRuntime("10", "PT1H");
+
+        PtfActivity ptfActivity = runtime.process(request("ACC1", STALE_TOLERANCE));
+        Thread.sleep(20);
+        assertNotSame(ptfActivity, runtime.process(request("ACC1", Duration.ofMillis(10))));
+        assertEquals(2, processCount("ACC1"));
+    }
+
+    @Test
+    void maxAgeExceeded() throws InterruptedException {
+        PtfActivityRuntime runtime = newCachingRuntime("10", "PT0.01S");
+
+        PtfActivity ptfActivity = runtime.process(request("ACC1", STALE_TOLERANCE));
+        Thread.sleep(20);
+        assertNotSame(ptfActivity, runtime.process(request("ACC1", STALE_TOLERANCE)));
+        assertEquals(2, processCount("ACC1"));
+    }
+
+    @Test
+    void invalidatedByDmsChangeOfAccount() {
+        PtfActivityRuntime runtime = newCachingRuntime("10", "PT1H");
+        DmsChangeListener dmsChangeListener = runtime.getModule(StubModule.class).dmsChangeListener();
+
+        PtfActivity ptfActivity1 = runtime.process(request("ACC1", STALE_TOLERANCE));
+        PtfActivity ptfActivity2 = runtime.process(request("ACC2", STALE_TOLERANCE));
+        dmsChangeListener.onChange("ACC1/snapshots", "ACC1_2024.xml");
+
+        assertNotSame(ptfActivity1, runtime.process(request("ACC1", STALE_TOLERANCE)));
+        assertSame(ptfActivity2, runtime.process(request("ACC2", STALE_TOLERANCE)));
+        assertEquals(2, processCount("ACC1"));
+        assertEquals(1, processCount("ACC2"));
+    }
+
+    @Test
+    void notCachedIfAccountChangedDuringProcessing() {
+        PtfActivityRuntime runtime = newCachingRuntime("10", "PT1H");
+        DmsChangeListener dmsChangeListener = runtime.getModule(StubModule.class).dmsChangeListener();
+        duringProcess.put("ACC1", () -> dmsChangeListener.onChange("ACC1", "ACC1_2024.xml"));
+        // Changes of other accounts do not prevent caching
+        duringProcess.put("ACC2", () -> dmsChangeListener.onChange("ACC3", "ACC3_2024.xml"));
+
+        runtime.process(request("ACC1", STALE_TOLERANCE));
+        runtime.process(request("ACC1", STALE_TOLERANCE));
+        runtime.process(request("ACC2", STALE_TOLERANCE));
+        runtime.process(request("ACC2", STALE_TOLERANCE));
+
+        assertEquals(2, processCount("ACC1"));
+        assertEquals(1, processCount("ACC2"));
+    }
+
+    @Test
+    void leastRecentlyUsedEvicted() {
+        PtfActivityRuntime runtime = newCachingRuntime("2", "PT1H");
+
+        runtime.process(request("ACC1", STALE_TOLERANCE));
+        runtime.process(request("ACC2", STALE_TOLERANCE));
+        runtime.process(request("ACC1", STALE_TOLERANCE));
+        runtime.process(request("ACC3", STALE_TOLERANCE));
+
+        runtime.process(request("ACC1", STALE_TOLERANCE));
+        runtime.process(request("ACC3", STALE_TOLERANCE));
+        runtime.process(request("ACC2", STALE_TOLERANCE));
+
+        assertEquals(1, processCount("ACC1"));
+        assertEquals(2, processCount("ACC2"));
+        assertEquals(1, processCount("ACC3"));
+    }
+}
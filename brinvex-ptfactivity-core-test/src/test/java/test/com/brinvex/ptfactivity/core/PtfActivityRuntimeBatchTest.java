@@ -0,0 +1,113 @@
+package test.com.brinvex.ptfactivity.core;
+
+import com.brinvex.ptfactivity.core.api.CoreModule;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityResult;
+import org.junit.jupiter.api.Test;
+import test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.PROVIDER_A;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.PROVIDER_B;
+
+class PtfActivityRuntimeBatchTest extends StubBaseTest {
+
+    @Test
+    void processAll_resultsInRequestOrder() {
+        Map<String, PtfActivity> returned = new ConcurrentHashMap<>();
+        StubPtfActivityProvider.handle((_, req) -> {
+            String accountName = req.account().name();
+            // Later requests finish first
+            Thread.sleep(5L * (20 - Integer.parseInt(accountName.substring(3))));
+            PtfActivity ptfActivity = new PtfActivity(List.of(), List.of());
+            returned.put(accountName, ptfActivity);
+            return ptfActivity;
+        });
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+
+        List<PtfActivityReq> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(request(i % 2 == 0 ? PROVIDER_A : PROVIDER_B, account("ACC%02d".formatted(i), null), null));
+        }
+        List<PtfActivityResult> results = runtime.processAll(requests);
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PtfActivityResult result = results.get(i);
+            assertSame(requests.get(i), result.request());
+            assertTrue(result.isSuccess());
+            assertSame(returned.get(requests.get(i).account().name()), result.ptfActivity());
+        }
+    }
+
+    @Test
+    void processAll_failureDoesNotAbortBatch() {
+        StubPtfActivityProvider.handle((_, req) -> {
+            if (req.account().name().endsWith("X")) {
+                throw new IllegalArgumentException("Failing account: %s".formatted(req.account().name()));
+            }
+            return new PtfActivity(List.of(), List.of());
+        });
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+
+        List<PtfActivityReq> requests = List.of(
+                request(PROVIDER_A, account("ACC1", null), null),
+                request(PROVIDER_A, account("ACC2X", null), null),
+                request(PROVIDER_B, account("ACC3", null), null),
+                request("unknown", account("ACC4", null), null)
+        );
+        List<PtfActivityResult> results = runtime.processAll(requests);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertNull(results.get(1).ptfActivity());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).failure());
+        assertEquals("Failing account: ACC2X", results.get(1).failure().getMessage());
+        assertTrue(results.get(2).isSuccess());
+        assertInstanceOf(IllegalStateException.class, results.get(3).failure());
+    }
+
+    @Test
+    void processAll_parallelismLimitedPerProvider() {
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+        StubPtfActivityProvider.handle((providerLabel, _) -> {
+            int nowRunning = running.computeIfAbsent(providerLabel, _ -> new AtomicInteger()).incrementAndGet();
+            maxRunning.computeIfAbsent(providerLabel, _ -> new AtomicInteger()).accumulateAndGet(nowRunning, Math::max);
+            try {
+                Thread.sleep(50);
+            } finally {
+                running.get(providerLabel).decrementAndGet();
+            }
+            return new PtfActivity(List.of(), List.of());
+        });
+        PtfActivityRuntime runtime = newRuntime(Map.of(
+                CoreModule.PropKey.batchParallelism, "3",
+                CoreModule.PropKey.providerBatchParallelism.apply(PROVIDER_A), "1"
+        ));
+
+        List<PtfActivityReq> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(request(PROVIDER_A, account("A%s".formatted(i), null), null));
+            requests.add(request(PROVIDER_B, account("B%s".formatted(i), null), null));
+        }
+        assertTrue(runtime.processAll(requests).stream().allMatch(PtfActivityResult::isSuccess));
+
+        assertEquals(1, maxRunning.get(PROVIDER_A).get());
+        int maxRunningB = maxRunning.get(PROVIDER_B).get();
+        assertTrue(maxRunningB > 1 && maxRunningB <= 3, "maxRunningB=%s".formatted(maxRunningB));
+    }
+}
@@ -0,0 +1,80 @@
+package test.com.brinvex.ptfactivity.core;
+
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.PROVIDER_A;
+
+class PtfActivityRuntimeDeadlineTest extends StubBaseTest {
+
+    private final PtfActivity remoteActivity = new PtfActivity(List.of(), List.of());
+
+    private final PtfActivity storedActivity = new PtfActivity(List.of(), List.of());
+
+    /// Behaves like the connectors, falls back to the stored data once the deadline is exceeded
+    private void handleWithFallback(Duration remoteDuration) {
+        StubPtfActivityProvider.handle((_, req) -> {
+            Instant deadline = req.deadline();
+            if (!Instant.now().isBefore(deadline)) {
+                return storedActivity;
+            }
+            Thread.sleep(remoteDuration);
+            return Instant.now().isBefore(deadline) ? remoteActivity : storedActivity;
+        });
+    }
+
+    @Test
+    void processAsync_deadlineAlreadyPassed() throws Exception {
+        handleWithFallback(Duration.ZERO);
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+        PtfActivityReq request = request(PROVIDER_A, account("ACC1", null), null).withDeadline(Instant.now().minusSeconds(1));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertSame(storedActivity, runtime.processAsync(request, executor).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void processAsync_deadlinePassedDuringCall() throws Exception {
+        handleWithFallback(Duration.ofMillis(300));
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+        PtfActivityReq request = request(PROVIDER_A, account("ACC1", null), null).withTimeout(Duration.ofMillis(50));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // The fallback result of the provider is not replaced by a timeout
+            assertSame(storedActivity, runtime.processAsync(request, executor).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void processAsync_deadlineFailureOfProvider() {
+        StubPtfActivityProvider.handle((_, req) -> {
+            throw new DeadlineExceededException("Deadline exceeded - deadline=%s".formatted(req.deadline()));
+        });
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+        PtfActivityReq request = request(PROVIDER_A, account("ACC1", null), null).withDeadline(Instant.now().minusSeconds(1));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<PtfActivity> future = runtime.processAsync(request, executor);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DeadlineExceededException.class, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package test.com.brinvex.ptfactivity.core;
+
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import org.junit.jupiter.api.Test;
+import test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.PROVIDER_A;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.PROVIDER_B;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.UNNAMED;
+import static test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider.UNNAMED_ACCOUNT_TYPE;
+
+class PtfActivityRuntimeDispatchTest extends StubBaseTest {
+
+    @Test
+    void process_dispatchedToMatchingProvider() {
+        Queue<String> handledBy = new ConcurrentLinkedQueue<>();
+        StubPtfActivityProvider.handle((providerLabel, req) -> {
+            handledBy.add("%s:%s".formatted(providerLabel, req.account().name()));
+            return new PtfActivity(List.of(), List.of());
+        });
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+
+        runtime.process(request(PROVIDER_A, account("ACC1", null), null));
+        runtime.process(request(PROVIDER_B, account("ACC2", null), null));
+        // Resolved by the account type via supports()
+        runtime.process(request("other", account("ACC3", UNNAMED_ACCOUNT_TYPE), null));
+        // A named provider wins over an unnamed one supporting the request as well
+        runtime.process(request(PROVIDER_A, account("ACC4", UNNAMED_ACCOUNT_TYPE), null));
+
+        assertEquals(List.of(
+                PROVIDER_A + ":ACC1",
+                PROVIDER_B + ":ACC2",
+                UNNAMED + ":ACC3",
+                PROVIDER_A + ":ACC4"
+        ), List.copyOf(handledBy));
+    }
+
+    @Test
+    void process_unknownProviderRejected() {
+        PtfActivityRuntime runtime = newRuntime(Map.of());
+
+        assertThrows(IllegalStateException.class, () -> runtime.process(request("other", account("ACC1", null), null)));
+        assertThrows(IllegalStateException.class, () -> runtime.process(request("other", account("ACC1", "othertype"), null)));
+    }
+}
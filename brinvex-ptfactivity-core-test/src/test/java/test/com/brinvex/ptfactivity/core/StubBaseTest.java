@@ -0,0 +1,49 @@
+package test.com.brinvex.ptfactivity.core;
+
+import com.brinvex.dms.api.DmsFactory;
+import com.brinvex.ptfactivity.core.api.CoreModule;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
+import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
+import com.brinvex.ptfactivity.core.api.domain.Account;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import test.com.brinvex.ptfactivity.core.stub.StubPtfActivityProvider;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.brinvex.finance.types.enu.Currency.EUR;
+import static java.time.LocalDate.parse;
+
+/// Base of the tests running the runtime against the providers of {@link test.com.brinvex.ptfactivity.core.stub.StubModule},
+/// independent of the environment-bound {@link com.brinvex.ptfactivity.testsupport.TestContext}
+abstract class StubBaseTest {
+
+    @TempDir
+    protected Path dmsRoot;
+
+    @AfterEach
+    void resetStubHandler() {
+        StubPtfActivityProvider.handle((_, _) -> new PtfActivity(List.of(), List.of()));
+    }
+
+    protected PtfActivityRuntime newRuntime(Map<String, String> coreProperties) {
+        DmsFactory dmsFactory = DmsFactory.newFilesystemDmsFactory(dmsRoot);
+        PtfActivityRuntimeConfig.PtfActivityConfigBuilder configBuilder = PtfActivityRuntimeConfig.builder()
+                .dmsFactory(() -> dmsFactory);
+        coreProperties.forEach((key, value) -> configBuilder.setProperty(CoreModule.class, key, value));
+        return PtfActivityRuntime.newPtfActivityRuntime(configBuilder.build());
+    }
+
+    protected static Account account(String name, String type) {
+        return new Account(name, type, EUR, parse("2024-01-01"), null, null, null, Map.of());
+    }
+
+    protected static PtfActivityReq request(String providerName, Account account, Duration staleTolerance) {
+        return new PtfActivityReq(providerName, account, parse("2024-01-01"), parse("2024-12-31"), staleTolerance);
+    }
+}
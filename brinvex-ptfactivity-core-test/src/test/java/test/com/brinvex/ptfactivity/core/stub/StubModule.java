@@ -0,0 +1,11 @@
+package test.com.brinvex.ptfactivity.core.stub;
+
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
+import com.brinvex.ptfactivity.core.api.Module;
+
+/// Test module registered via SPI, its providers delegate to the handler set by {@link StubPtfActivityProvider#handle}
+public interface StubModule extends Module {
+
+    /// The listener the runtime handed to this module, lets tests simulate a connector DMS write
+    DmsChangeListener dmsChangeListener();
+}
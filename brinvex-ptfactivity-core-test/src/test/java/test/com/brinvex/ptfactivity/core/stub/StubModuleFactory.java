@@ -0,0 +1,46 @@
+package test.com.brinvex.ptfactivity.core.stub;
+
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
+import com.brinvex.ptfactivity.core.api.ModuleContext;
+import com.brinvex.ptfactivity.core.api.ModuleFactory;
+import com.brinvex.ptfactivity.core.api.provider.Provider;
+import com.brinvex.ptfactivity.core.api.provider.PtfActivityProvider;
+
+import java.util.List;
+import java.util.SequencedCollection;
+import java.util.Set;
+
+import static java.util.Collections.emptyList;
+
+public class StubModuleFactory implements ModuleFactory<StubModule> {
+
+    @Override
+    public Class<StubModule> connectorType() {
+        return StubModule.class;
+    }
+
+    @Override
+    public Set<Class<? extends Provider<?, ?>>> providerTypes() {
+        return Set.of(PtfActivityProvider.class);
+    }
+
+    @Override
+    public StubModule createConnector(ModuleContext moduleCtx) {
+        List<Provider<?, ?>> ptfActivityProviders = List.of(
+                new StubPtfActivityProvider(StubPtfActivityProvider.PROVIDER_A),
+                new StubPtfActivityProvider(StubPtfActivityProvider.PROVIDER_B),
+                new StubPtfActivityProvider(null)
+        );
+        return new StubModule() {
+            @Override
+            public SequencedCollection<Provider<?, ?>> providers(Class<? extends Provider<?, ?>> providerType) {
+                return providerType == PtfActivityProvider.class ? ptfActivityProviders : emptyList();
+            }
+
+            @Override
+            public DmsChangeListener dmsChangeListener() {
+                return moduleCtx.dmsChangeListener();
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package test.com.brinvex.ptfactivity.core.stub;
+
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.provider.PtfActivityProvider;
+
+import java.util.List;
+
+/// Named providers serve the requests of their provider name,
+/// the unnamed one serves the accounts of type {@link #UNNAMED_ACCOUNT_TYPE} via {@link #supports(PtfActivityReq)}.
+/// All of them delegate to the handler set by the running test.
+public final class StubPtfActivityProvider implements PtfActivityProvider {
+
+    /// Named after the module, so the DMS changes reported by the module invalidate its cached results
+    public static final String PROVIDER_A = "stub";
+
+    public static final String PROVIDER_B = "stub2";
+
+    public static final String UNNAMED_ACCOUNT_TYPE = "stubtype";
+
+    /// Label passed to the handler by the unnamed provider
+    public static final String UNNAMED = "unnamed";
+
+    @FunctionalInterface
+    public interface Handler {
+        PtfActivity process(String providerLabel, PtfActivityReq request) throws Exception;
+    }
+
+    private static volatile Handler handler = (_, _) -> new PtfActivity(List.of(), List.of());
+
+    private final String providerName;
+
+    StubPtfActivityProvider(String providerName) {
+        this.providerName = providerName;
+    }
+
+    public static void handle(Handler handler) {
+        StubPtfActivityProvider.handler = handler;
+    }
+
+    @Override
+    public String providerName() {
+        return providerName;
+    }
+
+    @Override
+    public boolean supports(PtfActivityReq request) {
+        if (providerName != null) {
+            return providerName.equals(request.providerName());
+        }
+        return UNNAMED_ACCOUNT_TYPE.equals(request.account().type());
+    }
+
+    @Override
+    public PtfActivity process(PtfActivityReq request) {
+        try {
+            return handler.process(providerName == null ? UNNAMED : providerName, request);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
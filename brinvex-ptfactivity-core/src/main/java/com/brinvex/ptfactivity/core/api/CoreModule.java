@@ -1,6 +1,20 @@
 package com.brinvex.ptfactivity.core.api;
 
+import java.util.function.Function;
+
 public interface CoreModule extends Module {
 
     Toolbox toolbox();
+
+    interface PropKey extends Module.PropKey {
+        /// Default max number of concurrently processed batch requests per provider name
+        String batchParallelism = "batchParallelism";
+        /// Provider-specific override of {@link #batchParallelism}, e.g. `batchParallelism.ibkr`
+        Function<String, String> providerBatchParallelism = providerName -> "batchParallelism.%s".formatted(providerName);
+        /// Max number of cached {@link com.brinvex.ptfactivity.core.api.domain.PtfActivity} results, `0` disables the cache (default).
+        /// Results of requests with a deadline are not cached, they may be a fallback to the stored data
+        String resultCacheMaxSize = "resultCache.maxSize";
+        /// Max age of a cached result as an ISO-8601 duration, default `PT10M`
+        String resultCacheMaxAge = "resultCache.maxAge";
+    }
 }
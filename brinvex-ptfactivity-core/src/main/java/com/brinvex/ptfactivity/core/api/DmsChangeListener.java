@@ -0,0 +1,12 @@
+package com.brinvex.ptfactivity.core.api;
+
+/// Notified by the connector DMS wrappers whenever they add, replace or delete a document,
+/// so that data derived from the document (e.g. cached results) can be invalidated.
+@FunctionalInterface
+public interface DmsChangeListener {
+
+    DmsChangeListener NOOP = (_, _) -> {
+    };
+
+    void onChange(String directory, String key);
+}
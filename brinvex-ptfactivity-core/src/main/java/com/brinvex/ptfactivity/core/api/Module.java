@@ -16,5 +16,8 @@ public interface Module {
     interface PropKey {
         Function<Class<?>, String> customService = serviceType -> "customService.%s".formatted(serviceType.getSimpleName());
         String dmsWorkspace = "dmsWorkspace";
+        /// Compression of the documents written by the connector DMS wrappers, `none` (default) or `gzip`,
+        /// documents are read correctly in either mode, see {@link com.brinvex.ptfactivity.core.api.general.DmsCompression}
+        String dmsCompression = "dmsCompression";
     }
 }
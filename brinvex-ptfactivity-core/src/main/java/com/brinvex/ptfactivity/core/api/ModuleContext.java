@@ -16,6 +16,8 @@ public interface ModuleContext {
 
     Dms dms();
 
+    DmsChangeListener dmsChangeListener();
+
     Toolbox toolbox();
 
 }
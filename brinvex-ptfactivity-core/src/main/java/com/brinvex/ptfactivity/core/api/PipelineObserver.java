@@ -0,0 +1,48 @@
+package com.brinvex.ptfactivity.core.api;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/// Receives metrics from the statement pipelines of the providers
+/// (fetch, DMS read, parse, merge and map stages).
+/// All methods are no-ops by default, so implementations override only what they need.
+/// Implementations must be thread-safe and fast, they are called on the processing threads.
+public interface PipelineObserver {
+
+    PipelineObserver NOOP = new PipelineObserver() {
+    };
+
+    enum Stage {
+        FETCH,
+        READ,
+        PARSE,
+        MERGE,
+        MAP
+    }
+
+    default void stageCompleted(String providerName, Stage stage, Duration duration) {
+    }
+
+    /// Size of a document read from DMS; for text documents approximated by the number of characters
+    default void bytesRead(String providerName, long byteCount) {
+    }
+
+    default void documentsParsed(String providerName, int documentCount) {
+    }
+
+    default void transactionsProduced(String providerName, int transactionCount) {
+    }
+
+    /// Called before a fetch attempt is repeated, `attempt` is the number of the failed attempt
+    default void fetchRetried(String providerName, int attempt) {
+    }
+
+    default <T> T observe(String providerName, Stage stage, Supplier<T> action) {
+        long startNanos = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            stageCompleted(providerName, stage, Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+    }
+}
@@ -2,12 +2,32 @@ package com.brinvex.ptfactivity.core.api;
 
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityResult;
 import com.brinvex.ptfactivity.core.internal.PtfActivityRuntimeImpl;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface PtfActivityRuntime {
 
     PtfActivity process(PtfActivityReq request);
 
+    /// Processes the given requests concurrently on virtual threads.
+    /// The number of requests processed at the same time for one provider name
+    /// is limited by {@link CoreModule.PropKey#batchParallelism}.
+    /// A failing request does not abort the batch, its failure is reported in the corresponding result.
+    /// The results are returned in the iteration order of the given requests.
+    List<PtfActivityResult> processAll(Collection<PtfActivityReq> requests);
+
+    /// Processes the given request on the given executor.
+    /// If the request carries a {@link PtfActivityReq#deadline()}, it is up to the provider to honor it,
+    /// i.e. to fall back to already stored data or to fail with a
+    /// {@link com.brinvex.ptfactivity.core.api.exception.DeadlineExceededException};
+    /// the returned future completes with whatever the provider ends up with.
+    CompletableFuture<PtfActivity> processAsync(PtfActivityReq request, Executor executor);
+
     <MODULE extends Module> MODULE getModule(Class<MODULE> moduleType);
 
     static PtfActivityRuntime newPtfActivityRuntime(PtfActivityRuntimeConfig config) {
@@ -50,19 +50,22 @@ public final class PtfActivityRuntimeConfig {
     private final Supplier<JsonMapperFacade> jsonMapper;
     private final Supplier<PdfReaderFacade> pdfReader;
     private final Supplier<Validator> validator;
+    private final Supplier<PipelineObserver> pipelineObserver;
 
     private PtfActivityRuntimeConfig(
             Map<String, String> properties,
             Supplier<DmsFactory> dmsFactory,
             Supplier<JsonMapperFacade> jsonMapper,
             Supplier<PdfReaderFacade> pdfReader,
-            Supplier<Validator> validator
+            Supplier<Validator> validator,
+            Supplier<PipelineObserver> pipelineObserver
     ) {
         this.properties = Map.copyOf(properties);
         this.dmsFactory = dmsFactory;
         this.jsonMapper = jsonMapper;
         this.pdfReader = pdfReader;
         this.validator = validator;
+        this.pipelineObserver = pipelineObserver;
     }
 
     public static PtfActivityConfigBuilder builder() {
@@ -89,6 +92,10 @@ public final class PtfActivityRuntimeConfig {
         return validator;
     }
 
+    public Supplier<PipelineObserver> pipelineObserver() {
+        return pipelineObserver;
+    }
+
     @SuppressWarnings("UnusedReturnValue")
     public static class PtfActivityConfigBuilder {
 
@@ -97,6 +104,7 @@ public final class PtfActivityRuntimeConfig {
         private Supplier<JsonMapperFacade> jsonMapper;
         private Supplier<PdfReaderFacade> pdfReader;
         private Supplier<Validator> validator;
+        private Supplier<PipelineObserver> pipelineObserver;
 
         private PtfActivityConfigBuilder() {
         }
@@ -107,7 +115,8 @@ public final class PtfActivityRuntimeConfig {
                     dmsFactory,
                     jsonMapper,
                     pdfReader,
-                    validator
+                    validator,
+                    pipelineObserver
             );
         }
 
@@ -167,5 +176,10 @@ public final class PtfActivityRuntimeConfig {
             this.validator = validator;
             return this;
         }
+
+        public PtfActivityConfigBuilder pipelineObserver(Supplier<PipelineObserver> pipelineObserver) {
+            this.pipelineObserver = pipelineObserver;
+            return this;
+        }
     }
 }
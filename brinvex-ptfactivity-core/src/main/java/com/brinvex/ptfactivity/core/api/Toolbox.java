@@ -11,4 +11,6 @@ public interface Toolbox {
     PdfReaderFacade pdfReader();
 
     JsonMapperFacade jsonMapper();
+
+    PipelineObserver pipelineObserver();
 }
@@ -1,13 +1,35 @@
 package com.brinvex.ptfactivity.core.api.domain;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 
+/// @param deadline optional point in time after which the request should not wait for remote data anymore;
+///                 providers pass it down to their fetchers and fall back to already stored data or fail fast
 public record PtfActivityReq(
         String providerName,
         Account account,
         LocalDate fromDateIncl,
         LocalDate toDateIncl,
-        Duration staleTolerance
+        Duration staleTolerance,
+        Instant deadline
 ) {
+
+    public PtfActivityReq(
+            String providerName,
+            Account account,
+            LocalDate fromDateIncl,
+            LocalDate toDateIncl,
+            Duration staleTolerance
+    ) {
+        this(providerName, account, fromDateIncl, toDateIncl, staleTolerance, null);
+    }
+
+    public PtfActivityReq withDeadline(Instant deadline) {
+        return new PtfActivityReq(providerName, account, fromDateIncl, toDateIncl, staleTolerance, deadline);
+    }
+
+    public PtfActivityReq withTimeout(Duration timeout) {
+        return withDeadline(Instant.now().plus(timeout));
+    }
 }
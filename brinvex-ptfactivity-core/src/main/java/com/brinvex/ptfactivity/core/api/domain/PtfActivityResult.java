@@ -0,0 +1,30 @@
+package com.brinvex.ptfactivity.core.api.domain;
+
+import static java.util.Objects.requireNonNull;
+
+/// Outcome of processing a single {@link PtfActivityReq} within a batch.
+/// Exactly one of `ptfActivity` and `failure` is non-null.
+public record PtfActivityResult(
+        PtfActivityReq request,
+        PtfActivity ptfActivity,
+        Exception failure
+) {
+    public PtfActivityResult {
+        requireNonNull(request);
+        if ((ptfActivity == null) == (failure == null)) {
+            throw new IllegalArgumentException("Exactly one of [ptfActivity, failure] must not be null");
+        }
+    }
+
+    public static PtfActivityResult success(PtfActivityReq request, PtfActivity ptfActivity) {
+        return new PtfActivityResult(request, ptfActivity, null);
+    }
+
+    public static PtfActivityResult failure(PtfActivityReq request, Exception failure) {
+        return new PtfActivityResult(request, null, failure);
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.brinvex.ptfactivity.core.api.exception;
+
+public class DeadlineExceededException extends FetchException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,206 @@
+package com.brinvex.ptfactivity.core.api.general;
+
+import com.brinvex.ptfactivity.core.api.exception.StorageException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/// Compression of the documents stored by the connector DMS wrappers, selected by the module property
+/// {@link com.brinvex.ptfactivity.core.api.Module.PropKey#dmsCompression}.
+///
+/// The DMS stores text, so a compressed document is written as the Base64 encoded gzip of its UTF-8 bytes,
+/// which always starts with {@code H4sI}. The decoding methods are static and work regardless of the configured mode:
+/// they recognize that prefix as well as raw gzip content and return any other content, e.g. a document
+/// stored before the compression was enabled, unchanged.
+public enum DmsCompression {
+
+    NONE,
+
+    GZIP;
+
+    private static final String BASE64_GZIP_PREFIX = "H4sI";
+
+    public static DmsCompression parse(String value) {
+        for (DmsCompression compression : values()) {
+            if (compression.name().equalsIgnoreCase(value)) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported DMS compression: %s".formatted(value));
+    }
+
+    /// Content to be stored for the given document content.
+    /// The content is compressed chunk by chunk, without a copy of it as a whole.
+    public String encode(CharSequence content) {
+        if (this == NONE) {
+            return content.toString();
+        }
+        int length = content.length();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 8 + 64);
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Base64.getEncoder().wrap(compressed), 16 * 1024), UTF_8)) {
+            char[] chunk = new char[8 * 1024];
+            for (int start = 0; start < length; start += chunk.length) {
+                int end = Math.min(length, start + chunk.length);
+                for (int i = start; i < end; i++) {
+                    chunk[i - start] = content.charAt(i);
+                }
+                out.write(chunk, 0, end - start);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress content", e);
+        }
+        return compressed.toString(ISO_8859_1);
+    }
+
+    public static boolean isEncoded(String storedContent) {
+        return storedContent != null && storedContent.startsWith(BASE64_GZIP_PREFIX);
+    }
+
+    /// Document content for the given stored text content
+    public static String decodeText(String storedContent) {
+        if (!isEncoded(storedContent)) {
+            return storedContent;
+        }
+        try (InputStream in = openEncoded(storedContent)) {
+            return new String(in.readAllBytes(), UTF_8);
+        } catch (IOException e) {
+            throw new StorageException("Failed to decompress content", e);
+        }
+    }
+
+    /// First lines of the document for the first lines of the stored text content.
+    /// A compressed document is stored on a single line, which is decoded and decompressed as a stream,
+    /// so only the part holding the first {@code limit} lines is processed.
+    public static List<String> decodeLines(List<String> storedLines, int limit) {
+        if (storedLines.isEmpty() || !isEncoded(storedLines.getFirst())) {
+            return storedLines;
+        }
+        List<String> lines = new ArrayList<>(Math.min(limit, 64));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openEncoded(storedLines.getFirst()), UTF_8), 1024)) {
+            String line;
+            while (lines.size() < limit && (line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to decompress content", e);
+        }
+        return lines;
+    }
+
+    /// Stream of the document for the given stored content, decompressed on the fly if needed.
+    /// {@link InputStream#available()} returns the number of the stored bytes not read yet.
+    public static InputStream openBinary(byte[] storedContent) {
+        if (isGzip(storedContent)) {
+            ByteArrayInputStream stored = new ByteArrayInputStream(storedContent);
+            return decompressing(stored, stored);
+        }
+        if (startsWithEncodedPrefix(storedContent)) {
+            return openEncoded(new ByteArrayInputStream(storedContent));
+        }
+        return new ByteArrayInputStream(storedContent);
+    }
+
+    /// Document bytes for the given stored content
+    public static byte[] decodeBinary(byte[] storedContent) {
+        if (!isGzip(storedContent) && !startsWithEncodedPrefix(storedContent)) {
+            return storedContent;
+        }
+        try (InputStream in = openBinary(storedContent)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new StorageException("Failed to decompress content", e);
+        }
+    }
+
+    private static boolean isGzip(byte[] storedContent) {
+        return storedContent.length >= 2 && (storedContent[0] & 0xff) == 0x1f && (storedContent[1] & 0xff) == 0x8b;
+    }
+
+    private static boolean startsWithEncodedPrefix(byte[] storedContent) {
+        if (storedContent.length < BASE64_GZIP_PREFIX.length()) {
+            return false;
+        }
+        for (int i = 0; i < BASE64_GZIP_PREFIX.length(); i++) {
+            if (storedContent[i] != BASE64_GZIP_PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static InputStream openEncoded(String storedContent) {
+        return openEncoded(new Base64TextInputStream(storedContent));
+    }
+
+    private static InputStream openEncoded(InputStream stored) {
+        // The MIME decoder skips the line separators a DMS or an editor might have added
+        return decompressing(Base64.getMimeDecoder().wrap(stored), stored);
+    }
+
+    private static InputStream decompressing(InputStream compressed, InputStream stored) {
+        try {
+            return new FilterInputStream(new GZIPInputStream(compressed, 16 * 1024)) {
+                @Override
+                public int available() throws IOException {
+                    return stored.available();
+                }
+            };
+        } catch (IOException e) {
+            throw new StorageException("Failed to decompress content", e);
+        }
+    }
+
+    /// Bytes of the Base64 text read on demand, so the text is not copied into a byte array first
+    private static final class Base64TextInputStream extends InputStream {
+
+        private final String text;
+
+        private int pos;
+
+        private Base64TextInputStream(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return pos < text.length() ? text.charAt(pos++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            int n = Math.min(len, text.length() - pos);
+            if (n <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) text.charAt(pos++);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return text.length() - pos;
+        }
+    }
+}
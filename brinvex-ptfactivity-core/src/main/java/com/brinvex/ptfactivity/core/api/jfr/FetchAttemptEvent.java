@@ -0,0 +1,40 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.brinvex.ptfactivity.FetchAttempt")
+@Label("Fetch Attempt")
+@Description("One remote request made while fetching a statement")
+@Category({"Brinvex", "PtfActivity"})
+public class FetchAttemptEvent extends Event {
+
+    @Label("Provider")
+    public String providerName;
+
+    @Label("Query Id")
+    public String queryId;
+
+    @Label("Step")
+    @Description("Name of the remote operation")
+    public String step;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("HTTP Status")
+    public int httpStatus;
+
+    @Label("Error Code")
+    @Description("Error code reported by the remote service, if any")
+    public String errorCode;
+
+    @Label("Byte Size")
+    @Description("Size of the response body, approximated by the number of characters")
+    @DataAmount
+    public long byteSize;
+}
@@ -0,0 +1,24 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.brinvex.ptfactivity.FetchSleep")
+@Label("Fetch Sleep")
+@Description("Waiting between remote requests made while fetching a statement")
+@Category({"Brinvex", "PtfActivity"})
+public class FetchSleepEvent extends Event {
+
+    @Label("Provider")
+    public String providerName;
+
+    @Label("Query Id")
+    public String queryId;
+
+    @Label("Attempt")
+    @Description("Number of the preceding attempt, 0 if the wait is not caused by a failed attempt")
+    public int attempt;
+}
@@ -0,0 +1,31 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.brinvex.ptfactivity.Map")
+@Label("FinTransaction Mapping")
+@Description("Mapping of provider specific records to FinTransactions")
+@Category({"Brinvex", "PtfActivity"})
+public class MapEvent extends Event {
+
+    @Label("Provider")
+    public String providerName;
+
+    @Label("Account Id")
+    public String accountId;
+
+    @Label("Mapping")
+    @Description("Name of the mapper method")
+    public String mapping;
+
+    @Label("Input Count")
+    public int inputCount;
+
+    @Label("Item Count")
+    @Description("Number of produced FinTransactions")
+    public int itemCount;
+}
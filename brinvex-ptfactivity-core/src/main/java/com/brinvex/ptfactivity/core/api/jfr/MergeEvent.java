@@ -0,0 +1,28 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.brinvex.ptfactivity.Merge")
+@Label("Statement Merge")
+@Description("Merging of parsed statements or transactions")
+@Category({"Brinvex", "PtfActivity"})
+public class MergeEvent extends Event {
+
+    @Label("Provider")
+    public String providerName;
+
+    @Label("Account Id")
+    public String accountId;
+
+    @Label("Input Count")
+    @Description("Number of merged inputs")
+    public int inputCount;
+
+    @Label("Item Count")
+    @Description("Number of items in the merge result")
+    public int itemCount;
+}
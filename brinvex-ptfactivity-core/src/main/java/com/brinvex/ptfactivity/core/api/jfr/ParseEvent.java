@@ -0,0 +1,33 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.brinvex.ptfactivity.Parse")
+@Label("Statement Parse")
+@Description("Parsing of one statement document")
+@Category({"Brinvex", "PtfActivity"})
+public class ParseEvent extends Event {
+
+    @Label("Provider")
+    public String providerName;
+
+    @Label("Account Id")
+    public String accountId;
+
+    @Label("Document Key")
+    public String docKey;
+
+    @Label("Byte Size")
+    @Description("Size of the parsed document, for text documents approximated by the number of characters")
+    @DataAmount
+    public long byteSize;
+
+    @Label("Item Count")
+    @Description("Number of items (transactions, trades, snapshots, ...) parsed from the document")
+    public int itemCount;
+}
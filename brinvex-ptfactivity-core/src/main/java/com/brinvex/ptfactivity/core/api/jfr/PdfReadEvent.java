@@ -0,0 +1,23 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.brinvex.ptfactivity.PdfRead")
+@Label("PDF Text Extraction")
+@Category({"Brinvex", "PtfActivity"})
+public class PdfReadEvent extends Event {
+
+    @Label("Byte Size")
+    @DataAmount
+    public long byteSize;
+
+    @Label("Page Count")
+    public int pageCount;
+
+    @Label("Line Count")
+    public int lineCount;
+}
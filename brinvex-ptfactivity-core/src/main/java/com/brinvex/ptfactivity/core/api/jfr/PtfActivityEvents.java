@@ -0,0 +1,80 @@
+package com.brinvex.ptfactivity.core.api.jfr;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/// Records the pipeline JFR events around the given actions.
+/// Events are committed only for actions that complete normally.
+/// When the events are disabled, the overhead is a single allocation per call.
+public final class PtfActivityEvents {
+
+    private PtfActivityEvents() {
+    }
+
+    public static <T> T parse(
+            String providerName,
+            String accountId,
+            Object docKey,
+            long byteSize,
+            Supplier<T> parser,
+            ToIntFunction<? super T> itemCounter
+    ) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        T result = parser.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.providerName = providerName;
+            event.accountId = accountId;
+            event.docKey = docKey == null ? null : docKey.toString();
+            event.byteSize = byteSize;
+            event.itemCount = itemCounter.applyAsInt(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    public static <T> T merge(
+            String providerName,
+            String accountId,
+            int inputCount,
+            Supplier<T> merger,
+            ToIntFunction<? super T> itemCounter
+    ) {
+        MergeEvent event = new MergeEvent();
+        event.begin();
+        T result = merger.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.providerName = providerName;
+            event.accountId = accountId;
+            event.inputCount = inputCount;
+            event.itemCount = itemCounter.applyAsInt(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    public static <T> T map(
+            String providerName,
+            String accountId,
+            String mapping,
+            int inputCount,
+            Supplier<T> mapper,
+            ToIntFunction<? super T> itemCounter
+    ) {
+        MapEvent event = new MapEvent();
+        event.begin();
+        T result = mapper.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.providerName = providerName;
+            event.accountId = accountId;
+            event.mapping = mapping;
+            event.inputCount = inputCount;
+            event.itemCount = itemCounter.applyAsInt(result);
+            event.commit();
+        }
+        return result;
+    }
+}
@@ -5,4 +5,10 @@ import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
 
 public interface PtfActivityProvider extends Provider<PtfActivityReq, PtfActivity> {
 
+    /// The {@link PtfActivityReq#providerName()} this provider serves.
+    /// Providers returning a non-null name are indexed once by the runtime and dispatched without calling {@link #supports(Object)};
+    /// providers returning `null` are only consulted via {@link #supports(Object)} when no named provider matches.
+    default String providerName() {
+        return null;
+    }
 }
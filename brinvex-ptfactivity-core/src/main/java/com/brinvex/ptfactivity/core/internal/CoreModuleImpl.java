@@ -29,7 +29,10 @@ public class CoreModuleImpl implements CoreModule {
     }
 
     private PtfActivityProvider ptfProgressProvider() {
-        return moduleCtx.singletonService(PtfActivityProvider.class, () -> new PtfActivityProviderImpl(moduleCtx.dms()));
+        return moduleCtx.singletonService(PtfActivityProvider.class, () -> new PtfActivityProviderImpl(
+                moduleCtx.dms(),
+                moduleCtx.toolbox().pipelineObserver()
+        ));
     }
 
     @Override
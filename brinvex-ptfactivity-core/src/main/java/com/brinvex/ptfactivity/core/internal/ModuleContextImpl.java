@@ -1,5 +1,6 @@
 package com.brinvex.ptfactivity.core.internal;
 
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
 import com.brinvex.ptfactivity.core.api.Module;
@@ -12,8 +13,8 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
@@ -29,20 +30,24 @@ public class ModuleContextImpl implements ModuleContext {
 
     private final ToolboxImpl toolbox;
 
+    private final DmsChangeListener dmsChangeListener;
+
     private volatile Dms dms;
 
-    private final Map<Class<?>, Object> singletons = new LinkedHashMap<>();
+    private final Map<Class<?>, Object> singletons = new ConcurrentHashMap<>();
 
     public ModuleContextImpl(
             PtfActivityRuntime ptfActivityRuntime,
             PtfActivityRuntimeConfig config,
             Toolbox toolbox,
-            Class<? extends Module> moduleType
+            Class<? extends Module> moduleType,
+            DmsChangeListener dmsChangeListener
     ) {
         this.moduleCompactName = Module.compactName(moduleType);
         this.ptfActivityRuntime = ptfActivityRuntime;
         this.config = config;
         this.toolbox = (ToolboxImpl) toolbox;
+        this.dmsChangeListener = dmsChangeListener;
     }
 
     @Override
@@ -94,6 +99,11 @@ public class ModuleContextImpl implements ModuleContext {
         return dms;
     }
 
+    @Override
+    public DmsChangeListener dmsChangeListener() {
+        return dmsChangeListener;
+    }
+
     @Override
     public Toolbox toolbox() {
         return toolbox;
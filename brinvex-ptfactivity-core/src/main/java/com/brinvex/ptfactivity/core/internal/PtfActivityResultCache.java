@@ -0,0 +1,131 @@
+package com.brinvex.ptfactivity.core.internal;
+
+import com.brinvex.ptfactivity.core.api.domain.Account;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size and age bounded cache of {@link PtfActivity} results keyed by (providerName, account, fromDateIncl, toDateIncl).
+ * Entries of an account are invalidated whenever a DMS document in a directory belonging to that account changes.
+ */
+class PtfActivityResultCache {
+
+    private record Key(String providerName, Account account, LocalDate fromDateIncl, LocalDate toDateIncl) {
+    }
+
+    private record Entry(PtfActivity ptfActivity, long createdOnNanos, Set<String> accountDirectories) {
+    }
+
+    private record Directory(String providerName, String accountDirectory) {
+    }
+
+    private final int maxSize;
+
+    private final long maxAgeNanos;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /// Number of invalidations per account directory, the directories never invalidated are missing
+    private final Map<Directory, Long> invalidationCounts = new HashMap<>();
+
+    PtfActivityResultCache(int maxSize, Duration maxAge) {
+        this.maxSize = maxSize;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PtfActivityResultCache.this.maxSize;
+            }
+        };
+    }
+
+    synchronized PtfActivity get(String providerName, PtfActivityReq request) {
+        Key key = newKey(providerName, request);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long ageNanos = System.nanoTime() - entry.createdOnNanos();
+        if (ageNanos > maxAgeNanos) {
+            entries.remove(key);
+            return null;
+        }
+        Duration staleTolerance = request.staleTolerance();
+        if (staleTolerance != null && ageNanos > staleTolerance.toNanos()) {
+            return null;
+        }
+        return entry.ptfActivity();
+    }
+
+    /**
+     * Returns a marker to be passed to {@link #put(String, PtfActivityReq, PtfActivity, long)},
+     * which prevents caching a result computed while some documents of the requested account were changing.
+     */
+    synchronized long invalidationCount(String providerName, PtfActivityReq request) {
+        return invalidationCount(providerName, accountDirectories(request.account()));
+    }
+
+    synchronized void put(String providerName, PtfActivityReq request, PtfActivity ptfActivity, long invalidationCountBefore) {
+        Set<String> accountDirectories = accountDirectories(request.account());
+        if (invalidationCountBefore != invalidationCount(providerName, accountDirectories)) {
+            return;
+        }
+        entries.put(newKey(providerName, request), new Entry(ptfActivity, System.nanoTime(), accountDirectories));
+    }
+
+    synchronized void invalidate(String providerName, String directory) {
+        int slashIdx = directory.indexOf('/');
+        String accountDirectory = slashIdx < 0 ? directory : directory.substring(0, slashIdx);
+        invalidationCounts.merge(new Directory(providerName, accountDirectory), 1L, Long::sum);
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().providerName().equals(providerName) && e.getValue().accountDirectories().contains(accountDirectory)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The counts only grow, so their sum changes whenever any of the given directories is invalidated.
+     */
+    private long invalidationCount(String providerName, Set<String> accountDirectories) {
+        long invalidationCount = 0;
+        for (String accountDirectory : accountDirectories) {
+            invalidationCount += invalidationCounts.getOrDefault(new Directory(providerName, accountDirectory), 0L);
+        }
+        return invalidationCount;
+    }
+
+    private static Key newKey(String providerName, PtfActivityReq request) {
+        return new Key(providerName, request.account(), request.fromDateIncl(), request.toDateIncl());
+    }
+
+    /**
+     * Connectors store documents in directories named after the account name or one of its external ids
+     * (including the external ids of migrated accounts kept in extraProps).
+     */
+    private static Set<String> accountDirectories(Account account) {
+        Set<String> accountDirectories = new HashSet<>();
+        if (account.name() != null) {
+            accountDirectories.add(account.name());
+        }
+        if (account.externalId() != null) {
+            accountDirectories.add(account.externalId());
+        }
+        for (Map.Entry<String, String> e : account.extraProps().entrySet()) {
+            if (e.getKey().endsWith("externalId") && e.getValue() != null) {
+                accountDirectories.add(e.getValue());
+            }
+        }
+        return Set.copyOf(accountDirectories);
+    }
+}
@@ -1,6 +1,7 @@
 package com.brinvex.ptfactivity.core.internal;
 
 import com.brinvex.ptfactivity.core.api.CoreModule;
+import com.brinvex.ptfactivity.core.api.DmsChangeListener;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntime;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
 import com.brinvex.ptfactivity.core.api.Module;
@@ -8,21 +9,32 @@ import com.brinvex.ptfactivity.core.api.ModuleFactory;
 import com.brinvex.ptfactivity.core.api.Toolbox;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivityReq;
+import com.brinvex.ptfactivity.core.api.domain.PtfActivityResult;
 import com.brinvex.ptfactivity.core.api.provider.Provider;
 import com.brinvex.java.validation.Assert;
 import com.brinvex.ptfactivity.core.api.provider.PtfActivityProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SequencedCollection;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import static com.brinvex.java.collection.CollectionUtil.getFirstThrowIfMore;
+import static java.util.Objects.requireNonNullElse;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toMap;
 
@@ -31,14 +43,16 @@ public class PtfActivityRuntimeImpl implements PtfActivityRuntime {
 
     private final Map<Class<?>, ModuleFactory<?>> moduleFactories;
 
-    private final Map<Class<?>, Module> modules = new LinkedHashMap<>();
+    private final Map<Class<?>, Module> modules = new ConcurrentHashMap<>();
 
-    private final Map<Class<?>, List<Provider<?, ?>>> extensionProviders = new LinkedHashMap<>();
-
-    private final Map<Class<?>, Provider<?, ?>> coreProviders = new LinkedHashMap<>();
+    private final Map<Class<?>, List<Provider<?, ?>>> extensionProviders = new ConcurrentHashMap<>();
 
     private final PtfActivityRuntimeConfig config;
 
+    private volatile PtfActivityProviderIndex ptfActivityProviderIndex;
+
+    private final PtfActivityResultCache resultCache;
+
     private volatile Toolbox toolbox;
 
     private volatile CoreModule core;
@@ -47,6 +61,7 @@ public class PtfActivityRuntimeImpl implements PtfActivityRuntime {
         LOG.debug("Instantiating PtfActivityRuntimeImpl: {}", config);
         this.config = config;
         this.moduleFactories = loadModuleFactories();
+        this.resultCache = newResultCache(config);
     }
 
     @SuppressWarnings("unchecked")
@@ -64,7 +79,8 @@ public class PtfActivityRuntimeImpl implements PtfActivityRuntime {
                     if (moduleFactory == null) {
                         throw new IllegalStateException("Module factory not found: " + moduleType);
                     }
-                    module = moduleFactory.createConnector(new ModuleContextImpl(this, config, getToolboxModule(), moduleType));
+                    module = moduleFactory.createConnector(new ModuleContextImpl(
+                            this, config, getToolboxModule(), moduleType, newDmsChangeListener(moduleType)));
                     Assert.notNull(module);
                     modules.put(moduleType, module);
                 }
@@ -75,11 +91,159 @@ public class PtfActivityRuntimeImpl implements PtfActivityRuntime {
 
     @Override
     public PtfActivity process(PtfActivityReq request) {
-        return getProvider(PtfActivityProvider.class, request).process(request);
+        PtfActivityProvider provider = getPtfActivityProvider(request);
+        if (resultCache == null) {
+            return provider.process(request);
+        }
+        String providerName = normalizedProviderName(request);
+        PtfActivity ptfActivity = resultCache.get(providerName, request);
+        if (ptfActivity != null) {
+            LOG.debug("process - cache hit: {}", request);
+            return ptfActivity;
+        }
+        if (request.deadline() != null) {
+            // A provider falls back to the stored data once the deadline is exceeded, such a result must not be served to others
+            return provider.process(request);
+        }
+        long invalidationCountBefore = resultCache.invalidationCount(providerName, request);
+        ptfActivity = provider.process(request);
+        resultCache.put(providerName, request, ptfActivity, invalidationCountBefore);
+        return ptfActivity;
+    }
+
+    @Override
+    public List<PtfActivityResult> processAll(Collection<PtfActivityReq> requests) {
+        int size = requests.size();
+        LOG.debug("processAll - size={}", size);
+
+        Map<String, Semaphore> providerPermits = new HashMap<>();
+        for (PtfActivityReq request : requests) {
+            providerPermits.computeIfAbsent(normalizedProviderName(request), this::newBatchPermits);
+        }
+
+        List<Future<PtfActivity>> futures = new ArrayList<>(size);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PtfActivityReq request : requests) {
+                Semaphore permits = providerPermits.get(normalizedProviderName(request));
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return process(request);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<PtfActivityResult> results = new ArrayList<>(size);
+        int i = 0;
+        for (PtfActivityReq request : requests) {
+            Future<PtfActivity> future = futures.get(i++);
+            results.add(switch (future.state()) {
+                case SUCCESS -> PtfActivityResult.success(request, future.resultNow());
+                case FAILED -> {
+                    Throwable failure = future.exceptionNow();
+                    if (failure instanceof Exception e) {
+                        LOG.debug("processAll - request failed: {}, {}", request, e.toString());
+                        yield PtfActivityResult.failure(request, e);
+                    }
+                    throw (Error) failure;
+                }
+                case CANCELLED, RUNNING -> throw new IllegalStateException("Unexpected state: %s, %s".formatted(future.state(), request));
+            });
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<PtfActivity> processAsync(PtfActivityReq request, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> process(request), executor);
+    }
+
+    private String normalizedProviderName(PtfActivityReq request) {
+        return requireNonNullElse(request.providerName(), Module.compactName(CoreModule.class));
+    }
+
+    private Semaphore newBatchPermits(String providerName) {
+        String coreModule = Module.compactName(CoreModule.class);
+        String defaultParallelism = config.getProperty(coreModule, CoreModule.PropKey.batchParallelism, "4");
+        int parallelism = Integer.parseInt(config.getProperty(
+                coreModule, CoreModule.PropKey.providerBatchParallelism.apply(providerName), defaultParallelism));
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Batch parallelism must be positive: %s, %s".formatted(providerName, parallelism));
+        }
+        return new Semaphore(parallelism);
+    }
+
+    /// Registered providers of {@link PtfActivityProvider} indexed by {@link PtfActivityProvider#providerName()}.
+    /// Unnamed providers are kept aside and resolved via {@link PtfActivityProvider#supports(Object)}.
+    private record PtfActivityProviderIndex(
+            Map<String, PtfActivityProvider> namedProviders,
+            List<PtfActivityProvider> unnamedProviders
+    ) {
+    }
+
+    private PtfActivityProvider getPtfActivityProvider(PtfActivityReq request) {
+        PtfActivityProviderIndex index = getPtfActivityProviderIndex();
+        String providerName = normalizedProviderName(request);
+        PtfActivityProvider resultProvider = index.namedProviders().get(providerName);
+        if (resultProvider == null) {
+            for (PtfActivityProvider provider : index.unnamedProviders()) {
+                if (provider.supports(request)) {
+                    if (resultProvider == null) {
+                        resultProvider = provider;
+                    } else {
+                        throw new IllegalStateException("Multiple providers found: %s, %s, %s, %s".formatted(
+                                PtfActivityProvider.class, request, resultProvider, provider));
+                    }
+                }
+            }
+        }
+        if (resultProvider == null) {
+            throw new IllegalStateException("Provider not found: %s, %s".formatted(PtfActivityProvider.class, request));
+        }
+        return resultProvider;
+    }
+
+    private PtfActivityProviderIndex getPtfActivityProviderIndex() {
+        if (ptfActivityProviderIndex == null) {
+            synchronized (extensionProviders) {
+                if (ptfActivityProviderIndex == null) {
+                    Map<String, PtfActivityProvider> namedProviders = new HashMap<>();
+                    List<PtfActivityProvider> unnamedProviders = new ArrayList<>();
+                    for (Provider<?, ?> provider : getExtensionProviders(PtfActivityProvider.class)) {
+                        PtfActivityProvider typedProvider = (PtfActivityProvider) provider;
+                        String providerName = typedProvider.providerName();
+                        if (providerName == null) {
+                            unnamedProviders.add(typedProvider);
+                        } else {
+                            PtfActivityProvider otherProvider = namedProviders.putIfAbsent(providerName, typedProvider);
+                            if (otherProvider != null) {
+                                throw new IllegalStateException("Multiple providers registered for providerName=%s: %s, %s".formatted(
+                                        providerName, otherProvider, typedProvider));
+                            }
+                        }
+                    }
+                    PtfActivityProvider coreProvider = (PtfActivityProvider) getFirstThrowIfMore(getCoreModule().providers(PtfActivityProvider.class));
+                    if (coreProvider != null) {
+                        String coreProviderName = requireNonNullElse(coreProvider.providerName(), Module.compactName(CoreModule.class));
+                        PtfActivityProvider otherProvider = namedProviders.putIfAbsent(coreProviderName, coreProvider);
+                        if (otherProvider != null) {
+                            throw new IllegalStateException("Multiple providers registered for providerName=%s: %s, %s".formatted(
+                                    coreProviderName, otherProvider, coreProvider));
+                        }
+                    }
+                    LOG.debug("Indexed providers: {} -> named={}, unnamed={}", PtfActivityProvider.class, namedProviders, unnamedProviders);
+                    ptfActivityProviderIndex = new PtfActivityProviderIndex(Map.copyOf(namedProviders), List.copyOf(unnamedProviders));
+                }
+            }
+        }
+        return ptfActivityProviderIndex;
     }
 
     @SuppressWarnings("unchecked")
-    private <REQUEST, PROVIDER extends Provider<REQUEST, ?>> PROVIDER getProvider(Class<PROVIDER> providerType, REQUEST request) {
+    private List<Provider<?, ?>> getExtensionProviders(Class<? extends Provider<?, ?>> providerType) {
         List<Provider<?, ?>> extensionProvidersForType = extensionProviders.get(providerType);
         if (extensionProvidersForType == null) {
             synchronized (extensionProviders) {
@@ -100,41 +264,26 @@ public class PtfActivityRuntimeImpl implements PtfActivityRuntime {
                 }
             }
         }
-        PROVIDER resultProvider = null;
-        for (Provider<?, ?> provider : extensionProvidersForType) {
-            PROVIDER typedProvider = (PROVIDER) provider;
-            if (typedProvider.supports(request)) {
-                if (resultProvider == null) {
-                    resultProvider = typedProvider;
-                } else {
-                    throw new IllegalStateException("Multiple providers found: %s, %s, %s, %s".formatted(providerType, request, resultProvider, typedProvider));
-                }
-            }
-        }
-        if (resultProvider == null) {
-            PROVIDER coreProvider = (PROVIDER) coreProviders.get(providerType);
-            if (coreProvider == null) {
-                synchronized (coreProviders) {
-                    coreProvider = (PROVIDER) coreProviders.get(providerType);
-                    if (coreProvider == null) {
-                        coreProvider = (PROVIDER) getFirstThrowIfMore(getCoreModule().providers(providerType));
-                        if (coreProvider != null) {
-                            coreProviders.put(providerType, coreProvider);
-                            LOG.debug("Assigning core provider: {} -> {}", providerType, coreProvider);
-                        }
-                    }
-                }
-            }
-            if (coreProvider != null) {
-                if (coreProvider.supports(request)) {
-                    resultProvider = coreProvider;
-                }
-            }
+        return extensionProvidersForType;
+    }
+
+    private static PtfActivityResultCache newResultCache(PtfActivityRuntimeConfig config) {
+        String coreModule = Module.compactName(CoreModule.class);
+        int maxSize = Integer.parseInt(config.getProperty(coreModule, CoreModule.PropKey.resultCacheMaxSize, "0"));
+        if (maxSize <= 0) {
+            return null;
         }
-        if (resultProvider == null) {
-            throw new IllegalStateException("Provider not found: %s, %s".formatted(providerType, request));
+        Duration maxAge = Duration.parse(config.getProperty(coreModule, CoreModule.PropKey.resultCacheMaxAge, "PT10M"));
+        LOG.debug("Result cache enabled - maxSize={}, maxAge={}", maxSize, maxAge);
+        return new PtfActivityResultCache(maxSize, maxAge);
+    }
+
+    private DmsChangeListener newDmsChangeListener(Class<? extends Module> moduleType) {
+        if (resultCache == null) {
+            return DmsChangeListener.NOOP;
         }
-        return resultProvider;
+        String moduleCompactName = Module.compactName(moduleType);
+        return (directory, _) -> resultCache.invalidate(moduleCompactName, directory);
     }
 
     private static Map<Class<?>, ModuleFactory<?>> loadModuleFactories() {
@@ -167,7 +316,8 @@ public class PtfActivityRuntimeImpl implements PtfActivityRuntime {
         if (core == null) {
             synchronized (modules) {
                 if (core == null) {
-                    core = new CoreModuleImpl(new ModuleContextImpl(this, config, getToolboxModule(), CoreModule.class));
+                    core = new CoreModuleImpl(new ModuleContextImpl(
+                            this, config, getToolboxModule(), CoreModule.class, newDmsChangeListener(CoreModule.class)));
                 }
             }
         }
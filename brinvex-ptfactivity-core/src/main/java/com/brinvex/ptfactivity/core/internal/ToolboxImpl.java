@@ -2,6 +2,7 @@ package com.brinvex.ptfactivity.core.internal;
 
 import com.brinvex.dms.api.DmsFactory;
 import com.brinvex.java.validation.Validate;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
 import com.brinvex.ptfactivity.core.api.PtfActivityRuntimeConfig;
 import com.brinvex.ptfactivity.core.api.Toolbox;
 import com.brinvex.ptfactivity.core.api.facade.JsonMapperFacade;
@@ -32,6 +33,8 @@ public class ToolboxImpl implements Toolbox {
 
     private volatile PdfReaderFacade pdfReader;
 
+    private volatile PipelineObserver pipelineObserver;
+
     public ToolboxImpl(PtfActivityRuntimeConfig config) {
         Validate.notNull(config);
         this.config = config;
@@ -92,6 +95,23 @@ public class ToolboxImpl implements Toolbox {
         return pdfReader;
     }
 
+    @Override
+    public PipelineObserver pipelineObserver() {
+        if (pipelineObserver == null) {
+            synchronized (this) {
+                if (pipelineObserver == null) {
+                    Supplier<PipelineObserver> pipelineObserverSupplier = config.pipelineObserver();
+                    if (pipelineObserverSupplier != null) {
+                        pipelineObserver = pipelineObserverSupplier.get();
+                    } else {
+                        pipelineObserver = PipelineObserver.NOOP;
+                    }
+                }
+            }
+        }
+        return pipelineObserver;
+    }
+
     public DmsFactory dmsFactory() {
         if (dmsFactory == null) {
             synchronized (this) {
@@ -1,6 +1,7 @@
 package com.brinvex.ptfactivity.core.internal.facade;
 
 import com.brinvex.ptfactivity.core.api.facade.PdfReaderFacade;
+import com.brinvex.ptfactivity.core.api.jfr.PdfReadEvent;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -17,6 +18,8 @@ public class PdfReaderFacadeImpl implements PdfReaderFacade {
 
     @Override
     public List<String> readPdfLines(byte[] pdfContent) {
+        PdfReadEvent event = new PdfReadEvent();
+        event.begin();
         try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdfContent))) {
             if (document.isEncrypted()) {
                 throw new IllegalArgumentException("Cannot read encrypted pdf");
@@ -29,7 +32,16 @@ public class PdfReaderFacadeImpl implements PdfReaderFacade {
 
             String text = tStripper.getText(document);
 
-            return Arrays.asList(text.split("\\r?\\n"));
+            List<String> lines = Arrays.asList(text.split("\\r?\\n"));
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.byteSize = pdfContent.length;
+                event.pageCount = document.getNumberOfPages();
+                event.lineCount = lines.size();
+                event.commit();
+            }
+            return lines;
 
         } catch (InvalidPasswordException e) {
             throw new IllegalArgumentException("Cannot read encrypted pdf", e);
@@ -1,6 +1,7 @@
 package com.brinvex.ptfactivity.core.internal.ptfprogress;
 
 import com.brinvex.finance.types.enu.Currency;
+import com.brinvex.ptfactivity.core.api.PipelineObserver;
 import com.brinvex.ptfactivity.core.api.domain.Account;
 import com.brinvex.ptfactivity.core.api.domain.Asset;
 import com.brinvex.ptfactivity.core.api.domain.PtfActivity;
@@ -23,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 
 import static com.brinvex.java.NullUtil.nullSafe;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.PARSE;
+import static com.brinvex.ptfactivity.core.api.PipelineObserver.Stage.READ;
 import static com.brinvex.java.StringUtil.stripToNull;
 import static java.util.Objects.requireNonNullElse;
 
@@ -30,14 +33,22 @@ public class PtfActivityProviderImpl implements PtfActivityProvider {
 
     private final Dms dms;
 
-    public PtfActivityProviderImpl(Dms dms) {
+    private final PipelineObserver observer;
+
+    public PtfActivityProviderImpl(Dms dms, PipelineObserver observer) {
         this.dms = dms;
+        this.observer = observer;
+    }
+
+    @Override
+    public String providerName() {
+        return "core";
     }
 
     @Override
     public boolean supports(PtfActivityReq ptfActivityReq) {
         String reqPtfProgressProvider = ptfActivityReq.providerName();
-        return reqPtfProgressProvider == null || reqPtfProgressProvider.equals("core");
+        return reqPtfProgressProvider == null || reqPtfProgressProvider.equals(providerName());
     }
 
     @Override
@@ -47,8 +58,12 @@ public class PtfActivityProviderImpl implements PtfActivityProvider {
         String docDir = requireNonNullElse(account.name(), account.externalId());
         LocalDate fromDateIncl = ptfActivityReq.fromDateIncl();
         LocalDate toDateIncl = ptfActivityReq.toDateIncl();
-        List<String> transCsvLines = dms.getTextLines(docDir, docDir + "_transactions.csv");
-        List<FinTransaction> finTrans = parseFinTransactions(transCsvLines, fromDateIncl, toDateIncl);
+        String providerName = providerName();
+        List<String> transCsvLines = observer.observe(providerName, READ, () -> dms.getTextLines(docDir, docDir + "_transactions.csv"));
+        observer.bytesRead(providerName, transCsvLines.stream().mapToLong(line -> line.length() + 1).sum());
+        List<FinTransaction> finTrans = observer.observe(providerName, PARSE, () -> parseFinTransactions(transCsvLines, fromDateIncl, toDateIncl));
+        observer.documentsParsed(providerName, 1);
+        observer.transactionsProduced(providerName, finTrans.size());
         return new PtfActivity(finTrans, null);
     }
 
@@ -8,6 +8,7 @@ module com.brinvex.ptfactivity.core {
     exports com.brinvex.ptfactivity.core.api.provider;
     exports com.brinvex.ptfactivity.core.api.exception;
     exports com.brinvex.ptfactivity.core.api.general;
+    exports com.brinvex.ptfactivity.core.api.jfr;
     requires com.brinvex.csv;
     requires com.brinvex.dms;
     requires com.brinvex.finance.types;
@@ -15,6 +16,7 @@ module com.brinvex.ptfactivity.core {
     requires com.fasterxml.jackson.datatype.jsr310;
     requires com.fasterxml.jackson.databind;
     requires jakarta.validation;
+    requires transitive jdk.jfr;
     requires org.apache.pdfbox;
     requires org.apache.pdfbox.io;
     requires org.slf4j;
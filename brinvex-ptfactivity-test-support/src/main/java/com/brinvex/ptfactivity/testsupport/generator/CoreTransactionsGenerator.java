@@ -0,0 +1,90 @@
+package com.brinvex.ptfactivity.testsupport.generator;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.DayActivity;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Dividend;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Instrument;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Trade;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Generates the {@code <accountName>_transactions.csv} documents of the core provider
+/// from {@link SyntheticActivity}.
+public final class CoreTransactionsGenerator {
+
+    private static final String HEADER = "date,type,ccy,netValue,qty,price,asset_type,asset_country,asset_symbol,asset_name,"
+                                         + "asset_countryFigi,asset_isin,asset_extraType,asset_extraDetail,grossValue,tax,fee,"
+                                         + "settleDate,groupId,externalId,externalType,externalDetail";
+
+    private final SyntheticActivity activity;
+
+    public CoreTransactionsGenerator(LoadDataSpec spec) {
+        this.activity = new SyntheticActivity(spec);
+    }
+
+    public List<String> transactionsCsvLines(String accountName, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        List<DayActivity> days = activity.days(accountName, fromDateIncl, toDateIncl);
+
+        List<String> lines = new ArrayList<>(1 + days.size() * (activity.spec().tradesPerDay() + 2));
+        lines.add(HEADER);
+        for (DayActivity day : days) {
+            LocalDate date = day.date();
+            long dayId = day.dayId();
+            if (day.deposit() != null) {
+                String deposit = day.deposit().toPlainString();
+                lines.add("%s,DEPOSIT,USD,%s,0,,,,,,,,,,%s,0,0,%s,,%d,,".formatted(date, deposit, deposit, date, dayId + 9_000));
+            }
+            Dividend dividend = day.dividend();
+            if (dividend != null) {
+                Instrument instrument = dividend.instrument();
+                BigDecimal tax = dividend.tax().negate();
+                lines.add("%s,DIVIDEND,USD,%s,0,,STOCK,US,%s,\"%s\",,%s,,,%s,%s,0,%s,,%d,,".formatted(
+                        date,
+                        dividend.gross().add(tax).toPlainString(),
+                        instrument.symbol(),
+                        instrument.name(),
+                        instrument.isin(),
+                        dividend.gross().toPlainString(),
+                        tax.toPlainString(),
+                        date,
+                        dayId + 9_001
+                ));
+            }
+            LocalDate settleDate = SyntheticActivity.settleDate(date);
+            for (Trade trade : day.trades()) {
+                Instrument instrument = trade.instrument();
+                BigDecimal qty = trade.buy() ? trade.qty() : trade.qty().negate();
+                BigDecimal gross = qty.multiply(trade.price()).negate();
+                BigDecimal fee = trade.commission().negate();
+                lines.add("%s,%s,USD,%s,%s,%s,STOCK,US,%s,\"%s\",,%s,,,%s,0,%s,%s,,%d,,".formatted(
+                        date,
+                        trade.buy() ? "BUY" : "SELL",
+                        gross.add(fee).toPlainString(),
+                        qty.toPlainString(),
+                        trade.price().toPlainString(),
+                        instrument.symbol(),
+                        instrument.name(),
+                        instrument.isin(),
+                        gross.toPlainString(),
+                        fee.toPlainString(),
+                        settleDate,
+                        dayId + trade.seq()
+                ));
+            }
+        }
+        return lines;
+    }
+
+    /// Writes one document per account covering the whole spec period
+    /// under the key the core provider expects in its workspace.
+    public void writeTo(Dms dms) {
+        LoadDataSpec spec = activity.spec();
+        for (String accountName : spec.accountIds()) {
+            List<String> lines = transactionsCsvLines(accountName, spec.fromDateIncl(), spec.toDateIncl());
+            dms.put(accountName, "%s_transactions.csv".formatted(accountName), String.join("\n", lines));
+        }
+    }
+}
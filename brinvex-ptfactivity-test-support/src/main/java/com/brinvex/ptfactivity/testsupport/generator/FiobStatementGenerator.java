@@ -0,0 +1,214 @@
+package com.brinvex.ptfactivity.testsupport.generator;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.DayActivity;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Dividend;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Trade;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.time.format.DateTimeFormatter.BASIC_ISO_DATE;
+
+/// Generates Fio banka trading transaction statements (CSV, Czech) and saving account statements (XML)
+/// from {@link SyntheticActivity}.
+/// Fio account ids are account numbers, so the spec account ids must consist of digits.
+@SuppressWarnings("SpellCheckingInspection")
+public final class FiobStatementGenerator {
+
+    private static final Pattern ACCOUNT_NUMBER_PATTERN = Pattern.compile("\\d{8,16}");
+
+    private final SyntheticActivity activity;
+
+    public FiobStatementGenerator(LoadDataSpec spec) {
+        this.activity = new SyntheticActivity(spec);
+    }
+
+    public String tradingTransStatement(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        validateAccountNumber(accountId);
+        List<DayActivity> days = activity.days(accountId, fromDateIncl, toDateIncl);
+
+        List<String> rows = new ArrayList<>(days.size() * (activity.spec().tradesPerDay() + 3));
+        for (DayActivity day : days) {
+            String settleDate = Lazy.FIOB_DF.format(SyntheticActivity.settleDate(day.date()));
+            if (day.deposit() != null) {
+                BigDecimal depositCzk = day.deposit().multiply(BigDecimal.TEN);
+                rows.add(tradingRow(day.date().atTime(8, 0).format(Lazy.FIOB_DTF), "", "", "", "0", "CZK",
+                        fiobDecimal(depositCzk), "", "", "", "", "", "Vklad Bezhotovostní vklad", settleDate));
+            }
+            Dividend dividend = day.dividend();
+            if (dividend != null) {
+                String symbol = dividend.instrument().symbol();
+                String dateTime = day.date().atTime(7, 0).format(Lazy.FIOB_DTF);
+                String gross = fiobDecimal(dividend.gross());
+                String tax = fiobDecimal(dividend.tax().negate());
+                rows.add(tradingRow(dateTime, "", symbol, "1", gross, "USD",
+                        "", "", gross, "", "", "", "%s - Dividenda".formatted(symbol), settleDate));
+                rows.add(tradingRow(dateTime, "", symbol, "1", tax, "USD",
+                        "", "", tax, "", "", "", "%s - Daň z divid. zaplacená".formatted(symbol), settleDate));
+            }
+            for (Trade trade : day.trades()) {
+                String symbol = trade.instrument().symbol();
+                String direction = trade.buy() ? "Nákup" : "Prodej";
+                BigDecimal volume = trade.buy() ? trade.volume().negate() : trade.volume();
+                String dateTime = day.date().atTime(LocalTime.of(15, 30).plusMinutes(trade.seq() % 390)).format(Lazy.FIOB_DTF);
+                rows.add(tradingRow(dateTime, direction, symbol, fiobDecimal(trade.price()), trade.qty().toPlainString(), "USD",
+                        "", "", fiobDecimal(volume), fiobDecimal(trade.commission()), "", "", direction, settleDate));
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(512 + rows.size() * 160);
+        sb.append("Přehled obchodů;\"Obchodní účet: %s\"\n".formatted(accountId));
+        sb.append("Vytvořeno: %s 23:59:59\n".formatted(Lazy.FIOB_DF.format(toDateIncl)));
+        sb.append("Období: %s - %s\n".formatted(Lazy.FIOB_DF.format(fromDateIncl), Lazy.FIOB_DF.format(toDateIncl)));
+        sb.append("\n");
+        sb.append("Datum obchodu;Směr;Symbol;Cena;Počet;Měna;Objem v CZK;Poplatky v CZK;Objem v USD;Poplatky v USD;"
+                  + "Objem v EUR;Poplatky v EUR;Text FIO;Datum vypořádání;Stav;Pokyn ID;Trh;Název CP;Uživatelská identifikace\n");
+        for (String row : rows.reversed()) {
+            sb.append(row).append('\n');
+        }
+        sb.append(";;Součet;;;;;;;;;;;;;;;;\n");
+        sb.append("\n");
+        return sb.toString();
+    }
+
+    /// Deposits and sells become incoming transfers, buys become card payments
+    /// and the last business day of each month gets an interest and interest tax pair.
+    public String savingTransStatement(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        validateAccountNumber(accountId);
+        List<DayActivity> days = activity.days(accountId, fromDateIncl, toDateIncl);
+
+        StringBuilder sb = new StringBuilder(1024 + days.size() * (activity.spec().tradesPerDay() + 3) * 300);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<AccountStatement>\n");
+        sb.append("<Info>\n");
+        sb.append("<accountId>%s</accountId>\n".formatted(accountId));
+        sb.append("<bankId>2010</bankId>\n");
+        sb.append("<currency>CZK</currency>\n");
+        sb.append("<dateStart>%s</dateStart>\n".formatted(fiobXmlDate(fromDateIncl)));
+        sb.append("<dateEnd>%s</dateEnd>\n".formatted(fiobXmlDate(toDateIncl)));
+        sb.append("</Info>\n");
+        sb.append("<TransactionList>\n");
+        for (DayActivity day : days) {
+            long dayId = day.dayId();
+            if (day.deposit() != null) {
+                appendSavingTran(sb, dayId + 9_000, day.date(), day.deposit().multiply(BigDecimal.TEN), "Bezhotovostní příjem");
+            }
+            for (Trade trade : day.trades()) {
+                BigDecimal volume = trade.volume().setScale(2, RoundingMode.HALF_UP);
+                if (trade.buy()) {
+                    appendSavingTran(sb, dayId + trade.seq(), day.date(), volume.negate(), "Platba kartou");
+                } else {
+                    appendSavingTran(sb, dayId + trade.seq(), day.date(), volume, "Bezhotovostní příjem");
+                }
+            }
+            if (isLastBusinessDayOfMonth(day.date())) {
+                BigDecimal interest = BigDecimal.valueOf(1_000 + dayId % 9_000, 2);
+                BigDecimal tax = interest.multiply(new BigDecimal("0.15")).setScale(2, RoundingMode.HALF_UP);
+                appendSavingTran(sb, dayId + 9_004, day.date(), interest, "Připsaný úrok");
+                appendSavingTran(sb, dayId + 9_005, day.date(), tax.negate(), "Odvod daně z úroků");
+            }
+        }
+        sb.append("</TransactionList>\n");
+        sb.append("</AccountStatement>\n");
+        return sb.toString();
+    }
+
+    /// Writes one trading transaction statement per calendar year and account
+    /// under the keys the Fio provider expects in its workspace.
+    public void writeTradingStatementsTo(Dms dms) {
+        writeYearlyStatements(dms, "csv", this::tradingTransStatement);
+    }
+
+    /// Writes one saving account statement per calendar year and account
+    /// under the keys the Fio provider expects in its workspace.
+    public void writeSavingStatementsTo(Dms dms) {
+        writeYearlyStatements(dms, "xml", this::savingTransStatement);
+    }
+
+    private void writeYearlyStatements(Dms dms, String extension, StatementFactory statementFactory) {
+        LoadDataSpec spec = activity.spec();
+        for (String accountId : spec.accountIds()) {
+            validateAccountNumber(accountId);
+            for (LocalDate from = spec.fromDateIncl(); !from.isAfter(spec.toDateIncl()); from = from.plusYears(1).withDayOfYear(1)) {
+                LocalDate to = from.withDayOfYear(from.lengthOfYear());
+                if (to.isAfter(spec.toDateIncl())) {
+                    to = spec.toDateIncl();
+                }
+                String key = "%s-Transactions-%s-%s.%s".formatted(accountId, BASIC_ISO_DATE.format(from), BASIC_ISO_DATE.format(to), extension);
+                dms.put(accountId, key, statementFactory.create(accountId, from, to));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementFactory {
+        String create(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl);
+    }
+
+    private static void appendSavingTran(StringBuilder sb, long id, LocalDate date, BigDecimal volume, String type) {
+        sb.append("<Transaction>\n");
+        sb.append("<column_22 name=\"ID pohybu\" id=\"22\">%d</column_22>\n".formatted(id));
+        sb.append("<column_0 name=\"Datum\" id=\"0\">%s</column_0>\n".formatted(fiobXmlDate(date)));
+        sb.append("<column_1 name=\"Objem\" id=\"1\">%s</column_1>\n".formatted(volume.toPlainString()));
+        sb.append("<column_14 name=\"Měna\" id=\"14\">CZK</column_14>\n");
+        sb.append("<column_8 name=\"Typ\" id=\"8\">%s</column_8>\n".formatted(type));
+        sb.append("</Transaction>\n");
+    }
+
+    private static String tradingRow(
+            String tradeDate,
+            String direction,
+            String symbol,
+            String price,
+            String shares,
+            String ccy,
+            String volumeCzk,
+            String feesCzk,
+            String volumeUsd,
+            String feesUsd,
+            String volumeEur,
+            String feesEur,
+            String text,
+            String settleDate
+    ) {
+        return String.join(";", tradeDate, direction, symbol, price, shares, ccy, volumeCzk, feesCzk, volumeUsd, feesUsd,
+                volumeEur, feesEur, text, settleDate, "Vypořádáno", "", "NYSE", symbol, "");
+    }
+
+    private static boolean isLastBusinessDayOfMonth(LocalDate date) {
+        if (!SyntheticActivity.isBusinessDay(date)) {
+            return false;
+        }
+        LocalDate nextBusinessDay = date.plusDays(date.getDayOfWeek() == DayOfWeek.FRIDAY ? 3 : 1);
+        return nextBusinessDay.getMonth() != date.getMonth();
+    }
+
+    private static String fiobDecimal(BigDecimal value) {
+        return value.toPlainString().replace('.', ',');
+    }
+
+    private static String fiobXmlDate(LocalDate date) {
+        return date.atStartOfDay(Lazy.FIOB_ZONE).format(DateTimeFormatter.ISO_OFFSET_DATE);
+    }
+
+    private static void validateAccountNumber(String accountId) {
+        if (!ACCOUNT_NUMBER_PATTERN.matcher(accountId).matches()) {
+            throw new IllegalArgumentException("Fio accountId must consist of 8 to 16 digits, given: '%s'".formatted(accountId));
+        }
+    }
+
+    private static final class Lazy {
+        private static final DateTimeFormatter FIOB_DTF = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+        private static final DateTimeFormatter FIOB_DF = DateTimeFormatter.ofPattern("d.M.yyyy");
+        private static final ZoneId FIOB_ZONE = ZoneId.of("Europe/Prague");
+    }
+}
@@ -0,0 +1,256 @@
+package com.brinvex.ptfactivity.testsupport.generator;
+
+import com.brinvex.dms.api.Dms;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.DayActivity;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Dividend;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Instrument;
+import com.brinvex.ptfactivity.testsupport.generator.SyntheticActivity.Trade;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/// Generates IBKR Flex Activity and TradeConfirm statements from {@link SyntheticActivity}.
+public final class IbkrStatementGenerator {
+
+    private final SyntheticActivity activity;
+
+    public IbkrStatementGenerator(LoadDataSpec spec) {
+        this.activity = new SyntheticActivity(spec);
+    }
+
+    public String activityStatement(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        List<DayActivity> days = activity.days(accountId, fromDateIncl, toDateIncl);
+
+        StringBuilder sb = new StringBuilder(1024 + days.size() * (activity.spec().tradesPerDay() + 2) * 900);
+        sb.append("<FlexQueryResponse queryName=\"Synthetic\" type=\"AF\">\n");
+        sb.append("<FlexStatements count=\"1\">\n");
+        appendFlexStatementStart(sb, accountId, fromDateIncl, toDateIncl, "Custom");
+
+        sb.append("<EquitySummaryInBase>\n");
+        for (DayActivity day : days) {
+            sb.append(("<EquitySummaryByReportDateInBase currency=\"USD\" reportDate=\"%s\" cash=\"10000\" stock=\"50000\" "
+                       + "dividendAccruals=\"0\" interestAccruals=\"0\" total=\"60000\" />\n")
+                    .formatted(Lazy.IBKR_DF.format(day.date())));
+        }
+        sb.append("</EquitySummaryInBase>\n");
+
+        sb.append("<CashTransactions>\n");
+        for (DayActivity day : days) {
+            String d = Lazy.IBKR_DF.format(day.date());
+            long dayId = day.dayId();
+            if (day.deposit() != null) {
+                sb.append("<CashTransaction");
+                attr(sb, "currency", "USD");
+                attr(sb, "fxRateToBase", "1");
+                attr(sb, "symbol", "");
+                attr(sb, "listingExchange", "");
+                attr(sb, "assetCategory", "");
+                attr(sb, "subCategory", "");
+                attr(sb, "figi", "");
+                attr(sb, "isin", "");
+                attr(sb, "securityID", "");
+                attr(sb, "securityIDType", "");
+                attr(sb, "description", "CASH RECEIPTS / ELECTRONIC FUND TRANSFERS");
+                attr(sb, "dateTime", d);
+                attr(sb, "settleDate", d);
+                attr(sb, "amount", day.deposit().toPlainString());
+                attr(sb, "type", "Deposits/Withdrawals");
+                attr(sb, "transactionID", String.valueOf(dayId + 9_000));
+                attr(sb, "reportDate", d);
+                attr(sb, "actionID", "");
+                sb.append(" />\n");
+            }
+            Dividend dividend = day.dividend();
+            if (dividend != null) {
+                Instrument instrument = dividend.instrument();
+                String description = "%s(%s) CASH DIVIDEND USD 0.25 PER SHARE".formatted(instrument.symbol(), instrument.isin());
+                appendDividendCashTran(sb, instrument, d, dividend.gross(), "Dividends",
+                        description + " (Ordinary Dividend)", dayId + 9_001, dayId + 9_003);
+                appendDividendCashTran(sb, instrument, d, dividend.tax().negate(), "Withholding Tax",
+                        description + " - US TAX", dayId + 9_002, dayId + 9_003);
+            }
+        }
+        sb.append("</CashTransactions>\n");
+
+        sb.append("<Trades>\n");
+        for (DayActivity day : days) {
+            String d = Lazy.IBKR_DF.format(day.date());
+            String settleDate = Lazy.IBKR_DF.format(SyntheticActivity.settleDate(day.date()));
+            for (Trade trade : day.trades()) {
+                Instrument instrument = trade.instrument();
+                BigDecimal qty = trade.buy() ? trade.qty() : trade.qty().negate();
+                BigDecimal tradeMoney = qty.multiply(trade.price());
+                BigDecimal proceeds = tradeMoney.negate();
+                BigDecimal commission = trade.commission().negate();
+                BigDecimal netCash = proceeds.add(commission);
+                String time = Lazy.IBKR_TF.format(trade.time());
+                sb.append("<Trade");
+                appendInstrumentAttrs(sb, instrument);
+                attr(sb, "tradeID", String.valueOf(day.dayId() + trade.seq()));
+                attr(sb, "reportDate", d);
+                attr(sb, "dateTime", d + ";" + time);
+                attr(sb, "tradeDate", d);
+                attr(sb, "settleDateTarget", settleDate);
+                attr(sb, "transactionType", "ExchTrade");
+                attr(sb, "exchange", instrument.exchange());
+                attr(sb, "quantity", qty.toPlainString());
+                attr(sb, "tradePrice", trade.price().toPlainString());
+                attr(sb, "tradeMoney", tradeMoney.toPlainString());
+                attr(sb, "proceeds", proceeds.toPlainString());
+                attr(sb, "taxes", "0");
+                attr(sb, "ibCommission", commission.toPlainString());
+                attr(sb, "ibCommissionCurrency", "USD");
+                attr(sb, "netCash", netCash.toPlainString());
+                attr(sb, "cost", netCash.negate().toPlainString());
+                attr(sb, "buySell", trade.buy() ? "BUY" : "SELL");
+                attr(sb, "transactionID", String.valueOf(day.dayId() + 5_000 + trade.seq()));
+                attr(sb, "ibOrderID", String.valueOf(day.dayId() + 7_000 + trade.seq()));
+                attr(sb, "orderTime", d + ";" + time + " EST");
+                sb.append(" />\n");
+            }
+        }
+        sb.append("</Trades>\n");
+
+        sb.append("<CorporateActions />\n");
+        sb.append("</FlexStatement>\n");
+        sb.append("</FlexStatements>\n");
+        sb.append("</FlexQueryResponse>\n");
+        return sb.toString();
+    }
+
+    /// The trades of the given day as TradeConfirms.
+    /// The ids equal those of the same trades in {@link #activityStatement}.
+    public String tradeConfirmStatement(String accountId, LocalDate date) {
+        List<DayActivity> days = activity.days(accountId, date, date);
+
+        StringBuilder sb = new StringBuilder(1024 + (activity.spec().tradesPerDay() + 1) * 900);
+        sb.append("<FlexQueryResponse queryName=\"Synthetic\" type=\"TCF\">\n");
+        sb.append("<FlexStatements count=\"1\">\n");
+        appendFlexStatementStart(sb, accountId, date, date, "Today");
+        sb.append("<TradeConfirms>\n");
+        for (DayActivity day : days) {
+            String d = Lazy.IBKR_DF.format(day.date());
+            String settleDate = Lazy.IBKR_DF.format(SyntheticActivity.settleDate(day.date()));
+            for (Trade trade : day.trades()) {
+                Instrument instrument = trade.instrument();
+                BigDecimal qty = trade.buy() ? trade.qty() : trade.qty().negate();
+                BigDecimal amount = qty.multiply(trade.price());
+                BigDecimal proceeds = amount.negate();
+                BigDecimal commission = trade.commission().negate();
+                String time = Lazy.IBKR_TF.format(trade.time());
+                sb.append("<TradeConfirm");
+                appendInstrumentAttrs(sb, instrument);
+                attr(sb, "tradeID", String.valueOf(day.dayId() + trade.seq()));
+                attr(sb, "reportDate", d);
+                attr(sb, "dateTime", d + ";" + time);
+                attr(sb, "tradeDate", d);
+                attr(sb, "settleDate", settleDate);
+                attr(sb, "transactionType", "ExchTrade");
+                attr(sb, "exchange", instrument.exchange());
+                attr(sb, "quantity", qty.toPlainString());
+                attr(sb, "price", trade.price().toPlainString());
+                attr(sb, "amount", amount.toPlainString());
+                attr(sb, "proceeds", proceeds.toPlainString());
+                attr(sb, "netCash", proceeds.add(commission).toPlainString());
+                attr(sb, "tax", "0");
+                attr(sb, "commission", commission.toPlainString());
+                attr(sb, "commissionCurrency", "USD");
+                attr(sb, "buySell", trade.buy() ? "BUY" : "SELL");
+                attr(sb, "orderID", String.valueOf(day.dayId() + 7_000 + trade.seq()));
+                attr(sb, "orderTime", d + ";" + time + " EST");
+                sb.append(" />\n");
+            }
+        }
+        sb.append("</TradeConfirms>\n");
+        sb.append("</FlexStatement>\n");
+        sb.append("</FlexStatements>\n");
+        sb.append("</FlexQueryResponse>\n");
+        return sb.toString();
+    }
+
+    /// Writes one Activity statement per calendar year, the last one ending the day before the spec toDate,
+    /// and a TradeConfirm statement for the spec toDate,
+    /// which is the layout the IBKR provider leaves behind after daily online runs.
+    /// Documents are stored under the keys the IBKR provider expects in its workspace.
+    public void writeTo(Dms dms) {
+        LoadDataSpec spec = activity.spec();
+        LocalDate actToDateIncl = spec.toDateIncl().minusDays(1);
+        for (String accountId : spec.accountIds()) {
+            for (LocalDate from = spec.fromDateIncl(); !from.isAfter(actToDateIncl); from = from.plusYears(1).withDayOfYear(1)) {
+                LocalDate to = from.withDayOfYear(from.lengthOfYear());
+                if (to.isAfter(actToDateIncl)) {
+                    to = actToDateIncl;
+                }
+                String key = "%s-ACT-%s-%s.xml".formatted(accountId, Lazy.IBKR_DF.format(from), Lazy.IBKR_DF.format(to));
+                dms.put(accountId, key, activityStatement(accountId, from, to));
+            }
+            String tcKey = "%s-TC-%s.xml".formatted(accountId, Lazy.IBKR_DF.format(spec.toDateIncl()));
+            dms.put(accountId, tcKey, tradeConfirmStatement(accountId, spec.toDateIncl()));
+        }
+    }
+
+    private static void appendFlexStatementStart(StringBuilder sb, String accountId, LocalDate fromDateIncl, LocalDate toDateIncl, String period) {
+        sb.append("<FlexStatement accountId=\"%s\" fromDate=\"%s\" toDate=\"%s\" period=\"%s\" whenGenerated=\"%s;235959 EST\">\n".formatted(
+                accountId,
+                Lazy.IBKR_DF.format(fromDateIncl),
+                Lazy.IBKR_DF.format(toDateIncl),
+                period,
+                Lazy.IBKR_DF.format(toDateIncl)));
+    }
+
+    private static void appendInstrumentAttrs(StringBuilder sb, Instrument instrument) {
+        attr(sb, "currency", "USD");
+        attr(sb, "assetCategory", "STK");
+        attr(sb, "subCategory", "COMMON");
+        attr(sb, "symbol", instrument.symbol());
+        attr(sb, "description", instrument.name());
+        attr(sb, "securityID", instrument.isin());
+        attr(sb, "securityIDType", "ISIN");
+        attr(sb, "figi", instrument.figi());
+        attr(sb, "isin", instrument.isin());
+        attr(sb, "listingExchange", instrument.exchange());
+    }
+
+    private static void appendDividendCashTran(
+            StringBuilder sb,
+            Instrument instrument,
+            String date,
+            BigDecimal amount,
+            String type,
+            String description,
+            long transactionId,
+            long actionId
+    ) {
+        sb.append("<CashTransaction");
+        attr(sb, "currency", "USD");
+        attr(sb, "fxRateToBase", "1");
+        attr(sb, "symbol", instrument.symbol());
+        attr(sb, "listingExchange", instrument.exchange());
+        attr(sb, "assetCategory", "STK");
+        attr(sb, "subCategory", "COMMON");
+        attr(sb, "figi", instrument.figi());
+        attr(sb, "isin", instrument.isin());
+        attr(sb, "securityID", instrument.isin());
+        attr(sb, "securityIDType", "ISIN");
+        attr(sb, "description", description);
+        attr(sb, "dateTime", date + ";202000");
+        attr(sb, "settleDate", date);
+        attr(sb, "amount", amount.toPlainString());
+        attr(sb, "type", type);
+        attr(sb, "transactionID", String.valueOf(transactionId));
+        attr(sb, "reportDate", date);
+        attr(sb, "actionID", String.valueOf(actionId));
+        sb.append(" />\n");
+    }
+
+    private static void attr(StringBuilder sb, String name, String value) {
+        sb.append(' ').append(name).append("=\"").append(value.replace("&", "&amp;")).append('"');
+    }
+
+    private static final class Lazy {
+        private static final DateTimeFormatter IBKR_DF = DateTimeFormatter.ofPattern("yyyyMMdd");
+        private static final DateTimeFormatter IBKR_TF = DateTimeFormatter.ofPattern("HHmmss");
+    }
+}
@@ -0,0 +1,30 @@
+package com.brinvex.ptfactivity.testsupport.generator;
+
+import com.brinvex.dms.api.DmsFactory;
+
+/// Fills the default provider workspaces of a {@link DmsFactory} with synthetic documents,
+/// typically a filesystem factory used by benchmarks and soak tests.
+/// Fio documents are generated only if all spec account ids are account numbers.
+public final class LoadDataGenerator {
+
+    public static final String IBKR_WORKSPACE = "ibkr-dms";
+
+    public static final String FIOB_WORKSPACE = "fiob-dms";
+
+    public static final String CORE_WORKSPACE = "core-dms";
+
+    private LoadDataGenerator() {
+    }
+
+    public static void generate(DmsFactory dmsFactory, LoadDataSpec spec) {
+        new IbkrStatementGenerator(spec).writeTo(dmsFactory.getDms(IBKR_WORKSPACE));
+
+        if (spec.accountIds().stream().allMatch(accountId -> accountId.chars().allMatch(Character::isDigit))) {
+            FiobStatementGenerator fiobGenerator = new FiobStatementGenerator(spec);
+            fiobGenerator.writeTradingStatementsTo(dmsFactory.getDms(FIOB_WORKSPACE));
+            fiobGenerator.writeSavingStatementsTo(dmsFactory.getDms(FIOB_WORKSPACE));
+        }
+
+        new CoreTransactionsGenerator(spec).writeTo(dmsFactory.getDms(CORE_WORKSPACE));
+    }
+}
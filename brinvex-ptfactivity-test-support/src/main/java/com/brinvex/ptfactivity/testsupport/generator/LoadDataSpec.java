@@ -0,0 +1,62 @@
+package com.brinvex.ptfactivity.testsupport.generator;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/// Specification of synthetic load data.
+/// Generators given equal specifications produce equal documents.
+///
+/// @param seed         seed of the pseudo-random sequences
+/// @param toDateIncl   last generated day, the history covers {@code years} years up to this day
+/// @param years        number of years of history
+/// @param tradesPerDay number of trades (or account movements) per business day and account
+/// @param symbols      traded symbols, symbols not known to the generator get synthetic identifiers
+/// @param accountIds   account ids, also used as document directories;
+///                     8 to 16 digits satisfy the document key patterns of all providers
+public record LoadDataSpec(
+        long seed,
+        LocalDate toDateIncl,
+        int years,
+        int tradesPerDay,
+        List<String> symbols,
+        List<String> accountIds
+) {
+
+    public static final List<String> DEFAULT_SYMBOLS = List.of("AAPL", "MSFT", "NVDA", "AMZN", "KO", "JNJ");
+
+    private static final Pattern ACCOUNT_ID_PATTERN = Pattern.compile("\\w{8,16}");
+
+    public LoadDataSpec {
+        if (toDateIncl == null) {
+            throw new IllegalArgumentException("toDateIncl must not be null");
+        }
+        if (years < 1) {
+            throw new IllegalArgumentException("years must be positive, given: %s".formatted(years));
+        }
+        if (tradesPerDay < 0 || tradesPerDay > 1000) {
+            throw new IllegalArgumentException("tradesPerDay must be between 0 and 1000, given: %s".formatted(tradesPerDay));
+        }
+        if (symbols == null || symbols.isEmpty()) {
+            throw new IllegalArgumentException("symbols must not be empty");
+        }
+        if (accountIds == null || accountIds.isEmpty()) {
+            throw new IllegalArgumentException("accountIds must not be empty");
+        }
+        for (String accountId : accountIds) {
+            if (!ACCOUNT_ID_PATTERN.matcher(accountId).matches()) {
+                throw new IllegalArgumentException("accountId must consist of 8 to 16 word characters, given: '%s'".formatted(accountId));
+            }
+        }
+        symbols = List.copyOf(symbols);
+        accountIds = List.copyOf(accountIds);
+    }
+
+    public static LoadDataSpec of(int years, int tradesPerDay, List<String> accountIds) {
+        return new LoadDataSpec(0, LocalDate.now().minusDays(1), years, tradesPerDay, DEFAULT_SYMBOLS, accountIds);
+    }
+
+    public LocalDate fromDateIncl() {
+        return toDateIncl.minusYears(years).plusDays(1);
+    }
+}
@@ -0,0 +1,152 @@
+package com.brinvex.ptfactivity.testsupport.generator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/// Broker-neutral synthetic account activity.
+/// The activity of one business day depends only on the spec seed, the account id and the date,
+/// so documents covering overlapping periods contain identical records for the shared days.
+final class SyntheticActivity {
+
+    record Instrument(String symbol, String name, String isin, String figi, String exchange, BigDecimal basePrice) {
+    }
+
+    /// @param qty        always positive, the direction is given by {@code buy}
+    /// @param commission always positive
+    record Trade(int seq, Instrument instrument, boolean buy, BigDecimal qty, BigDecimal price, BigDecimal commission, LocalTime time) {
+        BigDecimal volume() {
+            return qty.multiply(price);
+        }
+    }
+
+    /// @param tax always positive
+    record Dividend(Instrument instrument, BigDecimal gross, BigDecimal tax) {
+    }
+
+    /// @param dayId   base of the ids of all records of the day, unique within an account
+    /// @param deposit nullable
+    /// @param dividend nullable
+    record DayActivity(LocalDate date, long dayId, BigDecimal deposit, Dividend dividend, List<Trade> trades) {
+    }
+
+    private static final Map<String, Instrument> KNOWN_INSTRUMENTS = knownInstruments();
+
+    private static final BigDecimal DIVIDEND_TAX_RATE = new BigDecimal("0.15");
+
+    private static final BigDecimal COMMISSION = new BigDecimal("1.00");
+
+    private final LoadDataSpec spec;
+
+    private final List<Instrument> instruments;
+
+    SyntheticActivity(LoadDataSpec spec) {
+        this.spec = spec;
+        this.instruments = spec.symbols().stream().map(SyntheticActivity::instrument).toList();
+    }
+
+    LoadDataSpec spec() {
+        return spec;
+    }
+
+    List<DayActivity> days(String accountId, LocalDate fromDateIncl, LocalDate toDateIncl) {
+        List<DayActivity> days = new ArrayList<>();
+        for (LocalDate date = fromDateIncl; !date.isAfter(toDateIncl); date = date.plusDays(1)) {
+            if (isBusinessDay(date)) {
+                days.add(day(accountId, date));
+            }
+        }
+        return days;
+    }
+
+    DayActivity day(String accountId, LocalDate date) {
+        Random rnd = new Random(spec.seed() * 1_000_003L + accountId.hashCode() * 31L + date.toEpochDay());
+        long dayId = date.toEpochDay() * 10_000;
+
+        BigDecimal deposit = isFirstBusinessDayOfMonth(date) ? BigDecimal.valueOf(5_000 + rnd.nextInt(5) * 1_000) : null;
+
+        Dividend dividend = null;
+        if (rnd.nextInt(5) == 0) {
+            Instrument instrument = instruments.get(rnd.nextInt(instruments.size()));
+            BigDecimal gross = BigDecimal.valueOf(100 + rnd.nextInt(5_000), 2);
+            BigDecimal tax = gross.multiply(DIVIDEND_TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+            dividend = new Dividend(instrument, gross, tax);
+        }
+
+        int tradesPerDay = spec.tradesPerDay();
+        List<Trade> trades = new ArrayList<>(tradesPerDay);
+        for (int i = 0; i < tradesPerDay; i++) {
+            Instrument instrument = instruments.get(rnd.nextInt(instruments.size()));
+            boolean buy = rnd.nextInt(3) != 0;
+            BigDecimal qty = BigDecimal.valueOf(1 + rnd.nextInt(50));
+            BigDecimal price = instrument.basePrice()
+                    .multiply(BigDecimal.valueOf(900 + rnd.nextInt(200), 3))
+                    .setScale(2, RoundingMode.HALF_UP);
+            LocalTime time = LocalTime.of(9, 30).plusSeconds(i * 23L);
+            trades.add(new Trade(i, instrument, buy, qty, price, COMMISSION, time));
+        }
+        return new DayActivity(date, dayId, deposit, dividend, trades);
+    }
+
+    static LocalDate settleDate(LocalDate tradeDate) {
+        LocalDate settleDate = tradeDate;
+        for (int i = 0; i < 2; i++) {
+            do {
+                settleDate = settleDate.plusDays(1);
+            } while (!isBusinessDay(settleDate));
+        }
+        return settleDate;
+    }
+
+    static boolean isBusinessDay(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY;
+    }
+
+    private static boolean isFirstBusinessDayOfMonth(LocalDate date) {
+        if (!isBusinessDay(date)) {
+            return false;
+        }
+        LocalDate prevBusinessDay = date.minusDays(date.getDayOfWeek() == DayOfWeek.MONDAY ? 3 : 1);
+        return prevBusinessDay.getMonth() != date.getMonth();
+    }
+
+    private static Instrument instrument(String symbol) {
+        Instrument known = KNOWN_INSTRUMENTS.get(symbol);
+        if (known != null) {
+            return known;
+        }
+        long hash = Math.abs((long) symbol.hashCode());
+        return new Instrument(
+                symbol,
+                "%s INC".formatted(symbol),
+                "US%09d0".formatted(hash % 1_000_000_000L),
+                "BBG%09d".formatted(hash % 1_000_000_000L),
+                hash % 2 == 0 ? "NYSE" : "NASDAQ",
+                BigDecimal.valueOf(20 + hash % 400)
+        );
+    }
+
+    @SuppressWarnings("SpellCheckingInspection")
+    private static Map<String, Instrument> knownInstruments() {
+        Map<String, Instrument> instruments = new LinkedHashMap<>();
+        for (Instrument instrument : List.of(
+                new Instrument("AAPL", "APPLE INC", "US0378331005", "BBG000B9XRY4", "NASDAQ", new BigDecimal("190")),
+                new Instrument("MSFT", "MICROSOFT CORP", "US5949181045", "BBG000BPH459", "NASDAQ", new BigDecimal("410")),
+                new Instrument("NVDA", "NVIDIA CORP", "US67066G1040", "BBG000BBJQV0", "NASDAQ", new BigDecimal("120")),
+                new Instrument("AMZN", "AMAZON.COM INC", "US0231351067", "BBG000BVPV84", "NASDAQ", new BigDecimal("180")),
+                new Instrument("KO", "COCA-COLA CO", "US1912161007", "BBG000BMX289", "NYSE", new BigDecimal("60")),
+                new Instrument("JNJ", "JOHNSON & JOHNSON", "US4781601046", "BBG000BMHYD1", "NYSE", new BigDecimal("155"))
+        )) {
+            instruments.put(instrument.symbol(), instrument);
+        }
+        return instruments;
+    }
+}
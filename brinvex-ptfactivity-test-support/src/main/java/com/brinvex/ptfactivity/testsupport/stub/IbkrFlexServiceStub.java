@@ -0,0 +1,299 @@
+package com.brinvex.ptfactivity.testsupport.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/// In-JVM stand-in of the IBKR Flex Web Service for offline fetch tests and load tests.
+///
+/// Emulates the two-step protocol: `SendRequest` answers a reference code and the `GetStatement` URL,
+/// `GetStatement` answers error 1019 until the configured generation time has elapsed and then the statement.
+/// Requests exceeding the per-token rate limits are answered with error 1018,
+/// unknown reference codes with 1017 and queries the {@link StatementSource} does not know with 1014.
+/// Responses are gzip compressed if the request accepts it.
+/// Requests are handled on virtual threads, so thousands of concurrent fetches are cheap.
+///
+/// Point the IBKR module at the stub with the `flexBaseUrl` module property set to {@link #baseUrl()}.
+public final class IbkrFlexServiceStub implements AutoCloseable {
+
+    /// Returns the statement content for the given token and flex query id, or null if the query is unknown.
+    @FunctionalInterface
+    public interface StatementSource {
+        String statement(String token, String flexQueryId);
+    }
+
+    private record PendingStatement(String token, String flexQueryId, long readyAtNanos) {
+    }
+
+    private static final String SERVLET_PATH = "/Universal/servlet/FlexStatementService";
+
+    private final StatementSource statementSource;
+
+    private final Map<String, PendingStatement> pendingStatements = new ConcurrentHashMap<>();
+
+    private final Map<String, Deque<Long>> acceptedRequestNanosByToken = new HashMap<>();
+
+    private final AtomicLong referenceCodeSeq = new AtomicLong(8_000_000_000L);
+
+    private final AtomicLong sendRequestCount = new AtomicLong();
+
+    private final AtomicLong getStatementCount = new AtomicLong();
+
+    private final AtomicLong throttledCount = new AtomicLong();
+
+    private final AtomicLong gzipResponseCount = new AtomicLong();
+
+    private final AtomicLong inProgressCount = new AtomicLong();
+
+    private volatile Duration latency = Duration.ZERO;
+
+    private volatile Duration generationDuration = Duration.ZERO;
+
+    private volatile int maxRequestsPerSecond = 1;
+
+    private volatile int maxRequestsPerMinute = 10;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    public IbkrFlexServiceStub(StatementSource statementSource) {
+        this.statementSource = statementSource;
+    }
+
+    /// Delay added to every response, default zero
+    public IbkrFlexServiceStub latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /// Time between `SendRequest` and the first successful `GetStatement`, default zero
+    public IbkrFlexServiceStub generationDuration(Duration generationDuration) {
+        this.generationDuration = generationDuration;
+        return this;
+    }
+
+    /// Per-token request limits of both endpoints, default 1 per second and 10 per minute as documented by IBKR;
+    /// a non-positive value disables the respective limit
+    public IbkrFlexServiceStub throttling(int maxRequestsPerSecond, int maxRequestsPerMinute) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+        return this;
+    }
+
+    public IbkrFlexServiceStub start() {
+        if (server != null) {
+            throw new IllegalStateException("Already started");
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(SERVLET_PATH + ".SendRequest", this::handleSendRequest);
+        server.createContext(SERVLET_PATH + ".GetStatement", this::handleGetStatement);
+        server.start();
+        return this;
+    }
+
+    /// Value of the IBKR module property `flexBaseUrl`
+    public String baseUrl() {
+        if (server == null) {
+            throw new IllegalStateException("Not started");
+        }
+        InetSocketAddress address = server.getAddress();
+        return "http://%s:%s%s".formatted(address.getHostString(), address.getPort(), SERVLET_PATH);
+    }
+
+    public long sendRequestCount() {
+        return sendRequestCount.get();
+    }
+
+    public long getStatementCount() {
+        return getStatementCount.get();
+    }
+
+    /// Number of requests answered with error 1018
+    public long throttledCount() {
+        return throttledCount.get();
+    }
+
+    /// Number of responses sent with gzip content encoding
+    public long gzipResponseCount() {
+        return gzipResponseCount.get();
+    }
+
+    /// Number of requests answered with error 1019
+    public long inProgressCount() {
+        return inProgressCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.close();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private void handleSendRequest(HttpExchange exchange) throws IOException {
+        sendRequestCount.incrementAndGet();
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String token = params.get("t");
+        String flexQueryId = params.get("q");
+        String body;
+        if (token == null || flexQueryId == null) {
+            body = errorResponse(1020, "Invalid request or unable to validate request.");
+        } else if (!tryAcquire(token)) {
+            throttledCount.incrementAndGet();
+            body = errorResponse(1018, "Too many requests have been made from this token. Please try again shortly.");
+        } else if (statementSource.statement(token, flexQueryId) == null) {
+            body = errorResponse(1014, "Query is invalid.");
+        } else {
+            String referenceCode = String.valueOf(referenceCodeSeq.incrementAndGet());
+            pendingStatements.put(referenceCode, new PendingStatement(token, flexQueryId, System.nanoTime() + generationDuration.toNanos()));
+            String getStatementUrl = "http://%s:%s%s.GetStatement".formatted(
+                    exchange.getLocalAddress().getHostString(), exchange.getLocalAddress().getPort(), SERVLET_PATH);
+            body = """
+                    <FlexStatementResponse timestamp='stub'>
+                    <Status>Success</Status>
+                    <ReferenceCode>%s</ReferenceCode>
+                    <Url>%s</Url>
+                    </FlexStatementResponse>
+                    """.formatted(referenceCode, getStatementUrl);
+        }
+        respond(exchange, body);
+    }
+
+    private void handleGetStatement(HttpExchange exchange) throws IOException {
+        getStatementCount.incrementAndGet();
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        String token = params.get("t");
+        String referenceCode = params.get("q");
+        PendingStatement pending = referenceCode == null ? null : pendingStatements.get(referenceCode);
+        String body;
+        if (pending == null) {
+            body = errorResponse(1017, "Reference code is invalid.");
+        } else if (!pending.token().equals(token)) {
+            body = errorResponse(1015, "Token is invalid.");
+        } else if (!tryAcquire(token)) {
+            throttledCount.incrementAndGet();
+            body = errorResponse(1018, "Too many requests have been made from this token. Please try again shortly.");
+        } else if (System.nanoTime() - pending.readyAtNanos() < 0) {
+            inProgressCount.incrementAndGet();
+            body = errorResponse(1019, "Statement generation in progress. Please try again shortly.");
+        } else {
+            pendingStatements.remove(referenceCode);
+            body = statementSource.statement(token, pending.flexQueryId());
+        }
+        respond(exchange, body);
+    }
+
+    /// Sliding-window check of both limits, rejected requests are not counted
+    private boolean tryAcquire(String token) {
+        int perSecond = maxRequestsPerSecond;
+        int perMinute = maxRequestsPerMinute;
+        if (perSecond <= 0 && perMinute <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        synchronized (acceptedRequestNanosByToken) {
+            Deque<Long> accepted = acceptedRequestNanosByToken.computeIfAbsent(token, _ -> new ArrayDeque<>());
+            while (!accepted.isEmpty() && now - accepted.peekFirst() >= Lazy.MINUTE_NANOS) {
+                accepted.pollFirst();
+            }
+            if (perMinute > 0 && accepted.size() >= perMinute) {
+                return false;
+            }
+            if (perSecond > 0) {
+                int lastSecondCount = 0;
+                for (var it = accepted.descendingIterator(); it.hasNext() && now - it.next() < Lazy.SECOND_NANOS; ) {
+                    lastSecondCount++;
+                }
+                if (lastSecondCount >= perSecond) {
+                    return false;
+                }
+            }
+            accepted.addLast(now);
+            return true;
+        }
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        Duration latency = this.latency;
+        if (latency.isPositive()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = body.getBytes(UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml;charset=utf-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(gzipped)) {
+                gzipOut.write(bytes);
+            }
+            bytes = gzipped.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            gzipResponseCount.incrementAndGet();
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String errorResponse(int errorCode, String errorMessage) {
+        return """
+                <FlexStatementResponse timestamp='stub'>
+                <Status>Warn</Status>
+                <ErrorCode>%s</ErrorCode>
+                <ErrorMessage>%s</ErrorMessage>
+                </FlexStatementResponse>
+                """.formatted(errorCode, errorMessage);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (String param : rawQuery.split("&")) {
+                int eqIdx = param.indexOf('=');
+                if (eqIdx > 0) {
+                    params.put(URLDecoder.decode(param.substring(0, eqIdx), UTF_8), URLDecoder.decode(param.substring(eqIdx + 1), UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static final class Lazy {
+        private static final long SECOND_NANOS = Duration.ofSeconds(1).toNanos();
+        private static final long MINUTE_NANOS = Duration.ofMinutes(1).toNanos();
+    }
+}
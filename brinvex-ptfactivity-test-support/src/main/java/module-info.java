@@ -1,10 +1,13 @@
 module com.brinvex.ptfactivity.testsupport {
     exports com.brinvex.ptfactivity.testsupport;
+    exports com.brinvex.ptfactivity.testsupport.generator;
+    exports com.brinvex.ptfactivity.testsupport.stub;
     requires com.brinvex.ptfactivity.core;
     requires com.brinvex.finance.types;
     requires com.brinvex.java;
     requires com.brinvex.dms;
     requires com.fasterxml.jackson.annotation;
     requires org.junit.jupiter.api;
+    requires jdk.httpserver;
 
 }
\ No newline at end of file